@@ -0,0 +1,74 @@
+package com.ecommerce.order.benchmark;
+
+import com.ecommerce.order.OrderServiceApplication;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Boots the order service without a web server against a private in-memory
+ * H2 database, with Hibernate statistics on so benchmarks can count the SQL
+ * statements an operation issues. The order archive and the export job spool
+ * live in fresh temporary directories and the archival job is off.
+ */
+public final class OrderBenchmarkContext implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    public OrderBenchmarkContext(String databaseName) {
+        this(databaseName, Map.of());
+    }
+
+    /**
+     * @param overrides extra properties, applied over the benchmark defaults
+     */
+    public OrderBenchmarkContext(String databaseName, Map<String, ?> overrides) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url",
+                "jdbc:h2:mem:" + databaseName + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.jpa.hibernate.ddl-auto", "create");
+        properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("spring.jpa.properties.hibernate.generate_statistics", "true");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("order.archive.enabled", "false");
+        properties.put("order.archive.dir", Paths.get(System.getProperty("java.io.tmpdir"),
+                "order-archive-" + databaseName + "-" + System.nanoTime()));
+        properties.put("order.export.jobs.dir", Paths.get(System.getProperty("java.io.tmpdir"),
+                "order-export-jobs-" + databaseName + "-" + System.nanoTime()));
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.ecommerce.order", "WARN");
+        properties.put("logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener", "OFF");
+        properties.putAll(overrides);
+
+        SpringApplication application = new SpringApplication(OrderServiceApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        // Command-line style args take precedence over application.properties
+        context = application.run(properties.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new));
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public Statistics getStatistics() {
+        return context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
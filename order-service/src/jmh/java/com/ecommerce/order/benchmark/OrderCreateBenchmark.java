@@ -0,0 +1,68 @@
+package com.ecommerce.order.benchmark;
+
+import com.ecommerce.order.dto.BulkOrderResult;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.service.BulkOrderService;
+import com.ecommerce.order.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-order path ({@link OrderService#createOrder} once per order) against
+ * the bulk path ({@link BulkOrderService#createOrders}) for the same number of
+ * orders. Each invocation creates {@code ordersPerInvocation} orders, so the
+ * two scores are directly comparable.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class OrderCreateBenchmark {
+
+    @Param({"100", "1000"})
+    public int ordersPerInvocation;
+
+    @Param({"3"})
+    public int itemsPerOrder;
+
+    private OrderBenchmarkContext context;
+    private OrderService orderService;
+    private BulkOrderService bulkOrderService;
+    private OrderGenerator generator;
+    private List<Order> orders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new OrderBenchmarkContext("create");
+        orderService = context.getBean(OrderService.class);
+        bulkOrderService = context.getBean(BulkOrderService.class);
+        generator = new OrderGenerator(42L);
+    }
+
+    @Setup(Level.Invocation)
+    public void newOrders() {
+        orders = generator.orders(ordersPerInvocation, itemsPerOrder, 1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void singleOrderPath(Blackhole blackhole) {
+        for (Order order : orders) {
+            blackhole.consume(orderService.createOrder(order));
+        }
+    }
+
+    @Benchmark
+    public List<BulkOrderResult> bulkPath() {
+        return bulkOrderService.createOrders(orders);
+    }
+}
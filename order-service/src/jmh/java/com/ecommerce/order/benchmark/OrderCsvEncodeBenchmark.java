@@ -0,0 +1,124 @@
+package com.ecommerce.order.benchmark;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.export.OrderCsvWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding orders already in memory as CSV, without the database: the
+ * {@link OrderCsvWriter} against the {@code BufferedWriter} loop the export
+ * used before it. Each operation is one row, so the score is rows per second
+ * and {@code gc.alloc.rate.norm} is bytes allocated per row.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderCsvEncodeBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private List<Order> orders;
+    private final CountingOutputStream out = new CountingOutputStream();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orders = new OrderGenerator(42L).orders(ROWS, 2, 500);
+        LocalDateTime date = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Order.OrderStatus[] statuses = Order.OrderStatus.values();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            order.setId(1_000_000L + i);
+            order.setStatus(statuses[i % statuses.length]);
+            order.setOrderDate(date.plusSeconds(i * 97L));
+            order.setTotalAmount(order.getItems().stream()
+                    .map(item -> item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add));
+            order.setItemCount(order.getItems().size());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long orderCsvWriter() throws IOException {
+        out.count = 0;
+        OrderCsvWriter writer = new OrderCsvWriter(out, 1 << 16);
+        writer.writeHeader();
+        for (Order order : orders) {
+            writer.write(order);
+        }
+        writer.flush();
+        return out.count;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long bufferedWriter() throws IOException {
+        out.count = 0;
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        writer.write('\uFEFF');
+        writer.write(OrderCsvWriter.HEADER);
+        writer.newLine();
+        for (Order order : orders) {
+            int itemCount = order.getItemCount() != null ? order.getItemCount()
+                    : order.getItems() != null ? order.getItems().size() : 0;
+            writer.write(String.valueOf(order.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(order.getUserId()));
+            writer.write(',');
+            writer.write(order.getStatus() != null ? order.getStatus().name() : "");
+            writer.write(',');
+            writer.write(order.getTotalAmount() != null ? order.getTotalAmount().toPlainString() : "0");
+            writer.write(',');
+            writer.write(escapeCSV(order.getPaymentMethod()));
+            writer.write(',');
+            writer.write(escapeCSV(order.getShippingAddress()));
+            writer.write(',');
+            writer.write(order.getOrderDate() != null ? order.getOrderDate().format(DATE_FMT) : "");
+            writer.write(',');
+            writer.write(String.valueOf(itemCount));
+            writer.newLine();
+        }
+        writer.flush();
+        return out.count;
+    }
+
+    private static String escapeCSV(String value) {
+        if (value == null) return "";
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    /**
+     * Discards what is written, keeping only the byte count.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.ecommerce.order.benchmark;
+
+import com.ecommerce.order.dto.OrderExportFilter;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.service.BulkOrderService;
+import com.ecommerce.order.service.OrderExportService;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Filtered CSV export: the old path, which streamed the whole table and
+ * filtered in Java, against the filters pushed down to indexed queries.
+ * <p>
+ * Orders are spread one minute apart; one in twenty is DELIVERED. The
+ * {@code rowsLoaded} and {@code calls} secondary results are iteration
+ * totals; {@code rowsLoaded / calls} is the number of entities read per
+ * export. The pushed-down paths should read only the matching rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class OrderExportFilterBenchmark {
+
+    private static final Order.OrderStatus STATUS = Order.OrderStatus.DELIVERED;
+    private static final int CLEAR_INTERVAL = 500;
+
+    @Param({"50000"})
+    public int orders;
+
+    private OrderBenchmarkContext context;
+    private OrderExportService orderExportService;
+    private OrderRepository orderRepository;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private Statistics statistics;
+    private LocalDateTime rangeStart;
+    private LocalDateTime rangeEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new OrderBenchmarkContext("export-filter");
+        orderExportService = context.getBean(OrderExportService.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        entityManager = context.getBean(EntityManager.class);
+        statistics = context.getStatistics();
+
+        OrderGenerator generator = new OrderGenerator(42L);
+        BulkOrderService bulkOrderService = context.getBean(BulkOrderService.class);
+        for (int created = 0; created < orders; created += 1000) {
+            List<Order> batch = generator.orders(Math.min(1000, orders - created), 2, 500);
+            bulkOrderService.createOrders(batch);
+        }
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("UPDATE orders SET order_date = TIMESTAMPADD(MINUTE, -id, TIMESTAMP '2024-01-01 00:00:00')");
+        jdbcTemplate.update("UPDATE orders SET status = '" + STATUS.name() + "' WHERE MOD(id, 20) = 0");
+
+        // A window holding 5% of the orders
+        rangeEnd = LocalDateTime.of(2024, 1, 1, 0, 0).minusMinutes(orders / 2);
+        rangeStart = rangeEnd.minusMinutes(orders / 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class LoadCounter {
+        public long rowsLoaded;
+        public long calls;
+    }
+
+    @Benchmark
+    public long fullTableByStatus(LoadCounter counter) {
+        long before = statistics.getEntityLoadCount();
+        long rows = fullTable(o -> o.getStatus() == STATUS);
+        record(counter, before);
+        return rows;
+    }
+
+    @Benchmark
+    public void indexedByStatus(LoadCounter counter) throws IOException {
+        long before = statistics.getEntityLoadCount();
+        orderExportService.exportOrdersByStatus(STATUS, OutputStream.nullOutputStream());
+        record(counter, before);
+    }
+
+    @Benchmark
+    public long fullTableByDateRange(LoadCounter counter) {
+        long before = statistics.getEntityLoadCount();
+        long rows = fullTable(o -> !o.getOrderDate().isBefore(rangeStart) && !o.getOrderDate().isAfter(rangeEnd));
+        record(counter, before);
+        return rows;
+    }
+
+    @Benchmark
+    public void indexedByDateRange(LoadCounter counter) throws IOException {
+        long before = statistics.getEntityLoadCount();
+        orderExportService.exportOrdersByDateRange(rangeStart, rangeEnd, OutputStream.nullOutputStream());
+        record(counter, before);
+    }
+
+    @Benchmark
+    public void indexedByStatusAndDateRange(LoadCounter counter) throws IOException {
+        long before = statistics.getEntityLoadCount();
+        orderExportService.exportOrders(new OrderExportFilter(null, STATUS, rangeStart, rangeEnd),
+                OutputStream.nullOutputStream());
+        record(counter, before);
+    }
+
+    /**
+     * The pre-pushdown export loop, minus CSV formatting, which only flatters it.
+     */
+    private long fullTable(Predicate<Order> filter) {
+        return transactionTemplate.execute(status -> {
+            long matched = 0;
+            long read = 0;
+            try (Stream<Order> stream = orderRepository.streamAll()) {
+                Iterator<Order> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    if (filter.test(iterator.next())) {
+                        matched++;
+                    }
+                    if (++read % CLEAR_INTERVAL == 0) {
+                        entityManager.clear();
+                    }
+                }
+            }
+            return matched;
+        });
+    }
+
+    private void record(LoadCounter counter, long before) {
+        counter.rowsLoaded += statistics.getEntityLoadCount() - before;
+        counter.calls++;
+    }
+}
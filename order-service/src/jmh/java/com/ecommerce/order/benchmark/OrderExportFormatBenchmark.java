@@ -0,0 +1,185 @@
+package com.ecommerce.order.benchmark;
+
+import com.ecommerce.order.dto.OrderExportFilter;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.export.OrderColumnarBatch;
+import com.ecommerce.order.export.OrderColumnarReader;
+import com.ecommerce.order.service.BulkOrderService;
+import com.ecommerce.order.service.OrderExportService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Parsing a full export back into typed values, as the analytics jobs do: the
+ * CSV against the columnar format. Both parsers read every column and compute
+ * the same totals. Export sizes, raw and gzipped, are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class OrderExportFormatBenchmark {
+
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final OrderExportFilter ALL = new OrderExportFilter(null, null, null, null);
+
+    @Param({"50000"})
+    public int orders;
+
+    private byte[] csv;
+    private byte[] columnar;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (OrderBenchmarkContext context = new OrderBenchmarkContext("export-format")) {
+            OrderGenerator generator = new OrderGenerator(42L);
+            BulkOrderService bulkOrderService = context.getBean(BulkOrderService.class);
+            for (int created = 0; created < orders; created += 1000) {
+                List<Order> batch = generator.orders(Math.min(1000, orders - created), 2, 500);
+                bulkOrderService.createOrders(batch);
+            }
+
+            OrderExportService orderExportService = context.getBean(OrderExportService.class);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            orderExportService.exportOrders(ALL, out);
+            csv = out.toByteArray();
+            out = new ByteArrayOutputStream();
+            orderExportService.exportOrdersColumnar(ALL, out);
+            columnar = out.toByteArray();
+        }
+        System.out.printf("%nCSV: %d bytes (%d gzipped), columnar: %d bytes (%d gzipped)%n",
+                csv.length, gzippedSize(csv), columnar.length, gzippedSize(columnar));
+    }
+
+    @Benchmark
+    public Totals parseCsv() throws IOException {
+        Totals totals = new Totals();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(csv), StandardCharsets.UTF_8), 1 << 16)) {
+            reader.readLine();
+            List<String> fields = new ArrayList<>(8);
+            for (String line; (line = reader.readLine()) != null; ) {
+                splitCsv(line, fields);
+                totals.add(Long.parseLong(fields.get(0)),
+                        Long.parseLong(fields.get(1)),
+                        fields.get(2),
+                        new BigDecimal(fields.get(3)).movePointRight(2).longValueExact(),
+                        fields.get(4),
+                        fields.get(5),
+                        fields.get(6).isEmpty() ? null : LocalDateTime.parse(fields.get(6), DATE_FMT),
+                        Integer.parseInt(fields.get(7)));
+            }
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public Totals readColumnar() throws IOException {
+        Totals totals = new Totals();
+        try (OrderColumnarReader reader = new OrderColumnarReader(new ByteArrayInputStream(columnar))) {
+            for (OrderColumnarBatch batch; (batch = reader.readBatch()) != null; ) {
+                for (int i = 0; i < batch.size(); i++) {
+                    totals.add(batch.getId(i),
+                            batch.getUserId(i),
+                            batch.getStatus(i),
+                            batch.getTotalAmountMinor(i),
+                            batch.getPaymentMethod(i),
+                            batch.getShippingAddress(i),
+                            batch.getOrderDate(i),
+                            batch.getItemCount(i));
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Split one CSV record, honouring quoted fields. The export never puts a
+     * line break inside a field for this data.
+     */
+    private static void splitCsv(String line, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+    }
+
+    private static int gzippedSize(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.size();
+    }
+
+    /**
+     * What a typical analytics job derives from an export.
+     */
+    public static final class Totals {
+        long orders;
+        long idChecksum;
+        long userChecksum;
+        long addressChars;
+        long latestOrderDate = Long.MIN_VALUE;
+        long items;
+        final Map<String, Long> revenueByStatus = new HashMap<>();
+        final Map<String, Long> ordersByPaymentMethod = new HashMap<>();
+
+        void add(long id, long userId, String status, long amountMinor, String paymentMethod,
+                 String shippingAddress, LocalDateTime orderDate, int itemCount) {
+            orders++;
+            idChecksum += id;
+            userChecksum += userId;
+            revenueByStatus.merge(status, amountMinor, Long::sum);
+            ordersByPaymentMethod.merge(paymentMethod, 1L, Long::sum);
+            addressChars += shippingAddress != null ? shippingAddress.length() : 0;
+            if (orderDate != null) {
+                latestOrderDate = Math.max(latestOrderDate, orderDate.getYear() * 400L + orderDate.getDayOfYear());
+            }
+            items += itemCount;
+        }
+
+        @Override
+        public String toString() {
+            return orders + " orders, revenue " + revenueByStatus + ", payment methods " + ordersByPaymentMethod
+                    + ", items " + items + ", checksums " + idChecksum + "/" + userChecksum + "/" + addressChars;
+        }
+    }
+}
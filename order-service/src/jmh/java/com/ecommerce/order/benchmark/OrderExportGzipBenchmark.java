@@ -0,0 +1,71 @@
+package com.ecommerce.order.benchmark;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.service.BulkOrderService;
+import com.ecommerce.order.service.OrderExportService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compressed full export: the sequential CSV export piped through one
+ * {@link GZIPOutputStream}, against the parallel id-range export at several
+ * pool sizes. Both produce the same CSV once decompressed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class OrderExportGzipBenchmark {
+
+    @Param({"50000"})
+    public int orders;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    @Param({"10000"})
+    public int chunkSize;
+
+    private OrderBenchmarkContext context;
+    private OrderExportService orderExportService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new OrderBenchmarkContext("export-gzip", Map.of(
+                "order.export.parallel.threads", threads,
+                "order.export.parallel.chunk-size", chunkSize));
+        orderExportService = context.getBean(OrderExportService.class);
+
+        OrderGenerator generator = new OrderGenerator(42L);
+        BulkOrderService bulkOrderService = context.getBean(BulkOrderService.class);
+        for (int created = 0; created < orders; created += 1000) {
+            List<Order> batch = generator.orders(Math.min(1000, orders - created), 2, 500);
+            bulkOrderService.createOrders(batch);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void sequential() throws IOException {
+        try (GZIPOutputStream gzip = new GZIPOutputStream(OutputStream.nullOutputStream(), 1 << 16)) {
+            orderExportService.exportAllOrders(gzip);
+        }
+    }
+
+    @Benchmark
+    public void parallel() throws IOException {
+        orderExportService.exportAllOrdersGzip(OutputStream.nullOutputStream());
+    }
+}
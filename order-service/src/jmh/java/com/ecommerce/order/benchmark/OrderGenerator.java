@@ -0,0 +1,48 @@
+package com.ecommerce.order.benchmark;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of new (unsaved) orders for benchmarks.
+ */
+public class OrderGenerator {
+
+    private static final String[] PAYMENT_METHODS = {"CREDIT_CARD", "BANK_TRANSFER", "E_WALLET", "COD"};
+
+    private final SplittableRandom random;
+
+    public OrderGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    public List<Order> orders(int count, int itemsPerOrder, int users) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(order(1 + random.nextInt(users), itemsPerOrder));
+        }
+        return orders;
+    }
+
+    public Order order(long userId, int itemCount) {
+        Order order = new Order();
+        order.setUserId(userId);
+        order.setPaymentMethod(PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]);
+        order.setShippingAddress(random.nextInt(1000) + " Main St, Springfield, IL 62704");
+        for (int i = 0; i < itemCount; i++) {
+            long productId = 1 + random.nextInt(10_000);
+            OrderItem item = new OrderItem();
+            item.setProductId(productId);
+            item.setProductName("Product " + productId);
+            item.setQuantity(1 + random.nextInt(5));
+            item.setUnitPrice(BigDecimal.valueOf(100 + random.nextInt(49_900), 2));
+            order.getItems().add(item);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,125 @@
+package com.ecommerce.order.benchmark;
+
+import com.ecommerce.order.dto.OrderHistoryPage;
+import com.ecommerce.order.dto.OrderSummaryPage;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.service.BulkOrderService;
+import com.ecommerce.order.service.OrderService;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order history for a heavy buyer: the legacy full list (with items touched,
+ * as JSON serialisation does under open-session-in-view) against keyset pages.
+ * <p>
+ * The {@code statements} and {@code calls} secondary results are iteration
+ * totals; {@code statements / calls} is the number of SQL statements per
+ * request. The paged path should stay at two regardless of page depth.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class OrderHistoryBenchmark {
+
+    private static final long USER_ID = 1L;
+
+    @Param({"1000"})
+    public int ordersForUser;
+
+    @Param({"3"})
+    public int itemsPerOrder;
+
+    @Param({"20"})
+    public int pageSize;
+
+    private OrderBenchmarkContext context;
+    private OrderService orderService;
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+    private String middleCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new OrderBenchmarkContext("history");
+        orderService = context.getBean(OrderService.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        statistics = context.getStatistics();
+
+        OrderGenerator generator = new OrderGenerator(42L);
+        BulkOrderService bulkOrderService = context.getBean(BulkOrderService.class);
+        for (int created = 0; created < ordersForUser; created += 500) {
+            int count = Math.min(500, ordersForUser - created);
+            List<Order> orders = generator.orders(count, itemsPerOrder, 1);
+            orders.forEach(o -> o.setUserId(USER_ID));
+            bulkOrderService.createOrders(orders);
+        }
+
+        String cursor = null;
+        for (int page = 0; page < ordersForUser / pageSize / 2; page++) {
+            cursor = orderService.getOrderHistory(USER_ID, cursor, pageSize).getNextCursor();
+        }
+        middleCursor = cursor;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class QueryCounter {
+        public long statements;
+        public long calls;
+    }
+
+    @Benchmark
+    public int legacyFullHistory(QueryCounter counter) {
+        long before = statistics.getPrepareStatementCount();
+        Integer items = transactionTemplate.execute(status -> {
+            int count = 0;
+            for (Order order : orderService.getOrdersByUserId(USER_ID)) {
+                count += order.getItems().size();
+            }
+            return count;
+        });
+        record(counter, before);
+        return items;
+    }
+
+    @Benchmark
+    public OrderHistoryPage firstPage(QueryCounter counter) {
+        long before = statistics.getPrepareStatementCount();
+        OrderHistoryPage page = orderService.getOrderHistory(USER_ID, null, pageSize);
+        record(counter, before);
+        return page;
+    }
+
+    @Benchmark
+    public OrderHistoryPage middlePage(QueryCounter counter) {
+        long before = statistics.getPrepareStatementCount();
+        OrderHistoryPage page = orderService.getOrderHistory(USER_ID, middleCursor, pageSize);
+        record(counter, before);
+        return page;
+    }
+
+    @Benchmark
+    public OrderSummaryPage middleSummaryPage(QueryCounter counter) {
+        long before = statistics.getPrepareStatementCount();
+        OrderSummaryPage page = orderService.getOrderSummaries(USER_ID, middleCursor, pageSize);
+        record(counter, before);
+        return page;
+    }
+
+    private void record(QueryCounter counter, long before) {
+        counter.statements += statistics.getPrepareStatementCount() - before;
+        counter.calls++;
+    }
+}
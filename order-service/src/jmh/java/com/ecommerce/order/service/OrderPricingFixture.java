@@ -0,0 +1,19 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.Order;
+
+/**
+ * Exposes {@link OrderService}'s package-private pricing step to benchmarks.
+ * Pricing touches no injected collaborators, so a bare instance will do.
+ */
+public final class OrderPricingFixture {
+
+    private static final OrderService ORDER_SERVICE = new OrderService();
+
+    private OrderPricingFixture() {
+    }
+
+    public static void price(Order order) {
+        ORDER_SERVICE.prepareNewOrder(order);
+    }
+}
@@ -0,0 +1,65 @@
+package com.ecommerce.order.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+/**
+ * Moves the pooled id sequences past any ids already in use. Orders and order
+ * items used to be keyed by IDENTITY columns; on an existing database the
+ * newly created sequence tables start at 1 and would hand out taken ids.
+ * Only table-emulated sequences (MySQL) are touched; databases with native
+ * sequences are left alone. Depends on the EntityManagerFactory so the schema
+ * exists before it runs.
+ */
+@Component
+public class IdSequenceInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignSequences() {
+        align("order_seq", "orders", 50);
+        align("order_item_seq", "order_items", 100);
+    }
+
+    private void align(String sequenceTable, String entityTable, int allocationSize) {
+        if (!tableExists(sequenceTable)) {
+            return;
+        }
+        // The pooled optimizer hands out ids in (next_val - allocationSize, next_val]
+        int updated = jdbcTemplate.update(
+                "UPDATE " + sequenceTable + " SET next_val = "
+                        + "(SELECT COALESCE(MAX(id), 0) + ? + 1 FROM " + entityTable + ") "
+                        + "WHERE next_val <= (SELECT COALESCE(MAX(id), 0) + ? FROM " + entityTable + ")",
+                allocationSize, allocationSize);
+        if (updated > 0) {
+            logger.info("Advanced {} past existing ids in {}", sequenceTable, entityTable);
+        }
+    }
+
+    private boolean tableExists(String table) {
+        Boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase() : table;
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), null, name, new String[]{"TABLE"})) {
+                return tables.next();
+            }
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+}
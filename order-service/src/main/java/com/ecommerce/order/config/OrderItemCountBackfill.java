@@ -0,0 +1,57 @@
+package com.ecommerce.order.config;
+
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.service.MaintenanceTaskRunner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Fills in the denormalized {@code orders.item_count} for orders created
+ * before the column existed, one id range per transaction. New orders get
+ * it from OrderService, so only orders up to the highest id at the first
+ * run are visited; the run is a {@link MaintenanceTaskRunner} task, so it
+ * resumes where it stopped and later startups skip it. Depends on the
+ * EntityManagerFactory so the column exists before it runs.
+ */
+@Component
+public class OrderItemCountBackfill {
+
+    static final String TASK = "order-item-count-backfill";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MaintenanceTaskRunner maintenanceTaskRunner;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${order.item-count-backfill.batch-size:10000}")
+    private int batchSize;
+
+    @PostConstruct
+    public void backfill() {
+        maintenanceTaskRunner.run(TASK,
+                () -> {
+                    Long maxId = orderRepository.findIdRange().getMaxId();
+                    return maxId != null ? maxId : 0;
+                },
+                () -> false,
+                (afterId, targetId) -> {
+                    long toId = Math.min(afterId + batchSize, targetId);
+                    jdbcTemplate.update("UPDATE orders SET item_count = "
+                            + "(SELECT COUNT(*) FROM order_items i WHERE i.order_id = orders.id) "
+                            + "WHERE id > ? AND id <= ? AND item_count IS NULL", afterId, toId);
+                    return toId;
+                });
+    }
+}
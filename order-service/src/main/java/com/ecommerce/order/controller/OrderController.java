@@ -1,12 +1,27 @@
 package com.ecommerce.order.controller;
 
+import com.ecommerce.order.dto.BulkOrderResult;
+import com.ecommerce.order.dto.BulkStatusUpdateRequest;
+import com.ecommerce.order.dto.OrderHistoryPage;
+import com.ecommerce.order.dto.OrderProcessingStatus;
+import com.ecommerce.order.dto.OrderSummaryPage;
+import com.ecommerce.order.dto.StatusTransitionResult;
 import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.service.AsyncOrderPipeline;
+import com.ecommerce.order.service.BulkOrderService;
+import com.ecommerce.order.service.IdempotencyService;
 import com.ecommerce.order.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletResponse;
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -17,24 +32,72 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private BulkOrderService bulkOrderService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private AsyncOrderPipeline asyncOrderPipeline;
+
+    @Value("${order.stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
     @PostMapping
     /**
      * Helper method to format output for display.
      * @param data the raw data to format
      * @return formatted string representation
      */
-    public ResponseEntity<Order> createOrder(@RequestBody Order order) {
-        return new ResponseEntity<>(orderService.createOrder(order), HttpStatus.CREATED);
+    public ResponseEntity<Order> createOrder(@RequestBody Order order,
+                                             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return new ResponseEntity<>(orderService.createOrder(order), HttpStatus.CREATED);
+        }
+        IdempotencyService.Result<Order> result = idempotencyService.execute(idempotencyKey, order,
+                HttpStatus.CREATED, Order.class, () -> orderService.createOrder(order));
+        return ResponseEntity.status(result.getStatus())
+                .header("Idempotent-Replayed", String.valueOf(result.isReplayed()))
+                .body(result.getBody());
     }
 
 
+    @PostMapping("/async")
+    public ResponseEntity<OrderProcessingStatus> createOrderAsync(@RequestBody Order order) {
+        OrderProcessingStatus status = asyncOrderPipeline.submit(order);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/async/" + status.getOrderId()))
+                .body(status);
+    }
+
+    @GetMapping("/async/{id}")
+    public ResponseEntity<OrderProcessingStatus> getProcessingStatus(@PathVariable Long id) {
+        OrderProcessingStatus status = asyncOrderPipeline.getStatus(id);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping(value = "/async/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeProcessingStatus(@PathVariable Long id) {
+        SseEmitter emitter = asyncOrderPipeline.subscribe(id);
+        return emitter != null ? ResponseEntity.ok(emitter) : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<List<BulkOrderResult>> createOrders(@RequestBody List<Order> orders) {
+        if (orders.size() > bulkOrderService.getMaxOrdersPerRequest()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(bulkOrderService.createOrders(orders));
+    }
+
     @GetMapping("/{id}")
     /**
      * Initializes the component with default configuration.
      * Should be called before any other operations.
      */
     public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
-        return ResponseEntity.ok(orderService.getOrderById(id));
+        return ResponseEntity.ok(orderService.getOrderDetails(id));
     }
 
     @GetMapping("/user/{userId}")
@@ -47,20 +110,67 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrdersByUserId(userId));
     }
 
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<OrderHistoryPage> getOrderHistory(@PathVariable Long userId,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, 100));
+        return ResponseEntity.ok(orderService.getOrderHistory(userId, cursor, pageSize));
+    }
+
+    @GetMapping("/user/{userId}/summary")
+    public ResponseEntity<OrderSummaryPage> getOrderSummaries(@PathVariable Long userId,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, 100));
+        return ResponseEntity.ok(orderService.getOrderSummaries(userId, cursor, pageSize));
+    }
+
     @PatchMapping("/{id}/status")
-    public ResponseEntity<Order> updateStatus(@PathVariable Long id,
-                                               @RequestParam Order.OrderStatus status) {
-        return ResponseEntity.ok(orderService.updateOrderStatus(id, status));
+    public ResponseEntity<StatusTransitionResult> updateStatus(@PathVariable Long id,
+                                                               @RequestParam Order.OrderStatus status) {
+        return toResponse(orderService.updateOrderStatus(id, status));
+    }
+
+    @PatchMapping("/status")
+    public ResponseEntity<List<StatusTransitionResult>> updateStatuses(@RequestBody BulkStatusUpdateRequest request) {
+        if (request.getStatus() == null || request.getOrderIds() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (request.getOrderIds().size() > bulkOrderService.getMaxOrdersPerRequest()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(orderService.updateOrderStatuses(request.getOrderIds(), request.getStatus()));
     }
 
     @PostMapping("/{id}/cancel")
-    public ResponseEntity<Order> cancelOrder(@PathVariable Long id) {
-        return ResponseEntity.ok(orderService.cancelOrder(id));
+    public ResponseEntity<StatusTransitionResult> cancelOrder(@PathVariable Long id) {
+        return toResponse(orderService.cancelOrder(id));
+    }
+
+    private static ResponseEntity<StatusTransitionResult> toResponse(StatusTransitionResult result) {
+        switch (result.getOutcome()) {
+            case APPLIED:
+                return ResponseEntity.ok(result);
+            case NOT_FOUND:
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(result);
+            default:
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(result);
+        }
     }
 
+    /**
+     * Stream every order as a JSON array. The stream gets its own async
+     * timeout, long enough for the whole table, instead of raising the
+     * timeout of every async request.
+     */
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        return ResponseEntity.ok(orderService.getAllOrders());
+    public WebAsyncTask<Void> getAllOrders(HttpServletResponse response) {
+        return new WebAsyncTask<>(streamTimeoutMs, () -> {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            orderService.writeAllOrders(response.getOutputStream());
+            return null;
+        });
     }
 
     /**
@@ -0,0 +1,226 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.order.dto.ExportJobStatus;
+import com.ecommerce.order.dto.OrderExportFilter;
+import com.ecommerce.order.dto.OrderExportFormat;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.export.OrderColumnarFormat;
+import com.ecommerce.order.service.OrderExportJobService;
+import com.ecommerce.order.service.OrderExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Order exports. Synchronous exports are streamed straight from a database
+ * cursor; export jobs run in the background and are downloaded from a spool
+ * file.
+ */
+@RestController
+@RequestMapping("/api/orders/export")
+@CrossOrigin(origins = "*")
+public class OrderExportController {
+
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv");
+    private static final MediaType APPLICATION_GZIP = new MediaType("application", "gzip");
+
+    // Tomcat's sendfile request attributes
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderExportJobService orderExportJobService;
+
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportAllOrders() {
+        return csv("orders.csv", orderExportService::exportAllOrders);
+    }
+
+    @GetMapping("/gzip")
+    public ResponseEntity<StreamingResponseBody> exportAllOrdersGzip() {
+        return ResponseEntity.ok()
+                .contentType(APPLICATION_GZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment("orders.csv.gz"))
+                .body(orderExportService::exportAllOrdersGzip);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        OrderExportFilter filter = new OrderExportFilter(userId, status, start, end);
+        return csv("orders.csv", out -> orderExportService.exportOrders(filter, out));
+    }
+
+    /**
+     * One row per order item, with the same filters as {@code /search}.
+     */
+    @GetMapping("/lines")
+    public ResponseEntity<StreamingResponseBody> exportOrderLines(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        OrderExportFilter filter = new OrderExportFilter(userId, status, start, end);
+        return csv("order-lines.csv", out -> orderExportService.exportOrderLines(filter, out));
+    }
+
+    /**
+     * Same filters as {@code /search}, in the columnar binary format read by
+     * {@link com.ecommerce.order.export.OrderColumnarReader}.
+     */
+    @GetMapping("/columnar")
+    public ResponseEntity<StreamingResponseBody> exportOrdersColumnar(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        OrderExportFilter filter = new OrderExportFilter(userId, status, start, end);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(OrderColumnarFormat.MEDIA_TYPE))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment("orders.ocol"))
+                .body(out -> orderExportService.exportOrdersColumnar(filter, out));
+    }
+
+    /**
+     * Start a background export; poll {@code /jobs/{jobId}} and fetch
+     * {@code /jobs/{jobId}/download} once it has completed.
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<ExportJobStatus> submitExportJob(
+            @RequestParam(defaultValue = "CSV") OrderExportFormat format,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        ExportJobStatus job = orderExportJobService.submit(new OrderExportFilter(userId, status, start, end), format);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/export/jobs/" + job.getJobId()))
+                .body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ExportJobStatus> getExportJob(@PathVariable String jobId) {
+        ExportJobStatus job = orderExportJobService.getStatus(jobId);
+        return job != null ? ResponseEntity.ok(job) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Serve a finished export. Range requests are answered with 206 and the
+     * requested bytes, so an interrupted download can be resumed.
+     * <p>
+     * A plain GET of the whole file is handed to the servlet container's
+     * sendfile support where it has one, so the file goes from the page cache
+     * to the socket with {@code FileChannel.transferTo} and never through the
+     * heap. Range and conditional requests are left to Spring, which copies
+     * the requested bytes through a small buffer.
+     */
+    @GetMapping("/jobs/{jobId}/download")
+    public ResponseEntity<Resource> downloadExportJob(@PathVariable String jobId, HttpServletRequest request)
+            throws IOException {
+        ExportJobStatus job = orderExportJobService.getStatus(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Path file = orderExportJobService.getFile(jobId);
+        if (file == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        OrderExportFormat format = job.getFormat();
+        // The file never changes once complete, so the job id is a strong validator
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .eTag("\"" + jobId + "\"")
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment("orders-" + jobId + "." + format.getExtension()));
+        if (canSendFile(request)) {
+            long length = Files.size(file);
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, 0L);
+            request.setAttribute(SENDFILE_END_ATTR, length);
+            return response.contentLength(length)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .build();
+        }
+        return response.body(new FileSystemResource(file));
+    }
+
+    @DeleteMapping("/jobs/{jobId}")
+    public ResponseEntity<Void> cancelExportJob(@PathVariable String jobId) {
+        return orderExportJobService.cancel(jobId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<StreamingResponseBody> exportOrdersByUser(@PathVariable Long userId) {
+        return csv("orders-user-" + userId + ".csv", out -> orderExportService.exportOrdersByUser(userId, out));
+    }
+
+    @GetMapping("/status/{status}")
+    public ResponseEntity<StreamingResponseBody> exportOrdersByStatus(@PathVariable Order.OrderStatus status) {
+        return csv("orders-" + status.name().toLowerCase() + ".csv",
+                out -> orderExportService.exportOrdersByStatus(status, out));
+    }
+
+    @GetMapping("/date-range")
+    public ResponseEntity<StreamingResponseBody> exportOrdersByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return csv("orders-range.csv", out -> orderExportService.exportOrdersByDateRange(start, end, out));
+    }
+
+    @GetMapping("/revenue")
+    public ResponseEntity<byte[]> exportRevenueSummary() {
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment("revenue-summary.csv"))
+                .body(orderExportService.exportRevenueSummary());
+    }
+
+    private static ResponseEntity<StreamingResponseBody> csv(String filename, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment(filename))
+                .body(body);
+    }
+
+    /**
+     * The container sends the file whatever the status, so only a GET whose
+     * answer is certainly the whole file qualifies.
+     */
+    private static boolean canSendFile(HttpServletRequest request) {
+        return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))
+                && HttpMethod.GET.matches(request.getMethod())
+                && Stream.of(HttpHeaders.RANGE, HttpHeaders.IF_MATCH, HttpHeaders.IF_NONE_MATCH,
+                        HttpHeaders.IF_MODIFIED_SINCE, HttpHeaders.IF_UNMODIFIED_SINCE)
+                        .allMatch(header -> request.getHeader(header) == null);
+    }
+
+    private static String attachment(String filename) {
+        return ContentDisposition.attachment().filename(filename).build().toString();
+    }
+}
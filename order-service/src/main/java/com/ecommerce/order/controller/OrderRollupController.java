@@ -0,0 +1,44 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.order.dto.OrderRollupReport;
+import com.ecommerce.order.entity.OrderRollup;
+import com.ecommerce.order.service.OrderRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Order volume and revenue over time, from the pre-aggregated rollups.
+ */
+@RestController
+@RequestMapping("/api/orders/rollups")
+@CrossOrigin(origins = "*")
+public class OrderRollupController {
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @GetMapping
+    public ResponseEntity<OrderRollupReport> getSeries(
+            @RequestParam(defaultValue = "DAY") OrderRollup.Granularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        if (!end.isAfter(start)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderRollupService.getSeries(granularity, start, end));
+    }
+
+    @GetMapping("/totals")
+    public ResponseEntity<OrderRollupReport> getTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        if (!end.isAfter(start)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderRollupService.getTotals(start, end));
+    }
+}
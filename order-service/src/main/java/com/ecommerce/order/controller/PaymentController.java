@@ -41,6 +41,9 @@ public class PaymentController {
 
         if ("COMPLETED".equals(result.getStatus())) {
             return new ResponseEntity<>(result, HttpStatus.OK);
+        } else if ("REFUNDED".equals(result.getStatus())) {
+            // Charged, but the order could not be confirmed, so the charge was refunded
+            return new ResponseEntity<>(result, HttpStatus.CONFLICT);
         } else {
             return new ResponseEntity<>(result, HttpStatus.BAD_REQUEST);
         }
@@ -0,0 +1,82 @@
+package com.ecommerce.order.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of one order within a bulk create request.
+ */
+public class BulkOrderResult {
+
+    public enum Status {
+        CREATED, REJECTED, FAILED
+    }
+
+    private int index;
+    private Status status;
+    private Long orderId;
+    private BigDecimal totalAmount;
+    private String message;
+
+    public BulkOrderResult() {
+    }
+
+    public BulkOrderResult(int index, Status status, Long orderId, BigDecimal totalAmount, String message) {
+        this.index = index;
+        this.status = status;
+        this.orderId = orderId;
+        this.totalAmount = totalAmount;
+        this.message = message;
+    }
+
+    public static BulkOrderResult created(int index, Long orderId, BigDecimal totalAmount) {
+        return new BulkOrderResult(index, Status.CREATED, orderId, totalAmount, null);
+    }
+
+    public static BulkOrderResult rejected(int index, String message) {
+        return new BulkOrderResult(index, Status.REJECTED, null, null, message);
+    }
+
+    public static BulkOrderResult failed(int index, String message) {
+        return new BulkOrderResult(index, Status.FAILED, null, null, message);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
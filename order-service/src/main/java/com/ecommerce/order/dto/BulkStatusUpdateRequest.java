@@ -0,0 +1,30 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.Order;
+
+import java.util.List;
+
+/**
+ * Move many orders to the same status in one request.
+ */
+public class BulkStatusUpdateRequest {
+
+    private List<Long> orderIds;
+    private Order.OrderStatus status;
+
+    public List<Long> getOrderIds() {
+        return orderIds;
+    }
+
+    public void setOrderIds(List<Long> orderIds) {
+        this.orderIds = orderIds;
+    }
+
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Order.OrderStatus status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecommerce.order.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of an export job. {@code totalRows} is counted when the job starts,
+ * so it is an estimate if orders change while the export runs.
+ */
+public class ExportJobStatus {
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private String jobId;
+    private State state;
+    private OrderExportFormat format;
+    private OrderExportFilter filter;
+    private long rowsWritten;
+    private Long totalRows;
+    private long bytesWritten;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private LocalDateTime expiresAt;
+
+    public ExportJobStatus() {
+    }
+
+    public boolean isTerminal() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public OrderExportFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(OrderExportFormat format) {
+        this.format = format;
+    }
+
+    public OrderExportFilter getFilter() {
+        return filter;
+    }
+
+    public void setFilter(OrderExportFilter filter) {
+        this.filter = filter;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public void setRowsWritten(long rowsWritten) {
+        this.rowsWritten = rowsWritten;
+    }
+
+    public Long getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(Long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public void setBytesWritten(long bytesWritten) {
+        this.bytesWritten = bytesWritten;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.Order;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters for an order export. Unset fields do not filter; the date range is
+ * inclusive at both ends.
+ */
+public class OrderExportFilter {
+
+    private Long userId;
+    private Order.OrderStatus status;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    public OrderExportFilter() {
+    }
+
+    public OrderExportFilter(Long userId, Order.OrderStatus status, LocalDateTime startDate, LocalDateTime endDate) {
+        this.userId = userId;
+        this.status = status;
+        this.startDate = startDate;
+        this.endDate = endDate;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Order.OrderStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDateTime startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDateTime getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDateTime endDate) {
+        this.endDate = endDate;
+    }
+
+    @Override
+    public String toString() {
+        return "userId=" + userId + ", status=" + status + ", startDate=" + startDate + ", endDate=" + endDate;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.export.OrderColumnarFormat;
+
+/**
+ * File formats an order export can be written in.
+ */
+public enum OrderExportFormat {
+
+    CSV("csv", "text/csv"),
+    COLUMNAR("ocol", OrderColumnarFormat.MEDIA_TYPE);
+
+    private final String extension;
+    private final String mediaType;
+
+    OrderExportFormat(String extension, String mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+}
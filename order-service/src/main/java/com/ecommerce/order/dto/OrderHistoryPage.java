@@ -0,0 +1,39 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.Order;
+
+import java.util.List;
+
+/**
+ * One page of a user's order history, newest first. Pass {@code nextCursor}
+ * back to fetch the following page; it is null on the last page.
+ */
+public class OrderHistoryPage {
+
+    private List<Order> orders;
+    private String nextCursor;
+
+    public OrderHistoryPage() {
+    }
+
+    public OrderHistoryPage(List<Order> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<Order> orders) {
+        this.orders = orders;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.order.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of an order submitted for asynchronous processing.
+ */
+public class OrderProcessingStatus {
+
+    public enum State {
+        ACCEPTED, PROCESSING, COMPLETED, FAILED
+    }
+
+    public enum Stage {
+        VALIDATE, PRICE, RESERVE_STOCK, PAY
+    }
+
+    private Long orderId;
+    private State state;
+    private Stage stage;
+    private String message;
+    private LocalDateTime updatedAt;
+
+    public OrderProcessingStatus() {
+    }
+
+    public OrderProcessingStatus(Long orderId, State state, Stage stage, String message) {
+        this.orderId = orderId;
+        this.state = state;
+        this.stage = stage;
+        this.message = message;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public boolean isTerminal() {
+        return state == State.COMPLETED || state == State.FAILED;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public Stage getStage() {
+        return stage;
+    }
+
+    public void setStage(Stage stage) {
+        this.stage = stage;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
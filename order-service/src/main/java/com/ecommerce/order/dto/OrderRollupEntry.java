@@ -0,0 +1,71 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Order count and revenue for one status and payment method, either in one
+ * rollup bucket or over a whole range, in which case {@code bucketStart} is null.
+ */
+public class OrderRollupEntry {
+
+    private LocalDateTime bucketStart;
+    private Order.OrderStatus status;
+    private String paymentMethod;
+    private long orderCount;
+    private BigDecimal revenue;
+
+    public OrderRollupEntry() {
+    }
+
+    public OrderRollupEntry(LocalDateTime bucketStart, Order.OrderStatus status, String paymentMethod,
+                            long orderCount, BigDecimal revenue) {
+        this.bucketStart = bucketStart;
+        this.status = status;
+        this.paymentMethod = paymentMethod;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Order.OrderStatus status) {
+        this.status = status;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.OrderRollup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rollup entries for {@code [start, end)}. The range is the requested one
+ * widened to whole buckets of the finest granularity used. {@code granularity}
+ * is null for range totals, which combine several granularities.
+ */
+public class OrderRollupReport {
+
+    private OrderRollup.Granularity granularity;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private List<OrderRollupEntry> entries;
+
+    public OrderRollupReport() {
+    }
+
+    public OrderRollupReport(OrderRollup.Granularity granularity, LocalDateTime start, LocalDateTime end,
+                             List<OrderRollupEntry> entries) {
+        this.granularity = granularity;
+        this.start = start;
+        this.end = end;
+        this.entries = entries;
+    }
+
+    public OrderRollup.Granularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(OrderRollup.Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public void setStart(LocalDateTime start) {
+        this.start = start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    public void setEnd(LocalDateTime end) {
+        this.end = end;
+    }
+
+    public List<OrderRollupEntry> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<OrderRollupEntry> entries) {
+        this.entries = entries;
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The columns list views need from an order, read straight from the orders
+ * row without loading any items.
+ */
+public class OrderSummary {
+
+    private Long id;
+    private Order.OrderStatus status;
+    private BigDecimal totalAmount;
+    private LocalDateTime orderDate;
+    private Integer itemCount;
+
+    public OrderSummary() {
+    }
+
+    public OrderSummary(Long id, Order.OrderStatus status, BigDecimal totalAmount,
+                        LocalDateTime orderDate, Integer itemCount) {
+        this.id = id;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.orderDate = orderDate;
+        this.itemCount = itemCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Order.OrderStatus status) {
+        this.status = status;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public void setOrderDate(LocalDateTime orderDate) {
+        this.orderDate = orderDate;
+    }
+
+    public Integer getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(Integer itemCount) {
+        this.itemCount = itemCount;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.order.dto;
+
+import java.util.List;
+
+/**
+ * One page of order summaries, newest first. Pass {@code nextCursor} back to
+ * fetch the following page; it is null on the last page.
+ */
+public class OrderSummaryPage {
+
+    private List<OrderSummary> orders;
+    private String nextCursor;
+
+    public OrderSummaryPage() {
+    }
+
+    public OrderSummaryPage(List<OrderSummary> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<OrderSummary> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<OrderSummary> orders) {
+        this.orders = orders;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
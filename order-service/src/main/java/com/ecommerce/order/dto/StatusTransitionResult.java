@@ -0,0 +1,79 @@
+package com.ecommerce.order.dto;
+
+import com.ecommerce.order.entity.Order;
+
+/**
+ * Outcome of moving one order to a new status. When the transition is not
+ * applied, {@code currentStatus} is the status that blocked it, or null if
+ * the order does not exist.
+ */
+public class StatusTransitionResult {
+
+    public enum Outcome {
+        APPLIED, CONFLICT, NOT_FOUND
+    }
+
+    private Long orderId;
+    private Order.OrderStatus requestedStatus;
+    private Outcome outcome;
+    private Order.OrderStatus currentStatus;
+
+    public StatusTransitionResult() {
+    }
+
+    public StatusTransitionResult(Long orderId, Order.OrderStatus requestedStatus, Outcome outcome,
+                                  Order.OrderStatus currentStatus) {
+        this.orderId = orderId;
+        this.requestedStatus = requestedStatus;
+        this.outcome = outcome;
+        this.currentStatus = currentStatus;
+    }
+
+    public static StatusTransitionResult applied(Long orderId, Order.OrderStatus status) {
+        return new StatusTransitionResult(orderId, status, Outcome.APPLIED, status);
+    }
+
+    public static StatusTransitionResult conflict(Long orderId, Order.OrderStatus requested, Order.OrderStatus current) {
+        return new StatusTransitionResult(orderId, requested, Outcome.CONFLICT, current);
+    }
+
+    public static StatusTransitionResult notFound(Long orderId, Order.OrderStatus requested) {
+        return new StatusTransitionResult(orderId, requested, Outcome.NOT_FOUND, null);
+    }
+
+    public boolean isApplied() {
+        return outcome == Outcome.APPLIED;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Order.OrderStatus getRequestedStatus() {
+        return requestedStatus;
+    }
+
+    public void setRequestedStatus(Order.OrderStatus requestedStatus) {
+        this.requestedStatus = requestedStatus;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public Order.OrderStatus getCurrentStatus() {
+        return currentStatus;
+    }
+
+    public void setCurrentStatus(Order.OrderStatus currentStatus) {
+        this.currentStatus = currentStatus;
+    }
+}
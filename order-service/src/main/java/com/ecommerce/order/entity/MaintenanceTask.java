@@ -0,0 +1,44 @@
+package com.ecommerce.order.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a one-off data migration that walks the orders table in id
+ * order, such as a backfill. Each batch locks this row and advances
+ * {@code lastId} in its own transaction, so a run that dies resumes after
+ * the last committed batch and concurrent nodes never process a batch twice.
+ */
+@Entity
+@Table(name = "maintenance_tasks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceTask {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    // Highest order id processed so far
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    // Highest order id the task covers, fixed when the task is first created
+    @Column(name = "target_id", nullable = false)
+    private long targetId;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public boolean isCompleted() {
+        return completedAt != null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecommerce.order.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amount of money held as a whole number of minor units (cents), matching the
+ * two-decimal money columns. Arithmetic is plain {@code long} math that throws
+ * {@link ArithmeticException} on overflow instead of wrapping; BigDecimal is
+ * only used when converting at the edges.
+ * <p>
+ * The static helpers work on raw minor units so loops over order lines need
+ * not allocate a Money per step.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    public static Money ofMinorUnits(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    public static Money of(BigDecimal amount) {
+        return ofMinorUnits(toMinorUnits(amount));
+    }
+
+    /**
+     * Convert an amount to minor units, rounding half up to the nearest cent
+     * as the money columns do.
+     *
+     * @throws ArithmeticException if the amount does not fit in a long
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * @return {@code unitMinorUnits * quantity}
+     * @throws ArithmeticException on overflow
+     */
+    public static long lineTotal(long unitMinorUnits, long quantity) {
+        return Math.multiplyExact(unitMinorUnits, quantity);
+    }
+
+    /**
+     * @return {@code a + b}
+     * @throws ArithmeticException on overflow
+     */
+    public static long sum(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public Money plus(Money other) {
+        return ofMinorUnits(sum(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return ofMinorUnits(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(long quantity) {
+        return ofMinorUnits(lineTotal(minorUnits, quantity));
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(minorUnits);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        return minorUnits == ((Money) o).minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -9,17 +9,25 @@ import javax.persistence.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_date", columnList = "user_id, order_date, id"),
+        @Index(name = "idx_orders_status_date", columnList = "status, order_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
 
+    // Pooled sequence (a table on MySQL) instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "order_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -45,6 +53,10 @@ public class Order {
      */
     private List<OrderItem> items = new ArrayList<>();
 
+    // Denormalized items.size(), kept by OrderService so list views never read item rows
+    @Column(name = "item_count")
+    private Integer itemCount;
+
     @Column(name = "order_date", updatable = false)
     private LocalDateTime orderDate;
 
@@ -71,7 +83,31 @@ public class Order {
     }
 
     public enum OrderStatus {
-        PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED, REFUNDED
+        PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED, REFUNDED;
+
+        private Set<OrderStatus> allowedFrom = Collections.emptySet();
+
+        // Transition table: the statuses an order may move into each status from
+        static {
+            CONFIRMED.allowedFrom = Collections.unmodifiableSet(EnumSet.of(PENDING));
+            PROCESSING.allowedFrom = Collections.unmodifiableSet(EnumSet.of(CONFIRMED));
+            SHIPPED.allowedFrom = Collections.unmodifiableSet(EnumSet.of(CONFIRMED, PROCESSING));
+            DELIVERED.allowedFrom = Collections.unmodifiableSet(EnumSet.of(SHIPPED));
+            CANCELLED.allowedFrom = Collections.unmodifiableSet(EnumSet.of(PENDING, CONFIRMED, PROCESSING));
+            REFUNDED.allowedFrom = Collections.unmodifiableSet(EnumSet.of(CONFIRMED, PROCESSING, DELIVERED, CANCELLED));
+        }
+
+        /**
+         * @return the statuses from which an order may move to this one; empty
+         *         for PENDING, which is only ever set on creation
+         */
+        public Set<OrderStatus> getAllowedFrom() {
+            return allowedFrom;
+        }
+
+        public boolean canTransitionFrom(OrderStatus current) {
+            return allowedFrom.contains(current);
+        }
     }
 
     /**
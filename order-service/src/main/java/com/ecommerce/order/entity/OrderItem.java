@@ -1,8 +1,11 @@
 package com.ecommerce.order.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
@@ -15,11 +18,16 @@ import java.math.BigDecimal;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 100)
     private Long id;
 
+    // Back-reference only: excluded from JSON, toString and equals to avoid cycles through Order.items
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Order order;
 
     @Column(name = "product_id", nullable = false)
@@ -47,7 +55,7 @@ public class OrderItem {
      */
     protected void calculateSubtotal() {
         if (unitPrice != null && quantity != null) {
-            subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
+            subtotal = Money.toBigDecimal(Money.lineTotal(Money.toMinorUnits(unitPrice), quantity));
         }
     }
 
@@ -64,15 +72,4 @@ public class OrderItem {
     }
 
 
-    /**
-     * Validates that the given value is within the expected range.
-     * @param value the value to check
-     * @param min minimum acceptable value
-     * @param max maximum acceptable value
-     * @return true if value is within range
-     */
-    private boolean isInRange(double value, double min, double max) {
-        return value >= min && value <= max;
-    }
-
 }
@@ -0,0 +1,45 @@
+package com.ecommerce.order.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Running order count and revenue for one status. Each status is split over
+ * a few stripes so concurrent writers rarely update the same row; a
+ * status's totals are the sum of its stripes.
+ */
+@Entity
+@Table(name = "order_revenue_aggregates")
+@IdClass(OrderRevenueAggregate.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderRevenueAggregate {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Order.OrderStatus status;
+
+    @Id
+    private Integer stripe;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    // Sum of orders.total_amount in minor units
+    @Column(name = "revenue_minor", nullable = false)
+    private long revenueMinor;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Order.OrderStatus status;
+        private Integer stripe;
+    }
+}
@@ -0,0 +1,107 @@
+package com.ecommerce.order.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Order count and revenue of the orders placed in one hour, day or month,
+ * for one status and payment method. Like {@link OrderRevenueAggregate},
+ * each bucket is split over a few stripes so concurrent writers rarely
+ * update the same row; a bucket's totals are the sum of its stripes.
+ */
+@Entity
+@Table(name = "order_rollups")
+@IdClass(OrderRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderRollup {
+
+    /** Stored in place of a null payment method, which cannot be part of the key. */
+    public static final String NO_PAYMENT_METHOD = "";
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 5)
+    private Granularity granularity;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private Order.OrderStatus status;
+
+    @Id
+    @Column(name = "payment_method", length = 50)
+    private String paymentMethod;
+
+    @Id
+    private Integer stripe;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    // Sum of orders.total_amount in minor units
+    @Column(name = "revenue_minor", nullable = false)
+    private long revenueMinor;
+
+    public enum Granularity {
+        HOUR, DAY, MONTH;
+
+        /**
+         * @return the start of the bucket holding {@code time}
+         */
+        public LocalDateTime truncate(LocalDateTime time) {
+            switch (this) {
+                case HOUR:
+                    return time.truncatedTo(ChronoUnit.HOURS);
+                case DAY:
+                    return time.truncatedTo(ChronoUnit.DAYS);
+                default:
+                    return time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            }
+        }
+
+        /**
+         * @return the start of the first bucket at or after {@code time}
+         */
+        public LocalDateTime ceil(LocalDateTime time) {
+            LocalDateTime start = truncate(time);
+            return start.equals(time) ? start : next(start);
+        }
+
+        /**
+         * @return the start of the bucket after the one starting at {@code bucketStart}
+         */
+        public LocalDateTime next(LocalDateTime bucketStart) {
+            switch (this) {
+                case HOUR:
+                    return bucketStart.plusHours(1);
+                case DAY:
+                    return bucketStart.plusDays(1);
+                default:
+                    return bucketStart.plusMonths(1);
+            }
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Granularity granularity;
+        private LocalDateTime bucketStart;
+        private Order.OrderStatus status;
+        private String paymentMethod;
+        private Integer stripe;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.order.event;
 
+import com.ecommerce.order.entity.Money;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -221,7 +222,7 @@ public class OrderEvent implements Serializable {
         }
 
         public BigDecimal getSubtotal() {
-            return unitPrice.multiply(BigDecimal.valueOf(quantity));
+            return Money.toBigDecimal(Money.lineTotal(Money.toMinorUnits(unitPrice), quantity));
         }
 
         @Override
@@ -0,0 +1,99 @@
+package com.ecommerce.order.export;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Variable-length integers and strings shared by the binary order formats:
+ * the columnar export and the order archive segments.
+ * <p>
+ * Integers are unsigned LEB128 varints; signed values are zig-zag encoded
+ * first. Strings are a length of 0 for null, otherwise 1 + the UTF-8 byte
+ * length followed by the bytes.
+ */
+public final class BinaryCodec {
+
+    private BinaryCodec() {
+    }
+
+    public static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    public static long unzigzag(long raw) {
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    public static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    public static long readVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    public static void writeSignedVarLong(DataOutput out, long value) throws IOException {
+        writeVarLong(out, zigzag(value));
+    }
+
+    public static long readSignedVarLong(ByteBuffer in) throws IOException {
+        return unzigzag(readVarLong(in));
+    }
+
+    public static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a string from a heap buffer.
+     */
+    public static String readString(ByteBuffer in) throws IOException {
+        int length = (int) readVarLong(in);
+        if (length == 0) {
+            return null;
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length - 1, StandardCharsets.UTF_8);
+        in.position(in.position() + length - 1);
+        return value;
+    }
+
+    public static void skipString(ByteBuffer in) throws IOException {
+        int length = (int) readVarLong(in);
+        if (length > 0) {
+            in.position(in.position() + length - 1);
+        }
+    }
+}
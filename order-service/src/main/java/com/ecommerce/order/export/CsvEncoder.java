@@ -0,0 +1,270 @@
+package com.ecommerce.order.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Encodes CSV fields straight into one reusable byte buffer: numbers, amounts
+ * and dates are written digit by digit and text is escaped and UTF-8 encoded
+ * in a single pass, so writing a row allocates nothing.
+ * <p>
+ * The text is what the exports used to build with strings: amounts as
+ * {@link BigDecimal#toPlainString()}, dates as {@code yyyy-MM-dd HH:mm:ss},
+ * and fields holding a comma, quote or line feed quoted with doubled quotes.
+ */
+public final class CsvEncoder {
+
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    /** Room for the longest field that is not text: a long with its sign. */
+    private static final int MAX_NUMBER_LENGTH = 20;
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+
+    /**
+     * @param out        the stream to write to; flushed, but not closed, by {@link #flush()}
+     * @param bufferSize bytes buffered before they are written to {@code out}
+     */
+    public CsvEncoder(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(bufferSize, 64)];
+    }
+
+    /**
+     * Write the UTF-8 BOM, which Excel needs to read the file as UTF-8.
+     */
+    public void writeBom() throws IOException {
+        writeBytes(BOM);
+    }
+
+    /**
+     * Write text that needs no quoting, such as a header or an enum name.
+     */
+    public void writeRaw(String value) throws IOException {
+        writeText(value, false);
+    }
+
+    /**
+     * Write a text field, quoted if it needs to be. Null is an empty field.
+     */
+    public void writeField(String value) throws IOException {
+        writeText(value, true);
+    }
+
+    /**
+     * Write a number; null is written as {@code null}, as {@link String#valueOf(Object)} does.
+     */
+    public void writeLong(Long value) throws IOException {
+        if (value == null) {
+            writeBytes(NULL);
+        } else {
+            writeLong(value.longValue());
+        }
+    }
+
+    public void writeLong(long value) throws IOException {
+        ensure(MAX_NUMBER_LENGTH);
+        if (value == Long.MIN_VALUE) {
+            writeText(Long.toString(value), false);
+            return;
+        }
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        position += writeDigits(value, digits(value), buffer, position);
+    }
+
+    /**
+     * Same text as {@link BigDecimal#toPlainString()}, without building it
+     * for amounts whose unscaled value fits in a long.
+     */
+    public void writeDecimal(BigDecimal value) throws IOException {
+        int scale = value.scale();
+        if (value.precision() > 18 || scale < 0 || scale > 18) {
+            writeText(value.toPlainString(), false);
+            return;
+        }
+        // Unlike unscaledValue(), this never builds a BigInteger, and the JIT removes the temporary
+        long unscaled = value.movePointRight(scale).longValue();
+        ensure(MAX_NUMBER_LENGTH + 2);
+        if (unscaled < 0) {
+            buffer[position++] = '-';
+            unscaled = -unscaled;
+        }
+        if (scale == 0) {
+            position += writeDigits(unscaled, digits(unscaled), buffer, position);
+            return;
+        }
+        long factor = POWERS_OF_TEN[scale];
+        long integer = unscaled / factor;
+        long fraction = unscaled % factor;
+        position += writeDigits(integer, digits(integer), buffer, position);
+        buffer[position++] = '.';
+        position += writeDigits(fraction, scale, buffer, position);
+    }
+
+    /**
+     * Write a date as {@code yyyy-MM-dd HH:mm:ss}. Null is an empty field.
+     */
+    public void writeDateTime(LocalDateTime value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        int year = value.getYear();
+        if (year < 1 || year > 9999) {
+            // Outside the four digit years DATE_FMT writes without a sign or era
+            writeText(value.format(DATE_FMT), false);
+            return;
+        }
+        ensure(19);
+        position += writeDigits(year, 4, buffer, position);
+        buffer[position++] = '-';
+        position += writeDigits(value.getMonthValue(), 2, buffer, position);
+        buffer[position++] = '-';
+        position += writeDigits(value.getDayOfMonth(), 2, buffer, position);
+        buffer[position++] = ' ';
+        position += writeDigits(value.getHour(), 2, buffer, position);
+        buffer[position++] = ':';
+        position += writeDigits(value.getMinute(), 2, buffer, position);
+        buffer[position++] = ':';
+        position += writeDigits(value.getSecond(), 2, buffer, position);
+    }
+
+    public void writeSeparator() throws IOException {
+        writeByte(',');
+    }
+
+    public void endRow() throws IOException {
+        writeBytes(LINE_SEPARATOR);
+    }
+
+    /**
+     * Write the buffered bytes to the stream and flush it.
+     */
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    /**
+     * UTF-8 encode {@code value}, quoted if {@code escape} is set and it holds
+     * a comma, quote or line feed. Null is written as an empty field.
+     */
+    private void writeText(String value, boolean escape) throws IOException {
+        if (value == null) {
+            return;
+        }
+        int length = value.length();
+        boolean quote = escape && needsQuotes(value);
+        if (quote) {
+            writeByte('"');
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                ensure(2);
+                if (quote && c == '"') {
+                    buffer[position++] = '"';
+                }
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                ensure(2);
+                buffer[position++] = (byte) (0xC0 | c >> 6);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensure(4);
+                buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced as the JDK's UTF-8 encoder does
+                writeByte('?');
+            } else {
+                ensure(3);
+                buffer[position++] = (byte) (0xE0 | c >> 12);
+                buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        if (quote) {
+            writeByte('"');
+        }
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeByte(int b) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.length - position < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * @return the number of decimal digits of a non-negative value
+     */
+    private static int digits(long value) {
+        int digits = 1;
+        while (digits < 19 && value >= POWERS_OF_TEN[digits]) {
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Write a non-negative value as exactly {@code width} digits, zero padded.
+     *
+     * @return {@code width}
+     */
+    private static int writeDigits(long value, int width, byte[] buffer, int offset) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return width;
+    }
+}
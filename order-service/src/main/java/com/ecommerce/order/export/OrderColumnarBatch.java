@@ -0,0 +1,105 @@
+package com.ecommerce.order.export;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * One decoded block of a columnar export. Rows are addressed by index;
+ * status and payment method values are shared dictionary strings.
+ */
+public final class OrderColumnarBatch {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+
+    private final int size;
+    private final int scale;
+    private final long[] ids;
+    private final long[] userIds;
+    private final String[] statusDictionary;
+    private final int[] statusCodes;
+    private final long[] amounts;
+    private final String[] paymentDictionary;
+    private final int[] paymentCodes;
+    private final String[] shippingAddresses;
+    private final long[] orderDates;
+    private final boolean[] orderDateNull;
+    private final int[] itemCounts;
+
+    OrderColumnarBatch(int size, int scale, long[] ids, long[] userIds,
+                       String[] statusDictionary, int[] statusCodes, long[] amounts,
+                       String[] paymentDictionary, int[] paymentCodes, String[] shippingAddresses,
+                       long[] orderDates, boolean[] orderDateNull, int[] itemCounts) {
+        this.size = size;
+        this.scale = scale;
+        this.ids = ids;
+        this.userIds = userIds;
+        this.statusDictionary = statusDictionary;
+        this.statusCodes = statusCodes;
+        this.amounts = amounts;
+        this.paymentDictionary = paymentDictionary;
+        this.paymentCodes = paymentCodes;
+        this.shippingAddresses = shippingAddresses;
+        this.orderDates = orderDates;
+        this.orderDateNull = orderDateNull;
+        this.itemCounts = itemCounts;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getId(int row) {
+        return ids[row];
+    }
+
+    public long getUserId(int row) {
+        return userIds[row];
+    }
+
+    /**
+     * @return the status name, e.g. {@code DELIVERED}
+     */
+    public String getStatus(int row) {
+        return statusDictionary[statusCodes[row]];
+    }
+
+    /**
+     * @return the total amount in minor units, i.e. scaled by 10^{@link OrderColumnarReader#getScale()}
+     */
+    public long getTotalAmountMinor(int row) {
+        return amounts[row];
+    }
+
+    public BigDecimal getTotalAmount(int row) {
+        return BigDecimal.valueOf(amounts[row], scale);
+    }
+
+    public String getPaymentMethod(int row) {
+        return paymentDictionary[paymentCodes[row]];
+    }
+
+    public String getShippingAddress(int row) {
+        return shippingAddresses[row];
+    }
+
+    public boolean hasOrderDate(int row) {
+        return !orderDateNull[row];
+    }
+
+    /**
+     * @return the order date in microseconds since 1970-01-01T00:00, or 0 if it has none
+     */
+    public long getOrderDateMicros(int row) {
+        return orderDates[row];
+    }
+
+    public LocalDateTime getOrderDate(int row) {
+        return orderDateNull[row] ? null : EPOCH.plus(orderDates[row], ChronoUnit.MICROS);
+    }
+
+    public int getItemCount(int row) {
+        return itemCounts[row];
+    }
+}
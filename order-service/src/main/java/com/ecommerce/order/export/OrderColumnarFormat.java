@@ -0,0 +1,38 @@
+package com.ecommerce.order.export;
+
+/**
+ * Columnar binary order export, written by {@link OrderColumnarWriter} and
+ * read by {@link OrderColumnarReader}.
+ * <pre>
+ * MAGIC VERSION SCALE | block... | 0 rowCount
+ * block: rows rawLength compressedLength deflate(columns)
+ * </pre>
+ * Each block holds up to a few thousand orders and is self-contained: every
+ * column of its rows is stored contiguously, in CSV column order, and the
+ * whole block is deflate-compressed. Integers and strings are encoded with
+ * {@link BinaryCodec}: unsigned LEB128 varints, with signed values zig-zag
+ * encoded first.
+ * <ul>
+ *   <li>order id: signed delta from the previous row, the first from 0</li>
+ *   <li>user id: plain</li>
+ *   <li>status, payment method: a block dictionary (entry count, then strings),
+ *       then one dictionary index per row</li>
+ *   <li>total amount: signed fixed-point, in units of 10<sup>-SCALE</sup></li>
+ *   <li>shipping address: strings</li>
+ *   <li>order date: 0 for null, otherwise 1 + the zig-zag delta, in epoch
+ *       microseconds, from the previous non-null date in the block</li>
+ *   <li>item count: plain</li>
+ * </ul>
+ * Timestamps are wall-clock times measured as if UTC.
+ */
+public final class OrderColumnarFormat {
+
+    public static final int MAGIC = 0x4F434F4C; // "OCOL"
+    public static final byte VERSION = 1;
+
+    /** Content type of the export. */
+    public static final String MEDIA_TYPE = "application/vnd.ecommerce.orders+columnar";
+
+    private OrderColumnarFormat() {
+    }
+}
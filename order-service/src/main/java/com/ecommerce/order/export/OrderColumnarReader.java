@@ -0,0 +1,184 @@
+package com.ecommerce.order.export;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static com.ecommerce.order.export.BinaryCodec.readString;
+import static com.ecommerce.order.export.BinaryCodec.readVarLong;
+import static com.ecommerce.order.export.BinaryCodec.unzigzag;
+
+/**
+ * Reads an {@link OrderColumnarFormat} export one block at a time. The reader,
+ * {@link OrderColumnarBatch} and {@link OrderColumnarFormat} depend on nothing
+ * but the JDK, so analytics jobs can use them without the service.
+ * <pre>
+ * try (OrderColumnarReader reader = new OrderColumnarReader(in)) {
+ *     for (OrderColumnarBatch batch; (batch = reader.readBatch()) != null; ) {
+ *         for (int i = 0; i &lt; batch.size(); i++) {
+ *             total += batch.getTotalAmountMinor(i);
+ *         }
+ *     }
+ * }
+ * </pre>
+ */
+public final class OrderColumnarReader implements Closeable {
+
+    private final DataInputStream in;
+    private final int scale;
+    private final Inflater inflater = new Inflater();
+    private byte[] compressed = new byte[1 << 16];
+    private byte[] raw = new byte[1 << 16];
+    private long rows;
+    private boolean finished;
+
+    public OrderColumnarReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        if (this.in.readInt() != OrderColumnarFormat.MAGIC) {
+            throw new IOException("Not a columnar order export");
+        }
+        byte version = this.in.readByte();
+        if (version != OrderColumnarFormat.VERSION) {
+            throw new IOException("Unsupported columnar order export version " + version);
+        }
+        scale = this.in.readByte();
+    }
+
+    /**
+     * @return the decimal places of the fixed-point amounts
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * Decode the next block.
+     *
+     * @return the block's orders, or null after the last block
+     * @throws IOException if the data is corrupt or ends early
+     */
+    public OrderColumnarBatch readBatch() throws IOException {
+        if (finished) {
+            return null;
+        }
+        int count = (int) readVarLong(in);
+        if (count == 0) {
+            long expected = readVarLong(in);
+            if (expected != rows) {
+                throw new IOException("Export declares " + expected + " orders but holds " + rows);
+            }
+            finished = true;
+            return null;
+        }
+        int rawLength = (int) readVarLong(in);
+        int compressedLength = (int) readVarLong(in);
+        if (compressed.length < compressedLength) {
+            compressed = new byte[compressedLength];
+        }
+        if (raw.length < rawLength) {
+            raw = new byte[rawLength];
+        }
+        in.readFully(compressed, 0, compressedLength);
+        inflate(compressedLength, rawLength);
+
+        ByteBuffer block = ByteBuffer.wrap(raw, 0, rawLength);
+        if (readVarLong(block) != count) {
+            throw new IOException("Block row count mismatch");
+        }
+        OrderColumnarBatch batch = decode(block, count);
+        rows += count;
+        return batch;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    private OrderColumnarBatch decode(ByteBuffer block, int count) throws IOException {
+        long[] ids = new long[count];
+        long previous = 0;
+        for (int row = 0; row < count; row++) {
+            previous += unzigzag(readVarLong(block));
+            ids[row] = previous;
+        }
+        long[] userIds = new long[count];
+        for (int row = 0; row < count; row++) {
+            userIds[row] = readVarLong(block);
+        }
+        String[] statusDictionary = readDictionary(block);
+        int[] statusCodes = readCodes(block, count, statusDictionary.length);
+        long[] amounts = new long[count];
+        for (int row = 0; row < count; row++) {
+            amounts[row] = unzigzag(readVarLong(block));
+        }
+        String[] paymentDictionary = readDictionary(block);
+        int[] paymentCodes = readCodes(block, count, paymentDictionary.length);
+        String[] shippingAddresses = new String[count];
+        for (int row = 0; row < count; row++) {
+            shippingAddresses[row] = readString(block);
+        }
+        long[] orderDates = new long[count];
+        boolean[] orderDateNull = new boolean[count];
+        previous = 0;
+        for (int row = 0; row < count; row++) {
+            long value = readVarLong(block);
+            if (value == 0) {
+                orderDateNull[row] = true;
+            } else {
+                previous += unzigzag(value - 1);
+                orderDates[row] = previous;
+            }
+        }
+        int[] itemCounts = new int[count];
+        for (int row = 0; row < count; row++) {
+            itemCounts[row] = (int) readVarLong(block);
+        }
+        return new OrderColumnarBatch(count, scale, ids, userIds, statusDictionary, statusCodes, amounts,
+                paymentDictionary, paymentCodes, shippingAddresses, orderDates, orderDateNull, itemCounts);
+    }
+
+    private static String[] readDictionary(ByteBuffer block) throws IOException {
+        String[] dictionary = new String[(int) readVarLong(block)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(block);
+        }
+        return dictionary;
+    }
+
+    private static int[] readCodes(ByteBuffer block, int count, int dictionarySize) throws IOException {
+        int[] codes = new int[count];
+        for (int row = 0; row < count; row++) {
+            long code = readVarLong(block);
+            if (code >= dictionarySize) {
+                throw new IOException("Dictionary index " + code + " out of range");
+            }
+            codes[row] = (int) code;
+        }
+        return codes;
+    }
+
+    private void inflate(int compressedLength, int rawLength) throws IOException {
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int filled = 0;
+            while (filled < rawLength) {
+                int n = inflater.inflate(raw, filled, rawLength - filled);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new EOFException("Truncated columnar block");
+                }
+                filled += n;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt columnar block", e);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.ecommerce.order.export;
+
+import com.ecommerce.order.entity.Money;
+import com.ecommerce.order.entity.Order;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static com.ecommerce.order.export.BinaryCodec.writeString;
+import static com.ecommerce.order.export.BinaryCodec.writeVarLong;
+import static com.ecommerce.order.export.BinaryCodec.zigzag;
+
+/**
+ * Writes orders in the {@link OrderColumnarFormat}. Rows are buffered until a
+ * block is full, so at most one block of orders is held in memory.
+ */
+public final class OrderColumnarWriter {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+
+    private final DataOutputStream out;
+    private final int blockRows;
+
+    private final long[] ids;
+    private final long[] userIds;
+    private final String[] statuses;
+    private final long[] amounts;
+    private final String[] paymentMethods;
+    private final String[] shippingAddresses;
+    private final LocalDateTime[] orderDates;
+    private final int[] itemCounts;
+    private int buffered;
+    private long rows;
+
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream(1 << 16);
+    private final DataOutputStream blockData = new DataOutputStream(block);
+    private final Deflater deflater = new Deflater();
+    private byte[] compressed = new byte[1 << 16];
+
+    /**
+     * @param out       the stream to write to; flushed, but not closed, by {@link #finish()}
+     * @param blockRows orders per block
+     */
+    public OrderColumnarWriter(OutputStream out, int blockRows) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.blockRows = blockRows;
+        ids = new long[blockRows];
+        userIds = new long[blockRows];
+        statuses = new String[blockRows];
+        amounts = new long[blockRows];
+        paymentMethods = new String[blockRows];
+        shippingAddresses = new String[blockRows];
+        orderDates = new LocalDateTime[blockRows];
+        itemCounts = new int[blockRows];
+
+        this.out.writeInt(OrderColumnarFormat.MAGIC);
+        this.out.writeByte(OrderColumnarFormat.VERSION);
+        this.out.writeByte(Money.SCALE);
+    }
+
+    public void write(Order order) throws IOException {
+        int row = buffered++;
+        ids[row] = order.getId();
+        userIds[row] = order.getUserId();
+        statuses[row] = order.getStatus() != null ? order.getStatus().name() : null;
+        amounts[row] = order.getTotalAmount() != null ? Money.toMinorUnits(order.getTotalAmount()) : 0;
+        paymentMethods[row] = order.getPaymentMethod();
+        shippingAddresses[row] = order.getShippingAddress();
+        orderDates[row] = order.getOrderDate();
+        // Same fallback as the CSV export, for rows the item_count backfill has not reached
+        itemCounts[row] = order.getItemCount() != null ? order.getItemCount()
+                : order.getItems() != null ? order.getItems().size() : 0;
+        if (buffered == blockRows) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Write any buffered rows and the end marker, and flush.
+     *
+     * @return the number of orders written
+     */
+    public long finish() throws IOException {
+        try {
+            if (buffered > 0) {
+                writeBlock();
+            }
+            writeVarLong(out, 0);
+            writeVarLong(out, rows);
+            out.flush();
+            return rows;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        int count = buffered;
+        block.reset();
+        writeVarLong(blockData, count);
+
+        long previous = 0;
+        for (int row = 0; row < count; row++) {
+            writeVarLong(blockData, zigzag(ids[row] - previous));
+            previous = ids[row];
+        }
+        for (int row = 0; row < count; row++) {
+            writeVarLong(blockData, userIds[row]);
+        }
+        writeDictionaryColumn(statuses, count);
+        for (int row = 0; row < count; row++) {
+            writeVarLong(blockData, zigzag(amounts[row]));
+        }
+        writeDictionaryColumn(paymentMethods, count);
+        for (int row = 0; row < count; row++) {
+            writeString(blockData, shippingAddresses[row]);
+        }
+        previous = 0;
+        for (int row = 0; row < count; row++) {
+            if (orderDates[row] == null) {
+                writeVarLong(blockData, 0);
+            } else {
+                long micros = ChronoUnit.MICROS.between(EPOCH, orderDates[row]);
+                writeVarLong(blockData, zigzag(micros - previous) + 1);
+                previous = micros;
+            }
+        }
+        for (int row = 0; row < count; row++) {
+            writeVarLong(blockData, itemCounts[row]);
+        }
+
+        byte[] raw = block.toByteArray();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+
+        writeVarLong(out, count);
+        writeVarLong(out, raw.length);
+        writeVarLong(out, length);
+        out.write(compressed, 0, length);
+
+        rows += count;
+        buffered = 0;
+        Arrays.fill(statuses, null);
+        Arrays.fill(paymentMethods, null);
+        Arrays.fill(shippingAddresses, null);
+        Arrays.fill(orderDates, null);
+    }
+
+    private void writeDictionaryColumn(String[] values, int count) throws IOException {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        int[] rowCodes = new int[count];
+        for (int row = 0; row < count; row++) {
+            Integer code = codes.get(values[row]);
+            if (code == null) {
+                code = dictionary.size();
+                codes.put(values[row], code);
+                dictionary.add(values[row]);
+            }
+            rowCodes[row] = code;
+        }
+        writeVarLong(blockData, dictionary.size());
+        for (String value : dictionary) {
+            writeString(blockData, value);
+        }
+        for (int code : rowCodes) {
+            writeVarLong(blockData, code);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecommerce.order.export;
+
+import com.ecommerce.order.entity.Order;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes orders as CSV rows through a {@link CsvEncoder}, so a row allocates
+ * nothing. The output is byte for byte what the export wrote through a
+ * {@code BufferedWriter}.
+ */
+public final class OrderCsvWriter {
+
+    public static final String HEADER =
+            "OrderID,UserID,Status,TotalAmount,PaymentMethod,ShippingAddress,OrderDate,ItemCount";
+
+    private final CsvEncoder csv;
+
+    /**
+     * @param out        the stream to write to; flushed, but not closed, by {@link #flush()}
+     * @param bufferSize bytes buffered before they are written to {@code out}
+     */
+    public OrderCsvWriter(OutputStream out, int bufferSize) {
+        this.csv = new CsvEncoder(out, bufferSize);
+    }
+
+    /**
+     * Write the BOM, which Excel needs to read the file as UTF-8, and the header row.
+     */
+    public void writeHeader() throws IOException {
+        csv.writeBom();
+        csv.writeRaw(HEADER);
+        csv.endRow();
+    }
+
+    public void write(Order order) throws IOException {
+        // Fall back to the item list only for rows the item_count backfill has not reached
+        int itemCount = order.getItemCount() != null ? order.getItemCount()
+                : order.getItems() != null ? order.getItems().size() : 0;
+
+        csv.writeLong(order.getId());
+        csv.writeSeparator();
+        csv.writeLong(order.getUserId());
+        csv.writeSeparator();
+        if (order.getStatus() != null) {
+            csv.writeRaw(order.getStatus().name());
+        }
+        csv.writeSeparator();
+        if (order.getTotalAmount() != null) {
+            csv.writeDecimal(order.getTotalAmount());
+        } else {
+            csv.writeLong(0);
+        }
+        csv.writeSeparator();
+        csv.writeField(order.getPaymentMethod());
+        csv.writeSeparator();
+        csv.writeField(order.getShippingAddress());
+        csv.writeSeparator();
+        csv.writeDateTime(order.getOrderDate());
+        csv.writeSeparator();
+        csv.writeLong(itemCount);
+        csv.endRow();
+    }
+
+    /**
+     * Write the buffered rows to the stream and flush it.
+     */
+    public void flush() throws IOException {
+        csv.flush();
+    }
+}
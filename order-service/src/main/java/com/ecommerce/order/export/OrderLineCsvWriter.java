@@ -0,0 +1,67 @@
+package com.ecommerce.order.export;
+
+import com.ecommerce.order.dto.OrderLine;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes order lines, one row per order item, as CSV through a
+ * {@link CsvEncoder}.
+ */
+public final class OrderLineCsvWriter {
+
+    public static final String HEADER =
+            "OrderID,UserID,Status,OrderDate,ItemID,ProductID,ProductName,Quantity,UnitPrice,Subtotal";
+
+    private final CsvEncoder csv;
+
+    /**
+     * @param out        the stream to write to; flushed, but not closed, by {@link #flush()}
+     * @param bufferSize bytes buffered before they are written to {@code out}
+     */
+    public OrderLineCsvWriter(OutputStream out, int bufferSize) {
+        this.csv = new CsvEncoder(out, bufferSize);
+    }
+
+    /**
+     * Write the BOM, which Excel needs to read the file as UTF-8, and the header row.
+     */
+    public void writeHeader() throws IOException {
+        csv.writeBom();
+        csv.writeRaw(HEADER);
+        csv.endRow();
+    }
+
+    public void write(OrderLine line) throws IOException {
+        csv.writeLong(line.getOrderId());
+        csv.writeSeparator();
+        csv.writeLong(line.getUserId());
+        csv.writeSeparator();
+        if (line.getStatus() != null) {
+            csv.writeRaw(line.getStatus().name());
+        }
+        csv.writeSeparator();
+        csv.writeDateTime(line.getOrderDate());
+        csv.writeSeparator();
+        csv.writeLong(line.getItemId());
+        csv.writeSeparator();
+        csv.writeLong(line.getProductId());
+        csv.writeSeparator();
+        csv.writeField(line.getProductName());
+        csv.writeSeparator();
+        csv.writeLong(line.getQuantity().longValue());
+        csv.writeSeparator();
+        csv.writeDecimal(line.getUnitPrice());
+        csv.writeSeparator();
+        csv.writeDecimal(line.getSubtotal());
+        csv.endRow();
+    }
+
+    /**
+     * Write the buffered rows to the stream and flush it.
+     */
+    public void flush() throws IOException {
+        csv.flush();
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.MaintenanceTask;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface MaintenanceTaskRepository extends JpaRepository<MaintenanceTask, String> {
+
+    /**
+     * Insert a task's row unless another node already has; the first insert wins.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO maintenance_tasks (name, last_id, target_id, completed_at, updated_at) " +
+                   "VALUES (:name, 0, :targetId, :completedAt, :now) " +
+                   "ON DUPLICATE KEY UPDATE last_id = last_id", nativeQuery = true)
+    int createIfAbsent(@Param("name") String name,
+                       @Param("targetId") long targetId,
+                       @Param("completedAt") LocalDateTime completedAt,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Read a task's row with SELECT ... FOR UPDATE, holding it until the
+     * transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM MaintenanceTask t WHERE t.name = :name")
+    Optional<MaintenanceTask> lockByName(@Param("name") String name);
+}
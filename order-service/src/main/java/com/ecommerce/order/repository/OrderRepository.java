@@ -1,17 +1,38 @@
 package com.ecommerce.order.repository;
 
 
+import com.ecommerce.order.dto.OrderSummary;
 import com.ecommerce.order.entity.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 
+
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    // Rows per round trip when streaming; MySQL needs useCursorFetch=true to honour it
+    String STREAM_FETCH_SIZE = "500";
+
     List<Order> findByUserId(Long userId);
 
 
@@ -21,4 +42,195 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByOrderDateBetween(LocalDateTime start, LocalDateTime end);
 
+    @Query("SELECT o.id FROM Order o WHERE o.userId = :userId ORDER BY o.orderDate DESC, o.id DESC")
+    List<Long> findHistoryIds(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.userId = :userId " +
+           "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)) " +
+           "ORDER BY o.orderDate DESC, o.id DESC")
+    List<Long> findHistoryIdsBefore(@Param("userId") Long userId,
+                                    @Param("orderDate") LocalDateTime orderDate,
+                                    @Param("id") Long id,
+                                    Pageable pageable);
+
+    @EntityGraph(attributePaths = "items")
+    List<Order> findDistinctByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(Long id);
+
+    /**
+     * Set a new order's total and item count only while it is still PENDING.
+     * The status itself is left alone.
+     *
+     * @return 1 if the order was updated, 0 if it does not exist or is no longer PENDING
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.totalAmount = :total, o.itemCount = :itemCount, o.updatedAt = :now " +
+           "WHERE o.id = :id AND o.status = com.ecommerce.order.entity.Order$OrderStatus.PENDING")
+    int priceIfPending(@Param("id") Long id,
+                       @Param("total") BigDecimal total,
+                       @Param("itemCount") int itemCount,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Move an order to {@code to} only if its status and total are still
+     * {@code from} and {@code total}, as last read.
+     *
+     * @return 1 if the order was updated, 0 if it does not exist or either value changed
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now " +
+           "WHERE o.id = :id AND o.status = :from AND o.totalAmount = :total")
+    int transitionStatus(@Param("id") Long id,
+                         @Param("from") Order.OrderStatus from,
+                         @Param("total") BigDecimal total,
+                         @Param("to") Order.OrderStatus to,
+                         @Param("now") LocalDateTime now);
+
+    @Query("SELECT o.id FROM Order o WHERE o.status IN :statuses AND o.orderDate < :cutoff ORDER BY o.id")
+    List<Long> findArchivableIds(@Param("statuses") Collection<Order.OrderStatus> statuses,
+                                 @Param("cutoff") LocalDateTime cutoff,
+                                 Pageable pageable);
+
+    /**
+     * Delete the items of the given orders that are still in {@code status}.
+     * Must run before {@link #deleteArchived}.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OrderItem i WHERE i.order.id IN " +
+           "(SELECT o.id FROM Order o WHERE o.id IN :ids AND o.status = :status)")
+    int deleteArchivedItems(@Param("ids") Collection<Long> ids, @Param("status") Order.OrderStatus status);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Order o WHERE o.id IN :ids AND o.status = :status")
+    int deleteArchived(@Param("ids") Collection<Long> ids, @Param("status") Order.OrderStatus status);
+
+    /**
+     * Read an order's status, total and rollup bucket, without locking it.
+     */
+    @Query("SELECT o.id AS id, o.status AS status, o.totalAmount AS totalAmount, " +
+           "o.orderDate AS orderDate, o.paymentMethod AS paymentMethod FROM Order o WHERE o.id = :id")
+    Optional<StatusView> findStatusViewById(@Param("id") Long id);
+
+    @Query("SELECT o.id AS id, o.status AS status, o.totalAmount AS totalAmount, " +
+           "o.orderDate AS orderDate, o.paymentMethod AS paymentMethod FROM Order o WHERE o.id IN :ids")
+    List<StatusView> findStatusViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Read an order's status, total and rollup bucket and lock its row until
+     * the transaction ends. A locking read sees the latest committed row, not
+     * the transaction's REPEATABLE READ snapshot.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id AS id, o.status AS status, o.totalAmount AS totalAmount, " +
+           "o.orderDate AS orderDate, o.paymentMethod AS paymentMethod FROM Order o WHERE o.id = :id")
+    Optional<StatusView> lockStatusViewById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.id AS id, o.status AS status, o.totalAmount AS totalAmount, " +
+           "o.orderDate AS orderDate, o.paymentMethod AS paymentMethod FROM Order o " +
+           "WHERE o.id IN :ids ORDER BY o.id")
+    List<StatusView> lockStatusViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT o.status AS status, COUNT(o) AS orderCount, SUM(o.totalAmount) AS revenue " +
+           "FROM Order o GROUP BY o.status")
+    List<StatusTotals> sumByStatus();
+
+    /**
+     * Count and revenue per hour, status and payment method of the orders
+     * placed in {@code [from, to)}.
+     */
+    @Query("SELECT year(o.orderDate) AS year, month(o.orderDate) AS month, day(o.orderDate) AS day, " +
+           "hour(o.orderDate) AS hour, o.status AS status, o.paymentMethod AS paymentMethod, " +
+           "COUNT(o) AS orderCount, SUM(o.totalAmount) AS revenue FROM Order o " +
+           "WHERE o.orderDate >= :from AND o.orderDate < :to " +
+           "GROUP BY year(o.orderDate), month(o.orderDate), day(o.orderDate), hour(o.orderDate), " +
+           "o.status, o.paymentMethod")
+    List<HourTotals> sumByHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Stream every order in id order through a forward-only cursor. Must be
+     * consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o ORDER BY o.id")
+    Stream<Order> streamAll();
+
+    /**
+     * Stream the orders with {@code fromId <= id < toId} in id order.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o WHERE o.id >= :fromId AND o.id < :toId ORDER BY o.id")
+    Stream<Order> streamIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query("SELECT MIN(o.id) AS minId, MAX(o.id) AS maxId FROM Order o")
+    IdRange findIdRange();
+
+    /**
+     * Page through the fields the order rollups are built from, in id order.
+     */
+    @Query("SELECT o.id AS id, o.status AS status, o.totalAmount AS totalAmount, " +
+           "o.orderDate AS orderDate, o.paymentMethod AS paymentMethod FROM Order o " +
+           "WHERE o.id > :afterId AND o.id <= :maxId ORDER BY o.id")
+    List<StatusView> findStatusViewsAfter(@Param("afterId") long afterId,
+                                          @Param("maxId") long maxId,
+                                          Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.order.dto.OrderSummary(o.id, o.status, o.totalAmount, o.orderDate, o.itemCount) " +
+           "FROM Order o WHERE o.userId = :userId ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderSummary> findSummaries(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT new com.ecommerce.order.dto.OrderSummary(o.id, o.status, o.totalAmount, o.orderDate, o.itemCount) " +
+           "FROM Order o WHERE o.userId = :userId " +
+           "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)) " +
+           "ORDER BY o.orderDate DESC, o.id DESC")
+    List<OrderSummary> findSummariesBefore(@Param("userId") Long userId,
+                                           @Param("orderDate") LocalDateTime orderDate,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    interface StatusView {
+        Long getId();
+
+        Order.OrderStatus getStatus();
+
+        BigDecimal getTotalAmount();
+
+        LocalDateTime getOrderDate();
+
+        String getPaymentMethod();
+    }
+
+    interface IdRange {
+        Long getMinId();
+
+        Long getMaxId();
+    }
+
+    interface StatusTotals {
+        Order.OrderStatus getStatus();
+
+        long getOrderCount();
+
+        BigDecimal getRevenue();
+    }
+
+    interface HourTotals extends StatusTotals {
+        int getYear();
+
+        int getMonth();
+
+        int getDay();
+
+        int getHour();
+
+        String getPaymentMethod();
+    }
 }
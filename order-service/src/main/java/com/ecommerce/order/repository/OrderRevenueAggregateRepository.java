@@ -0,0 +1,27 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderRevenueAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderRevenueAggregateRepository
+        extends JpaRepository<OrderRevenueAggregate, OrderRevenueAggregate.Key> {
+
+    /**
+     * Add to one stripe of a status's totals.
+     *
+     * @return 1, or 0 if the row has not been seeded
+     */
+    @Modifying
+    @Query("UPDATE OrderRevenueAggregate a SET a.orderCount = a.orderCount + :orders, " +
+           "a.revenueMinor = a.revenueMinor + :revenueMinor WHERE a.status = :status AND a.stripe = :stripe")
+    int add(@Param("status") Order.OrderStatus status,
+            @Param("stripe") int stripe,
+            @Param("orders") long orders,
+            @Param("revenueMinor") long revenueMinor);
+}
@@ -0,0 +1,53 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, OrderRollup.Key> {
+
+    /**
+     * Every bucket of one granularity starting in {@code [from, to)}, with
+     * its stripes added up.
+     */
+    @Query("SELECT r.bucketStart AS bucketStart, r.status AS status, r.paymentMethod AS paymentMethod, " +
+           "SUM(r.orderCount) AS orderCount, SUM(r.revenueMinor) AS revenueMinor FROM OrderRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.bucketStart, r.status, r.paymentMethod " +
+           "ORDER BY r.bucketStart, r.status, r.paymentMethod")
+    List<BucketTotals> sumBuckets(@Param("granularity") OrderRollup.Granularity granularity,
+                                  @Param("from") LocalDateTime from,
+                                  @Param("to") LocalDateTime to);
+
+    /**
+     * The buckets of one granularity starting in {@code [from, to)}, added up.
+     */
+    @Query("SELECT r.status AS status, r.paymentMethod AS paymentMethod, " +
+           "SUM(r.orderCount) AS orderCount, SUM(r.revenueMinor) AS revenueMinor FROM OrderRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.status, r.paymentMethod")
+    List<RangeTotals> sumRange(@Param("granularity") OrderRollup.Granularity granularity,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to);
+
+    interface RangeTotals {
+        Order.OrderStatus getStatus();
+
+        String getPaymentMethod();
+
+        long getOrderCount();
+
+        long getRevenueMinor();
+    }
+
+    interface BucketTotals extends RangeTotals {
+        LocalDateTime getBucketStart();
+    }
+}
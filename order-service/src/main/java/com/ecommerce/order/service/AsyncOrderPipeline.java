@@ -0,0 +1,327 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderProcessingStatus;
+import com.ecommerce.order.dto.OrderProcessingStatus.Stage;
+import com.ecommerce.order.dto.OrderProcessingStatus.State;
+import com.ecommerce.order.dto.StatusTransitionResult;
+import com.ecommerce.order.entity.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in asynchronous order processing.
+ * <p>
+ * An accepted order is inserted as PENDING so the caller gets its id at once,
+ * then validated, priced, stock-reserved and paid for in four stages. Each
+ * stage has its own fixed-size executor and bounded queue. A stage blocks
+ * when the next one's queue is full, so a slow downstream stage throttles
+ * everything before it, and new orders are refused once the validation queue
+ * is full. An order failing at any stage has its stock released and is
+ * cancelled.
+ */
+@Component
+public class AsyncOrderPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncOrderPipeline.class);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ProductStockClient productStockClient;
+
+    private final Map<Stage, ThreadPoolExecutor> executors = new EnumMap<>(Stage.class);
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Timer completedTimer;
+    private final Timer failedTimer;
+    private final Counter rejected;
+    private final Map<Long, Tracker> trackers;
+    private final long subscribeTimeoutMs;
+
+    public AsyncOrderPipeline(MeterRegistry meterRegistry, Environment environment,
+                              @Value("${order.pipeline.status-retention:10000}") int statusRetention,
+                              @Value("${order.pipeline.subscribe-timeout-ms:60000}") long subscribeTimeoutMs) {
+        for (Stage stage : Stage.values()) {
+            String name = stage.name().toLowerCase().replace('_', '-');
+            int threads = environment.getProperty("order.pipeline." + name + ".threads", Integer.class, 4);
+            int queueCapacity = environment.getProperty("order.pipeline." + name + ".queue-capacity", Integer.class, 1000);
+
+            // Intake rejects when full; later stages block their producer instead of dropping accepted orders
+            RejectedExecutionHandler whenFull = stage == Stage.VALIDATE
+                    ? new ThreadPoolExecutor.AbortPolicy()
+                    : AsyncOrderPipeline::blockUntilQueued;
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), threadFactory(name), whenFull);
+            executors.put(stage, executor);
+
+            stageTimers.put(stage, Timer.builder("order.pipeline.stage.duration")
+                    .description("Time spent processing an order in one pipeline stage")
+                    .tag("stage", name)
+                    .register(meterRegistry));
+            Gauge.builder("order.pipeline.stage.queue.depth", executor, e -> e.getQueue().size())
+                    .description("Orders waiting for a pipeline stage")
+                    .tag("stage", name)
+                    .register(meterRegistry);
+        }
+        this.completedTimer = Timer.builder("order.pipeline.duration").tag("outcome", "completed").register(meterRegistry);
+        this.failedTimer = Timer.builder("order.pipeline.duration").tag("outcome", "failed").register(meterRegistry);
+        this.rejected = Counter.builder("order.pipeline.rejected")
+                .description("Orders refused because the pipeline was at capacity")
+                .register(meterRegistry);
+        this.subscribeTimeoutMs = subscribeTimeoutMs;
+        this.trackers = Collections.synchronizedMap(new LinkedHashMap<Long, Tracker>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Tracker> eldest) {
+                return size() > statusRetention;
+            }
+        });
+    }
+
+    /**
+     * Accept an order for asynchronous processing.
+     *
+     * @param order the new order
+     * @return the initial status, carrying the new order's id
+     * @throws ResponseStatusException 400 if the order cannot be stored, 503 if the pipeline is full
+     */
+    public OrderProcessingStatus submit(Order order) {
+        if (order.getUserId() == null || order.getItems() == null || order.getItems().stream().anyMatch(
+                item -> item.getProductId() == null || item.getProductName() == null
+                        || item.getQuantity() == null || item.getUnitPrice() == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "userId and every item's productId, productName, quantity and unitPrice are required");
+        }
+        if (executors.get(Stage.VALIDATE).getQueue().remainingCapacity() == 0) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Order pipeline is at capacity");
+        }
+
+        Job job = new Job(orderService.acceptOrder(order));
+        Tracker tracker = new Tracker(new OrderProcessingStatus(job.orderId, State.ACCEPTED, null, null));
+        trackers.put(job.orderId, tracker);
+        try {
+            executors.get(Stage.VALIDATE).execute(() -> runStage(job, Stage.VALIDATE));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            fail(job, Stage.VALIDATE, "Order pipeline is at capacity");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Order pipeline is at capacity");
+        }
+        return tracker.status;
+    }
+
+    /**
+     * @param orderId the order ID
+     * @return the latest status, or null if the order is unknown or no longer retained
+     */
+    public OrderProcessingStatus getStatus(Long orderId) {
+        Tracker tracker = trackers.get(orderId);
+        return tracker != null ? tracker.status : null;
+    }
+
+    /**
+     * Subscribe to status changes as server-sent events. The current status is
+     * sent immediately and the stream completes after the terminal status.
+     *
+     * @param orderId the order ID
+     * @return the emitter, or null if the order is unknown or no longer retained
+     */
+    public SseEmitter subscribe(Long orderId) {
+        Tracker tracker = trackers.get(orderId);
+        if (tracker == null) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(subscribeTimeoutMs);
+        synchronized (tracker) {
+            if (send(emitter, tracker.status) && !tracker.status.isTerminal()) {
+                tracker.subscribers.add(emitter);
+                emitter.onCompletion(() -> tracker.subscribers.remove(emitter));
+                emitter.onTimeout(() -> tracker.subscribers.remove(emitter));
+            } else {
+                emitter.complete();
+            }
+        }
+        return emitter;
+    }
+
+    private void runStage(Job job, Stage stage) {
+        update(job.orderId, new OrderProcessingStatus(job.orderId, State.PROCESSING, stage, null));
+        long start = System.nanoTime();
+        try {
+            process(job, stage);
+        } catch (RuntimeException e) {
+            logger.warn("Order {} failed at stage {}: {}", job.orderId, stage, e.getMessage());
+            fail(job, stage, e.getMessage());
+            return;
+        } finally {
+            stageTimers.get(stage).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (stage.ordinal() + 1 < Stage.values().length) {
+            Stage next = Stage.values()[stage.ordinal() + 1];
+            try {
+                executors.get(next).execute(() -> runStage(job, next));
+            } catch (RejectedExecutionException e) {
+                fail(job, next, "Order pipeline is shutting down");
+            }
+        } else {
+            completedTimer.record(System.nanoTime() - job.acceptedAtNanos, TimeUnit.NANOSECONDS);
+            update(job.orderId, new OrderProcessingStatus(job.orderId, State.COMPLETED, stage, null));
+        }
+    }
+
+    private void process(Job job, Stage stage) {
+        switch (stage) {
+            case VALIDATE: {
+                String problem = orderService.validateNewOrder(job.order);
+                if (problem == null && !paymentService.isValidPaymentMethod(job.order.getPaymentMethod())) {
+                    problem = "Unsupported payment method: " + job.order.getPaymentMethod();
+                }
+                if (problem != null) {
+                    throw new IllegalArgumentException(problem);
+                }
+                break;
+            }
+            case PRICE:
+                job.totalAmount = orderService.priceOrder(job.orderId).getTotalAmount();
+                break;
+            case RESERVE_STOCK:
+                productStockClient.reserve(job.order.getItems());
+                job.stockReserved = true;
+                break;
+            case PAY: {
+                // Don't charge for an order cancelled while it was priced or reserved
+                Order.OrderStatus current = orderService.getOrderById(job.orderId).getStatus();
+                if (current != Order.OrderStatus.PENDING) {
+                    throw new IllegalStateException("Order " + job.orderId + " is no longer PENDING: " + current);
+                }
+                // A charge whose order could not be confirmed comes back REFUNDED and fails the stage
+                PaymentService.PaymentResult result = paymentService.processPayment(
+                        job.orderId, job.totalAmount, job.order.getPaymentMethod());
+                if (!"COMPLETED".equals(result.getStatus())) {
+                    throw new IllegalStateException(result.getMessage());
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown stage " + stage);
+        }
+    }
+
+    private void fail(Job job, Stage stage, String message) {
+        if (job.stockReserved) {
+            productStockClient.release(job.order.getItems());
+        }
+        try {
+            StatusTransitionResult cancellation = orderService.cancelOrder(job.orderId);
+            if (!cancellation.isApplied()) {
+                logger.warn("Order {} not cancelled after it failed at stage {}: current status {}",
+                        job.orderId, stage, cancellation.getCurrentStatus());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Could not cancel order {} after it failed at stage {}", job.orderId, stage, e);
+        }
+        failedTimer.record(System.nanoTime() - job.acceptedAtNanos, TimeUnit.NANOSECONDS);
+        update(job.orderId, new OrderProcessingStatus(job.orderId, State.FAILED, stage, message));
+    }
+
+    private void update(Long orderId, OrderProcessingStatus status) {
+        Tracker tracker = trackers.get(orderId);
+        if (tracker == null) {
+            return;
+        }
+        synchronized (tracker) {
+            tracker.status = status;
+            for (SseEmitter emitter : tracker.subscribers) {
+                if (!send(emitter, status) || status.isTerminal()) {
+                    emitter.complete();
+                }
+            }
+            if (status.isTerminal()) {
+                tracker.subscribers.clear();
+            }
+        }
+    }
+
+    private static boolean send(SseEmitter emitter, OrderProcessingStatus status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private static void blockUntilQueued(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Order pipeline is shutting down");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted waiting for pipeline capacity", e);
+        }
+    }
+
+    private static ThreadFactory threadFactory(String stageName) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "order-pipeline-" + stageName + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Stop in stage order so each stage drains into one that is still running
+        for (Stage stage : Stage.values()) {
+            ThreadPoolExecutor executor = executors.get(stage);
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static final class Job {
+        final Long orderId;
+        final Order order;
+        final long acceptedAtNanos = System.nanoTime();
+        volatile BigDecimal totalAmount;
+        volatile boolean stockReserved;
+
+        Job(Order order) {
+            this.orderId = order.getId();
+            this.order = order;
+        }
+    }
+
+    private static final class Tracker {
+        volatile OrderProcessingStatus status;
+        final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+
+        Tracker(OrderProcessingStatus status) {
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.BulkOrderResult;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates many orders in one request for B2B and marketplace partners.
+ * <p>
+ * Orders are validated individually and inserted in chunks, one transaction
+ * per chunk. With pooled id generation and {@code hibernate.jdbc.batch_size}
+ * each chunk becomes a handful of batched INSERT statements instead of one
+ * round trip per order and item. A failing chunk only fails its own orders.
+ */
+@Service
+public class BulkOrderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkOrderService.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRevenueAggregator orderRevenueAggregator;
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${order.bulk.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${order.bulk.max-orders:5000}")
+    private int maxOrdersPerRequest;
+
+    /**
+     * Create a batch of orders.
+     *
+     * @param orders the orders to create
+     * @return one result per input order, in input order
+     */
+    public List<BulkOrderResult> createOrders(List<Order> orders) {
+        long start = System.currentTimeMillis();
+        BulkOrderResult[] results = new BulkOrderResult[orders.size()];
+
+        List<Integer> chunk = new ArrayList<>(chunkSize);
+        for (int i = 0; i < orders.size(); i++) {
+            String problem = orderService.validateNewOrder(orders.get(i));
+            if (problem != null) {
+                results[i] = BulkOrderResult.rejected(i, problem);
+                continue;
+            }
+            chunk.add(i);
+            if (chunk.size() == chunkSize) {
+                insertChunk(orders, chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(orders, chunk, results);
+        }
+
+        logger.info("Bulk created {} orders in {} ms", orders.size(), System.currentTimeMillis() - start);
+        return Arrays.asList(results);
+    }
+
+    public int getMaxOrdersPerRequest() {
+        return maxOrdersPerRequest;
+    }
+
+    private void insertChunk(List<Order> orders, List<Integer> indexes, BulkOrderResult[] results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Order> batch = new ArrayList<>(indexes.size());
+                for (int index : indexes) {
+                    Order order = orders.get(index);
+                    orderService.prepareNewOrder(order);
+                    batch.add(order);
+                }
+                orderRepository.saveAll(batch);
+                orderRevenueAggregator.recordCreated(batch);
+                orderRollupService.recordCreated(batch);
+                entityManager.flush();
+                // Keep the persistence context from growing across chunks
+                entityManager.clear();
+            });
+            for (int index : indexes) {
+                Order order = orders.get(index);
+                results[index] = BulkOrderResult.created(index, order.getId(), order.getTotalAmount());
+            }
+        } catch (RuntimeException e) {
+            logger.error("Bulk order chunk of {} orders failed", indexes.size(), e);
+            for (int index : indexes) {
+                results[index] = BulkOrderResult.failed(index, e.getMessage());
+            }
+        }
+    }
+}
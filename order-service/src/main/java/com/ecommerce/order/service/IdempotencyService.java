@@ -0,0 +1,308 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.IdempotencyRecord;
+import com.ecommerce.order.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Executes requests carrying an Idempotency-Key at most once.
+ * <p>
+ * Completed responses are kept in a bounded, TTL'd in-memory map and in the
+ * {@code idempotency_keys} table. The record is inserted in the same
+ * transaction as the work it guards, so the response becomes durable exactly
+ * when the work commits. Concurrent duplicates on this node wait for the
+ * in-flight execution; on other nodes the primary-key insert blocks until
+ * the first transaction finishes, after which the stored response is replayed.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Duration ttl;
+    private final long waitTimeoutMs;
+    private final Map<String, StoredResponse> completed;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(@Value("${order.idempotency.max-entries:10000}") int maxEntries,
+                              @Value("${order.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${order.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.ttl = Duration.ofHours(ttlHours);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.completed = Collections.synchronizedMap(new LinkedHashMap<String, StoredResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Run an action once per idempotency key, replaying the stored response
+     * for any retry with the same key and request.
+     *
+     * @param key           the client-supplied Idempotency-Key
+     * @param request       the request body, used to detect a key reused for a different request
+     * @param successStatus the HTTP status the action responds with
+     * @param responseType  the type the action returns
+     * @param action        the work to perform; runs inside the recording transaction
+     * @return the response, and whether it was replayed
+     */
+    public <T> Result<T> execute(String key, Object request, HttpStatus successStatus,
+                                 Class<T> responseType, Supplier<T> action) {
+        if (key.trim().isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+
+        while (true) {
+            StoredResponse cached = getCompleted(key);
+            if (cached != null) {
+                return replay(cached, requestHash, responseType);
+            }
+
+            CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, mine);
+            if (running != null) {
+                StoredResponse response = await(running);
+                if (response != null) {
+                    return replay(response, requestHash, responseType);
+                }
+                // The in-flight attempt failed without recording anything; try again
+                continue;
+            }
+
+            try {
+                Execution<T> execution = executeDurably(key, requestHash, successStatus, action);
+                completed.put(key, execution.response);
+                mine.complete(execution.response);
+                if (execution.replayed) {
+                    return replay(execution.response, requestHash, responseType);
+                }
+                return new Result<>(execution.value, execution.response.status, false);
+            } catch (RuntimeException e) {
+                mine.complete(null);
+                throw e;
+            } finally {
+                inFlight.remove(key, mine);
+            }
+        }
+    }
+
+    /**
+     * Delete expired keys from the table; the in-memory map expires lazily.
+     */
+    @Scheduled(fixedDelayString = "${order.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private <T> Execution<T> executeDurably(String key, String requestHash, HttpStatus successStatus,
+                                            Supplier<T> action) {
+        try {
+            return transactionTemplate.execute(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                IdempotencyRecord existing = idempotencyRecordRepository.findById(key).orElse(null);
+                if (existing != null) {
+                    if (existing.getExpiresAt().isAfter(now)) {
+                        return Execution.replayed(toStoredResponse(existing));
+                    }
+                    idempotencyRecordRepository.delete(existing);
+                    idempotencyRecordRepository.flush();
+                }
+
+                // Blocks while another node's transaction holds the same key
+                IdempotencyRecord record;
+                try {
+                    record = idempotencyRecordRepository.saveAndFlush(
+                            new IdempotencyRecord(key, requestHash, null, null, now, now.plus(ttl)));
+                } catch (DataIntegrityViolationException e) {
+                    throw new KeyConflictException(e);
+                }
+
+                // Failures here, integrity violations included, belong to the request and propagate
+                T value = action.get();
+                record.setResponseStatus(successStatus.value());
+                record.setResponseBody(toJson(value));
+                return Execution.executed(value, toStoredResponse(record));
+            });
+        } catch (KeyConflictException e) {
+            logger.debug("Idempotency key {} was committed concurrently; replaying", key);
+            return idempotencyRecordRepository.findById(key)
+                    .map(record -> Execution.<T>replayed(toStoredResponse(record)))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                            "A request with this Idempotency-Key is in progress"));
+        }
+    }
+
+    private StoredResponse getCompleted(String key) {
+        StoredResponse response = completed.get(key);
+        if (response != null && !response.expiresAt.isAfter(LocalDateTime.now())) {
+            completed.remove(key, response);
+            return null;
+        }
+        return response;
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is in progress");
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A request with this Idempotency-Key is in progress");
+        } catch (ExecutionException e) {
+            // Never completed exceptionally; failures complete with null
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private <T> Result<T> replay(StoredResponse response, String requestHash, Class<T> responseType) {
+        if (!response.requestHash.equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key was already used for a different request");
+        }
+        try {
+            return new Result<>(objectMapper.readValue(response.body, responseType), response.status, true);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is not readable", e);
+        }
+    }
+
+    private static StoredResponse toStoredResponse(IdempotencyRecord record) {
+        return new StoredResponse(record.getRequestHash(), record.getResponseStatus(),
+                record.getResponseBody(), record.getExpiresAt());
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Could not hash request", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+    }
+
+    /**
+     * Response returned to the caller, flagged when it was replayed from a
+     * previous execution.
+     */
+    public static final class Result<T> {
+        private final T body;
+        private final int status;
+        private final boolean replayed;
+
+        Result(T body, int status, boolean replayed) {
+            this.body = body;
+            this.status = status;
+            this.replayed = replayed;
+        }
+
+        public T getBody() {
+            return body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+
+    private static final class StoredResponse {
+        final String requestHash;
+        final int status;
+        final String body;
+        final LocalDateTime expiresAt;
+
+        StoredResponse(String requestHash, int status, String body, LocalDateTime expiresAt) {
+            this.requestHash = requestHash;
+            this.status = status;
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Execution<T> {
+        final T value;
+        final StoredResponse response;
+        final boolean replayed;
+
+        private Execution(T value, StoredResponse response, boolean replayed) {
+            this.value = value;
+            this.response = response;
+            this.replayed = replayed;
+        }
+
+        static <T> Execution<T> executed(T value, StoredResponse response) {
+            return new Execution<>(value, response, false);
+        }
+
+        static <T> Execution<T> replayed(StoredResponse response) {
+            return new Execution<>(null, response, true);
+        }
+    }
+
+    /**
+     * The key's own row could not be inserted because another transaction
+     * committed it first; rolls the attempt back so it can be replayed.
+     */
+    private static final class KeyConflictException extends RuntimeException {
+        KeyConflictException(DataIntegrityViolationException cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.MaintenanceTask;
+import com.ecommerce.order.repository.MaintenanceTaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs one-off migrations over the orders table in id-ordered batches,
+ * tracking them in {@link MaintenanceTask} rows.
+ * <p>
+ * Each batch runs in its own transaction, which first locks the task's row,
+ * then does the work and advances the row's progress. Progress commits
+ * with the work, so a node that dies mid-run loses at most its current batch,
+ * and the next startup resumes from there. Nodes starting together take
+ * turns on the lock and never repeat a batch. A completed task is skipped
+ * with one primary key read.
+ */
+@Component
+public class MaintenanceTaskRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceTaskRunner.class);
+
+    @Autowired
+    private MaintenanceTaskRepository maintenanceTaskRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Run a task to completion, or return at once if it has completed.
+     *
+     * @param name        the task's name, unique across tasks
+     * @param targetId    the highest order id the task covers; read only when the task is first created
+     * @param alreadyDone whether the task has nothing to do, e.g. because an earlier release did its
+     *                    work before it was tracked; read only when the task is first created
+     * @param batch       processes one batch of orders after an id
+     */
+    public void run(String name, LongSupplier targetId, BooleanSupplier alreadyDone, Batch batch) {
+        MaintenanceTask existing = transactionTemplate.execute(status ->
+                maintenanceTaskRepository.findById(name).orElse(null));
+        if (existing != null && existing.isCompleted()) {
+            return;
+        }
+        if (existing == null) {
+            long target = targetId.getAsLong();
+            LocalDateTime now = LocalDateTime.now();
+            boolean done = target == 0 || alreadyDone.getAsBoolean();
+            transactionTemplate.executeWithoutResult(status ->
+                    maintenanceTaskRepository.createIfAbsent(name, target, done ? now : null, now));
+        } else {
+            logger.info("Resuming {} after order id {} of {}", name, existing.getLastId(), existing.getTargetId());
+        }
+
+        long start = System.currentTimeMillis();
+        boolean ranBatch = false;
+        while (true) {
+            Boolean more = transactionTemplate.execute(status -> {
+                MaintenanceTask task = maintenanceTaskRepository.lockByName(name)
+                        .orElseThrow(() -> new IllegalStateException("Maintenance task " + name + " has no row"));
+                if (task.isCompleted()) {
+                    return false;
+                }
+                long lastId = Math.min(batch.process(task.getLastId(), task.getTargetId()), task.getTargetId());
+                LocalDateTime now = LocalDateTime.now();
+                task.setLastId(lastId);
+                task.setUpdatedAt(now);
+                if (lastId >= task.getTargetId()) {
+                    task.setCompletedAt(now);
+                }
+                return true;
+            });
+            if (!Boolean.TRUE.equals(more)) {
+                break;
+            }
+            ranBatch = true;
+        }
+        if (ranBatch) {
+            logger.info("Completed {} in {} ms", name, System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * @return true if the task has run to completion, here or on another node
+     */
+    public boolean isCompleted(String name) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                maintenanceTaskRepository.findById(name).map(MaintenanceTask::isCompleted).orElse(false)));
+    }
+
+    /**
+     * One batch of a task, run in the transaction that holds the task's lock.
+     */
+    @FunctionalInterface
+    public interface Batch {
+
+        /**
+         * Process the next orders with an id above {@code afterId} and at
+         * most {@code targetId}.
+         *
+         * @return the highest id covered; {@code targetId} or more once nothing is left
+         */
+        long process(long afterId, long targetId);
+    }
+}
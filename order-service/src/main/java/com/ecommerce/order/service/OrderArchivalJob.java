@@ -0,0 +1,147 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Moves finished orders older than {@code order.archive.min-age-days} out of
+ * the database and into the {@link OrderArchiveStore}.
+ * <p>
+ * Each batch is written to a durable segment before its rows are deleted,
+ * inside one transaction. Rows are only deleted if their status is still the
+ * one that was archived; an order that moved on in the meantime stays in the
+ * database, and reads prefer the database copy over the archived one.
+ * <p>
+ * The job is off by default. Archived orders exist only in the store once
+ * their rows are deleted, so it refuses to run unless {@code order.archive.dir}
+ * is an absolute path, which should be durable storage such as a mounted
+ * volume rather than the container's own filesystem.
+ */
+@Component
+public class OrderArchivalJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchivalJob.class);
+
+    static final Set<Order.OrderStatus> ARCHIVABLE = EnumSet.of(
+            Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED, Order.OrderStatus.REFUNDED);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderArchiveStore orderArchiveStore;
+
+    @Autowired
+    private OrderReadCache orderReadCache;
+
+    @Autowired
+    private OrderRevenueAggregator orderRevenueAggregator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${order.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${order.archive.min-age-days:180}")
+    private int minAgeDays;
+
+    @Value("${order.archive.batch-size:10000}")
+    private int batchSize;
+
+    @PostConstruct
+    public void checkDirectory() {
+        if (enabled) {
+            requireDurableDirectory();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${order.archive.initial-delay-ms:300000}",
+               fixedDelayString = "${order.archive.interval-ms:86400000}")
+    public void run() {
+        if (enabled) {
+            archive(LocalDateTime.now().minusDays(minAgeDays));
+        }
+    }
+
+    /**
+     * Archive every finished order placed before {@code cutoff}.
+     *
+     * @param cutoff the order date before which orders are archived
+     * @return the number of orders removed from the database
+     */
+    public int archive(LocalDateTime cutoff) {
+        requireDurableDirectory();
+        long start = System.currentTimeMillis();
+        int total = 0;
+        int deleted;
+        AtomicBoolean skippedChanged = new AtomicBoolean();
+        // Stop on a batch that deletes nothing, so orders that keep changing cannot loop forever
+        do {
+            deleted = transactionTemplate.execute(status -> archiveBatch(cutoff, skippedChanged));
+            total += deleted;
+        } while (deleted > 0);
+        if (skippedChanged.get()) {
+            // Some groups were only partly deleted and left out of the revenue aggregates
+            orderRevenueAggregator.recompute();
+        }
+
+        if (total > 0) {
+            logger.info("Archived {} orders placed before {} in {} ms",
+                    total, cutoff, System.currentTimeMillis() - start);
+        }
+        return total;
+    }
+
+    private void requireDurableDirectory() {
+        Path directory = orderArchiveStore.getDirectory();
+        if (!directory.isAbsolute()) {
+            throw new IllegalStateException("Order archival deletes archived rows from the database and needs "
+                    + "order.archive.dir set to an absolute path on durable storage, not " + directory);
+        }
+    }
+
+    private int archiveBatch(LocalDateTime cutoff, AtomicBoolean skippedChanged) {
+        List<Long> ids = orderRepository.findArchivableIds(ARCHIVABLE, cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Order> orders = orderRepository.findDistinctByIdIn(ids);
+        orderArchiveStore.append(orders);
+
+        Map<Order.OrderStatus, List<Order>> byStatus = orders.stream()
+                .collect(Collectors.groupingBy(Order::getStatus));
+        int deleted = 0;
+        for (Map.Entry<Order.OrderStatus, List<Order>> entry : byStatus.entrySet()) {
+            List<Long> groupIds = entry.getValue().stream().map(Order::getId).collect(Collectors.toList());
+            orderRepository.deleteArchivedItems(groupIds, entry.getKey());
+            int groupDeleted = orderRepository.deleteArchived(groupIds, entry.getKey());
+            if (groupDeleted == groupIds.size()) {
+                orderRevenueAggregator.recordRemoved(entry.getValue());
+            } else {
+                skippedChanged.set(true);
+            }
+            deleted += groupDeleted;
+        }
+        ids.forEach(orderReadCache::invalidate);
+        return deleted;
+    }
+}
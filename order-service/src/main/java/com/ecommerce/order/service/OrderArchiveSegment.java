@@ -0,0 +1,541 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.Money;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.export.BinaryCodec;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import static com.ecommerce.order.export.BinaryCodec.readSignedVarLong;
+import static com.ecommerce.order.export.BinaryCodec.readString;
+import static com.ecommerce.order.export.BinaryCodec.readVarLong;
+import static com.ecommerce.order.export.BinaryCodec.skipString;
+import static com.ecommerce.order.export.BinaryCodec.writeSignedVarLong;
+import static com.ecommerce.order.export.BinaryCodec.writeString;
+import static com.ecommerce.order.export.BinaryCodec.writeVarLong;
+
+/**
+ * One immutable file of archived orders.
+ * <p>
+ * Orders are sorted by user, newest first, and cut into row groups. Each row
+ * group stores every order field as its own column, followed by the item
+ * columns, and is deflate-compressed on its own so a lookup only inflates the
+ * groups holding the requested user. The footer lists the row groups and a
+ * per-user index of (row group, first row, row count) ranges, each with the
+ * (orderDate, id) keys of its newest and oldest order, so a history page can
+ * skip ranges outside its window. The id index lists every order by id with
+ * fixed-width entries, so one order is found by binary search on disk.
+ * <pre>
+ * MAGIC VERSION | row group... | id index | footer | footer offset (8 bytes) MAGIC
+ * id index entry: id (8 bytes) row group (4 bytes) row (4 bytes)
+ * </pre>
+ * Integers and strings are encoded with {@link BinaryCodec}; ids and user
+ * ids are delta encoded within a row group; amounts are minor units;
+ * timestamps are epoch microseconds.
+ */
+final class OrderArchiveSegment implements Closeable {
+
+    private static final int MAGIC = 0x4F415243; // "OARC"
+    private static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = Integer.BYTES + 1;
+    private static final int TRAILER_LENGTH = Long.BYTES + Integer.BYTES;
+    private static final int ID_ENTRY_LENGTH = Long.BYTES + 2 * Integer.BYTES;
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long[] groupOffsets;
+    private final int[] groupLengths;
+    private final List<UserRange> userRanges;
+    private final long idIndexOffset;
+    private final int idIndexLength;
+
+    private OrderArchiveSegment(Path path, FileChannel channel, long[] groupOffsets, int[] groupLengths,
+                                List<UserRange> userRanges, long idIndexOffset, int idIndexLength) {
+        this.path = path;
+        this.channel = channel;
+        this.groupOffsets = groupOffsets;
+        this.groupLengths = groupLengths;
+        this.userRanges = userRanges;
+        this.idIndexOffset = idIndexOffset;
+        this.idIndexLength = idIndexLength;
+    }
+
+    /**
+     * Write orders to a new segment file and force it to disk.
+     *
+     * @param target       the file to create
+     * @param orders       orders with items loaded, sorted by user and then newest first
+     * @param rowGroupSize orders per row group
+     */
+    static void write(Path target, List<Order> orders, int rowGroupSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            OutputStream out = new BufferedOutputStream(java.nio.channels.Channels.newOutputStream(channel), 1 << 16);
+            DataOutputStream data = new DataOutputStream(out);
+            data.writeInt(MAGIC);
+            data.writeByte(VERSION);
+
+            int groupCount = (orders.size() + rowGroupSize - 1) / rowGroupSize;
+            long[] offsets = new long[groupCount];
+            int[] lengths = new int[groupCount];
+            ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+            DataOutputStream footer = new DataOutputStream(footerBytes);
+            List<UserRange> ranges = new ArrayList<>();
+            long[] idEntries = new long[orders.size()];
+
+            for (int group = 0; group < groupCount; group++) {
+                List<Order> rows = orders.subList(group * rowGroupSize, Math.min(orders.size(), (group + 1) * rowGroupSize));
+                byte[] compressed = deflate(encodeGroup(rows));
+                offsets[group] = data.size();
+                lengths[group] = compressed.length;
+                data.write(compressed);
+
+                int start = 0;
+                for (int row = 1; row <= rows.size(); row++) {
+                    if (row == rows.size() || !rows.get(row).getUserId().equals(rows.get(start).getUserId())) {
+                        Order newest = rows.get(start);
+                        Order oldest = rows.get(row - 1);
+                        ranges.add(new UserRange(newest.getUserId(), group, start, row - start,
+                                newest.getOrderDate(), newest.getId(), oldest.getOrderDate(), oldest.getId()));
+                        start = row;
+                    }
+                }
+            }
+
+            // Sort (id, position) pairs by id; the position is group * rowGroupSize + row
+            Integer[] byId = new Integer[orders.size()];
+            for (int i = 0; i < byId.length; i++) {
+                byId[i] = i;
+                idEntries[i] = orders.get(i).getId();
+            }
+            Arrays.sort(byId, (a, b) -> Long.compare(idEntries[a], idEntries[b]));
+            long idIndexOffset = data.size();
+            for (int position : byId) {
+                data.writeLong(idEntries[position]);
+                data.writeInt(position / rowGroupSize);
+                data.writeInt(position % rowGroupSize);
+            }
+
+            writeVarLong(footer, groupCount);
+            for (int group = 0; group < groupCount; group++) {
+                writeVarLong(footer, offsets[group]);
+                writeVarLong(footer, lengths[group]);
+            }
+            writeVarLong(footer, ranges.size());
+            for (UserRange range : ranges) {
+                writeVarLong(footer, range.userId);
+                writeVarLong(footer, range.rowGroup);
+                writeVarLong(footer, range.start);
+                writeVarLong(footer, range.count);
+                writeTimestamp(footer, range.newestDate);
+                writeVarLong(footer, range.newestId);
+                writeTimestamp(footer, range.oldestDate);
+                writeVarLong(footer, range.oldestId);
+            }
+            writeVarLong(footer, idIndexOffset);
+            writeVarLong(footer, orders.size());
+            long footerOffset = data.size();
+            footerBytes.writeTo(data);
+            data.writeLong(footerOffset);
+            data.writeInt(MAGIC);
+            data.flush();
+            channel.force(true);
+        }
+    }
+
+    static OrderArchiveSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer header = readFully(channel, 0, HEADER_LENGTH);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not an order archive segment: " + path);
+            }
+            byte version = header.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported order archive segment version " + version + ": " + path);
+            }
+            ByteBuffer trailer = readFully(channel, size - TRAILER_LENGTH, TRAILER_LENGTH);
+            long footerOffset = trailer.getLong();
+            if (trailer.getInt() != MAGIC) {
+                throw new IOException("Not an order archive segment: " + path);
+            }
+            ByteBuffer footer = readFully(channel, footerOffset, (int) (size - TRAILER_LENGTH - footerOffset));
+
+            int groupCount = (int) readVarLong(footer);
+            long[] offsets = new long[groupCount];
+            int[] lengths = new int[groupCount];
+            for (int group = 0; group < groupCount; group++) {
+                offsets[group] = readVarLong(footer);
+                lengths[group] = (int) readVarLong(footer);
+            }
+            int rangeCount = (int) readVarLong(footer);
+            List<UserRange> ranges = new ArrayList<>(rangeCount);
+            for (int i = 0; i < rangeCount; i++) {
+                long userId = readVarLong(footer);
+                int rowGroup = (int) readVarLong(footer);
+                int start = (int) readVarLong(footer);
+                int count = (int) readVarLong(footer);
+                ranges.add(new UserRange(userId, rowGroup, start, count, readTimestamp(footer), readVarLong(footer),
+                        readTimestamp(footer), readVarLong(footer)));
+            }
+            long idIndexOffset = readVarLong(footer);
+            int idIndexLength = (int) readVarLong(footer);
+            return new OrderArchiveSegment(path, channel, offsets, lengths, Collections.unmodifiableList(ranges),
+                    idIndexOffset, idIndexLength);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    List<UserRange> getUserRanges() {
+        return userRanges;
+    }
+
+    /**
+     * Decode a range of rows from one row group.
+     */
+    List<Order> read(UserRange range) throws IOException {
+        return decodeGroup(ByteBuffer.wrap(inflateGroup(range.rowGroup)), range.start, range.count);
+    }
+
+    /**
+     * Find one order by id: a binary search of the id index, then one row
+     * group inflated.
+     *
+     * @return the order, or null if this segment does not hold it
+     */
+    Order readById(long id) throws IOException {
+        int low = 0;
+        int high = idIndexLength - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            ByteBuffer entry = readFully(channel, idIndexOffset + (long) mid * ID_ENTRY_LENGTH, ID_ENTRY_LENGTH);
+            long midId = entry.getLong();
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                int rowGroup = entry.getInt();
+                int row = entry.getInt();
+                return decodeGroup(ByteBuffer.wrap(inflateGroup(rowGroup)), row, 1).get(0);
+            }
+        }
+        return null;
+    }
+
+    private byte[] inflateGroup(int rowGroup) throws IOException {
+        return inflate(readFully(channel, groupOffsets[rowGroup], groupLengths[rowGroup]).array());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static byte[] encodeGroup(List<Order> rows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeVarLong(out, rows.size());
+
+        long previous = 0;
+        for (Order order : rows) {
+            writeSignedVarLong(out, order.getId() - previous);
+            previous = order.getId();
+        }
+        previous = 0;
+        for (Order order : rows) {
+            writeSignedVarLong(out, order.getUserId() - previous);
+            previous = order.getUserId();
+        }
+        for (Order order : rows) {
+            out.writeByte(order.getStatus().ordinal());
+        }
+        for (Order order : rows) {
+            writeSignedVarLong(out, Money.toMinorUnits(order.getTotalAmount()));
+        }
+        for (Order order : rows) {
+            writeTimestamp(out, order.getOrderDate());
+        }
+        for (Order order : rows) {
+            writeTimestamp(out, order.getUpdatedAt());
+        }
+        for (Order order : rows) {
+            writeString(out, order.getPaymentMethod());
+        }
+        for (Order order : rows) {
+            writeString(out, order.getShippingAddress());
+        }
+        for (Order order : rows) {
+            writeVarLong(out, order.getItems().size());
+        }
+
+        List<OrderItem> items = new ArrayList<>();
+        rows.forEach(order -> items.addAll(order.getItems()));
+        previous = 0;
+        for (OrderItem item : items) {
+            writeSignedVarLong(out, item.getId() - previous);
+            previous = item.getId();
+        }
+        for (OrderItem item : items) {
+            writeVarLong(out, item.getProductId());
+        }
+        for (OrderItem item : items) {
+            writeString(out, item.getProductName());
+        }
+        for (OrderItem item : items) {
+            writeVarLong(out, item.getQuantity());
+        }
+        for (OrderItem item : items) {
+            writeSignedVarLong(out, Money.toMinorUnits(item.getUnitPrice()));
+        }
+        for (OrderItem item : items) {
+            writeSignedVarLong(out, Money.toMinorUnits(item.getSubtotal()));
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode rows {@code [start, start + count)} of a row group. Every column
+     * is scanned to reach the next one, but only the requested rows are
+     * turned into objects.
+     */
+    private static List<Order> decodeGroup(ByteBuffer in, int start, int count) throws IOException {
+        int rows = (int) readVarLong(in);
+        int end = start + count;
+        Order[] orders = new Order[count];
+        for (int i = 0; i < count; i++) {
+            orders[i] = new Order();
+        }
+
+        long previous = 0;
+        for (int row = 0; row < rows; row++) {
+            previous += readSignedVarLong(in);
+            if (row >= start && row < end) {
+                orders[row - start].setId(previous);
+            }
+        }
+        previous = 0;
+        for (int row = 0; row < rows; row++) {
+            previous += readSignedVarLong(in);
+            if (row >= start && row < end) {
+                orders[row - start].setUserId(previous);
+            }
+        }
+        skip(in, start);
+        for (Order order : orders) {
+            order.setStatus(STATUSES[in.get()]);
+        }
+        skip(in, rows - end);
+        skipVarLongs(in, start);
+        for (Order order : orders) {
+            order.setTotalAmount(Money.toBigDecimal(readSignedVarLong(in)));
+        }
+        skipVarLongs(in, rows - end + start);
+        for (Order order : orders) {
+            order.setOrderDate(readTimestamp(in));
+        }
+        skipVarLongs(in, rows - end + start);
+        for (Order order : orders) {
+            order.setUpdatedAt(readTimestamp(in));
+        }
+        skipVarLongs(in, rows - end);
+        skipStrings(in, start);
+        for (Order order : orders) {
+            order.setPaymentMethod(readString(in));
+        }
+        skipStrings(in, rows - end + start);
+        for (Order order : orders) {
+            order.setShippingAddress(readString(in));
+        }
+        skipStrings(in, rows - end);
+
+        // Items are stored in row order, so the requested rows own one contiguous run of them
+        int itemsBefore = 0;
+        int itemsInRange = 0;
+        int totalItems = 0;
+        int[] itemCounts = new int[count];
+        for (int row = 0; row < rows; row++) {
+            int items = (int) readVarLong(in);
+            if (row < start) {
+                itemsBefore += items;
+            } else if (row < end) {
+                itemCounts[row - start] = items;
+                orders[row - start].setItemCount(items);
+                itemsInRange += items;
+            }
+            totalItems += items;
+        }
+        int itemsAfter = totalItems - itemsBefore - itemsInRange;
+
+        OrderItem[] items = new OrderItem[itemsInRange];
+        int next = 0;
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < itemCounts[i]; j++) {
+                OrderItem item = new OrderItem();
+                item.setOrder(orders[i]);
+                orders[i].getItems().add(item);
+                items[next++] = item;
+            }
+        }
+        previous = 0;
+        for (int i = 0; i < totalItems; i++) {
+            previous += readSignedVarLong(in);
+            if (i >= itemsBefore && i < itemsBefore + itemsInRange) {
+                items[i - itemsBefore].setId(previous);
+            }
+        }
+        skipVarLongs(in, itemsBefore);
+        for (OrderItem item : items) {
+            item.setProductId(readVarLong(in));
+        }
+        skipVarLongs(in, itemsAfter);
+        skipStrings(in, itemsBefore);
+        for (OrderItem item : items) {
+            item.setProductName(readString(in));
+        }
+        skipStrings(in, itemsAfter);
+        skipVarLongs(in, itemsBefore);
+        for (OrderItem item : items) {
+            item.setQuantity((int) readVarLong(in));
+        }
+        skipVarLongs(in, itemsAfter + itemsBefore);
+        for (OrderItem item : items) {
+            item.setUnitPrice(Money.toBigDecimal(readSignedVarLong(in)));
+        }
+        skipVarLongs(in, itemsAfter + itemsBefore);
+        for (OrderItem item : items) {
+            item.setSubtotal(Money.toBigDecimal(readSignedVarLong(in)));
+        }
+        return List.of(orders);
+    }
+
+    private static void skipVarLongs(ByteBuffer in, int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            readVarLong(in);
+        }
+    }
+
+    private static void skip(ByteBuffer in, int n) {
+        in.position(in.position() + n);
+    }
+
+    private static void skipStrings(ByteBuffer in, int n) throws IOException {
+        for (int i = 0; i < n; i++) {
+            skipString(in);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+            DataOutputStream header = new DataOutputStream(out);
+            writeVarLong(header, raw.length);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed) throws IOException {
+        ByteBuffer header = ByteBuffer.wrap(compressed);
+        int rawLength = (int) readVarLong(header);
+        int headerLength = header.position();
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed, headerLength, compressed.length - headerLength);
+            byte[] raw = new byte[rawLength];
+            int filled = 0;
+            while (filled < rawLength) {
+                int n = inflater.inflate(raw, filled, rawLength - filled);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Truncated archive row group");
+                }
+                filled += n;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt archive row group", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of archive segment");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeTimestamp(DataOutputStream out, LocalDateTime value) throws IOException {
+        // 0 marks null; otherwise microseconds since the epoch plus one, zig-zag encoded
+        writeSignedVarLong(out, value == null ? 0
+                : ChronoUnit.MICROS.between(LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC), value) + 1);
+    }
+
+    private static LocalDateTime readTimestamp(ByteBuffer in) throws IOException {
+        long micros = readSignedVarLong(in);
+        return micros == 0 ? null : LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC).plus(micros - 1, ChronoUnit.MICROS);
+    }
+
+    /**
+     * Consecutive rows of one user within a row group, with the keys of the
+     * first (newest) and last (oldest) of them.
+     */
+    static final class UserRange {
+        final long userId;
+        final int rowGroup;
+        final int start;
+        final int count;
+        final LocalDateTime newestDate;
+        final long newestId;
+        final LocalDateTime oldestDate;
+        final long oldestId;
+
+        UserRange(long userId, int rowGroup, int start, int count,
+                  LocalDateTime newestDate, long newestId, LocalDateTime oldestDate, long oldestId) {
+            this.userId = userId;
+            this.rowGroup = rowGroup;
+            this.start = start;
+            this.count = count;
+            this.newestDate = newestDate;
+            this.newestId = newestId;
+            this.oldestDate = oldestDate;
+            this.oldestId = oldestId;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Append-only local store for archived orders.
+ * <p>
+ * Each archival run adds one immutable {@link OrderArchiveSegment}; segments
+ * are written to a temporary file, forced to disk and renamed into place, so
+ * a segment is either complete or absent. The per-user ranges from every
+ * segment footer are kept in memory, so finding a user's archived orders only
+ * reads the row groups that hold them, and a history page only reads the
+ * ranges that can reach its window.
+ * <p>
+ * An order may be archived more than once if a run fails after writing its
+ * segment; the copy in the newest segment wins.
+ */
+@Component
+public class OrderArchiveStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiveStore.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".oarc";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /** Newest first, with id as the tie-breaker, matching the history cursor. */
+    static final Comparator<Order> NEWEST_FIRST = Comparator
+            .comparing(Order::getOrderDate, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Order::getId, Comparator.reverseOrder());
+
+    private final Path directory;
+    private final int rowGroupSize;
+    private final List<OrderArchiveSegment> segments = new CopyOnWriteArrayList<>();
+    private final Map<Long, List<Location>> userIndex = new ConcurrentHashMap<>();
+    private int nextSegment;
+
+    public OrderArchiveStore(@Value("${order.archive.dir:data/order-archive}") String directory,
+                             @Value("${order.archive.row-group-size:256}") int rowGroupSize) {
+        this.directory = Paths.get(directory);
+        this.rowGroupSize = rowGroupSize;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    // Left behind by a run that died before its rename
+                    Files.deleteIfExists(file);
+                } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(Comparator.naturalOrder());
+        for (Path file : files) {
+            addSegment(OrderArchiveSegment.open(file));
+            nextSegment = Math.max(nextSegment, segmentNumber(file) + 1);
+        }
+        logger.info("Opened order archive at {} with {} segments covering {} users",
+                directory.toAbsolutePath(), segments.size(), userIndex.size());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (OrderArchiveSegment segment : segments) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close archive segment {}", segment.getPath(), e);
+            }
+        }
+        segments.clear();
+        userIndex.clear();
+    }
+
+    /**
+     * Write orders to a new segment. The segment is durable when this returns.
+     *
+     * @param orders orders with their items loaded
+     */
+    public synchronized void append(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Order> sorted = new ArrayList<>(orders);
+        sorted.sort(Comparator.comparing(Order::getUserId).thenComparing(NEWEST_FIRST));
+
+        Path target = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, nextSegment, SEGMENT_SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + TEMP_SUFFIX);
+        try {
+            OrderArchiveSegment.write(temp, sorted, rowGroupSize);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            nextSegment++;
+            addSegment(OrderArchiveSegment.open(target));
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new UncheckedIOException("Failed to write archive segment " + target, e);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public boolean hasOrders(Long userId) {
+        return userIndex.containsKey(userId);
+    }
+
+    /**
+     * Get every archived order of a user, newest first, with items loaded.
+     * The returned orders are detached copies.
+     *
+     * @param userId the user ID
+     * @return the archived orders; empty if the user has none
+     */
+    public List<Order> findByUserId(Long userId) {
+        List<Location> locations = userIndex.get(userId);
+        if (locations == null) {
+            return List.of();
+        }
+        // Locations are in segment order, so a later copy of an order replaces an earlier one
+        Map<Long, Order> byId = new LinkedHashMap<>();
+        try {
+            for (Location location : locations) {
+                for (Order order : location.segment.read(location.range)) {
+                    byId.put(order.getId(), order);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archived orders of user " + userId, e);
+        }
+        List<Order> orders = new ArrayList<>(byId.values());
+        orders.sort(NEWEST_FIRST);
+        return orders;
+    }
+
+    /**
+     * Get the first {@code limit} archived orders of a user that sort after
+     * the cursor position, newest first, with items loaded. Ranges wholly at
+     * or before the cursor are skipped, and ranges are read newest first
+     * until none left can reach the first {@code limit} orders found.
+     *
+     * @param userId     the user ID
+     * @param beforeDate the order date of the cursor, or null for the first page
+     * @param beforeId   the order ID of the cursor
+     * @param limit      the maximum number of orders
+     * @return the archived orders; empty if the user has none
+     */
+    public List<Order> findByUserIdBefore(Long userId, LocalDateTime beforeDate, Long beforeId, int limit) {
+        List<Location> locations = userIndex.get(userId);
+        if (locations == null) {
+            return List.of();
+        }
+        List<Location> candidates = new ArrayList<>(locations.size());
+        for (Location location : locations) {
+            OrderArchiveSegment.UserRange range = location.range;
+            if (beforeDate == null
+                    || compareKeys(range.oldestDate, range.oldestId, beforeDate, beforeId) > 0) {
+                candidates.add(location);
+            }
+        }
+        candidates.sort((a, b) -> compareKeys(a.range.newestDate, a.range.newestId,
+                b.range.newestDate, b.range.newestId));
+
+        Map<Long, Order> byId = new HashMap<>();
+        Map<Long, Integer> foundIn = new HashMap<>();
+        try {
+            for (Location location : candidates) {
+                OrderArchiveSegment.UserRange range = location.range;
+                if (byId.size() >= limit) {
+                    Order last = sortedNewestFirst(byId).get(limit - 1);
+                    if (compareKeys(range.newestDate, range.newestId, last.getOrderDate(), last.getId()) > 0) {
+                        break;
+                    }
+                }
+                for (Order order : location.segment.read(range)) {
+                    if (beforeDate != null && compareKeys(order.getOrderDate(), order.getId(), beforeDate, beforeId) <= 0) {
+                        continue;
+                    }
+                    // The copy in the newest segment wins; every copy has the same key
+                    Integer previous = foundIn.get(order.getId());
+                    if (previous == null || previous < location.sequence) {
+                        byId.put(order.getId(), order);
+                        foundIn.put(order.getId(), location.sequence);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archived orders of user " + userId, e);
+        }
+        List<Order> orders = sortedNewestFirst(byId);
+        return orders.size() > limit ? List.copyOf(orders.subList(0, limit)) : orders;
+    }
+
+    /**
+     * Find one archived order by id, with items loaded, searching the newest
+     * segment first. The returned order is a detached copy.
+     *
+     * @param id the order ID
+     * @return the order, or empty if it is not archived
+     */
+    public Optional<Order> findById(Long id) {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            OrderArchiveSegment segment = segments.get(i);
+            try {
+                Order order = segment.readById(id);
+                if (order != null) {
+                    return Optional.of(order);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read archived order " + id + " from " + segment.getPath(), e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static List<Order> sortedNewestFirst(Map<Long, Order> byId) {
+        List<Order> orders = new ArrayList<>(byId.values());
+        orders.sort(NEWEST_FIRST);
+        return orders;
+    }
+
+    /**
+     * Compare two (orderDate, id) keys in {@link #NEWEST_FIRST} order.
+     */
+    private static int compareKeys(LocalDateTime date, long id, LocalDateTime otherDate, long otherId) {
+        if (date == null || otherDate == null) {
+            if (date != otherDate) {
+                return date == null ? 1 : -1;
+            }
+        } else if (!date.isEqual(otherDate)) {
+            return otherDate.compareTo(date);
+        }
+        return Long.compare(otherId, id);
+    }
+
+    private void addSegment(OrderArchiveSegment segment) {
+        int sequence = segments.size();
+        segments.add(segment);
+        for (OrderArchiveSegment.UserRange range : segment.getUserRanges()) {
+            Location location = new Location(segment, range, sequence);
+            userIndex.merge(range.userId, List.of(location), (existing, added) -> {
+                List<Location> merged = new ArrayList<>(existing.size() + 1);
+                merged.addAll(existing);
+                merged.addAll(added);
+                return List.copyOf(merged);
+            });
+        }
+    }
+
+    private static int segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Location {
+        final OrderArchiveSegment segment;
+        final OrderArchiveSegment.UserRange range;
+        /** Position of the segment in write order; a higher one holds the newer copy of an order. */
+        final int sequence;
+
+        Location(OrderArchiveSegment segment, OrderArchiveSegment.UserRange range, int sequence) {
+            this.segment = segment;
+            this.range = range;
+            this.sequence = sequence;
+        }
+    }
+}
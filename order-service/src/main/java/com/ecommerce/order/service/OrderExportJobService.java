@@ -0,0 +1,334 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.ExportJobStatus;
+import com.ecommerce.order.dto.ExportJobStatus.State;
+import com.ecommerce.order.dto.OrderExportFilter;
+import com.ecommerce.order.dto.OrderExportFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs order exports in the background and keeps their output in spool files
+ * under {@code order.export.jobs.dir}, so a client can poll a job's progress
+ * and download the finished file, resuming with HTTP Range requests, instead
+ * of holding a request open for the whole export.
+ * <p>
+ * At most {@code max-concurrent} exports run at once, each holding one
+ * database connection; up to {@code queue-capacity} more wait their turn and
+ * further submissions are refused. A job writes to a {@code .part} file that
+ * is renamed into place when it completes, so a downloadable file is always
+ * whole. Finished jobs and their files are removed once they are older than
+ * {@code retention-minutes}.
+ * <p>
+ * Jobs are tracked in memory: they belong to the node that accepted them and
+ * do not survive a restart, which deletes any spool files left behind; other
+ * files in the directory are left alone.
+ */
+@Service
+public class OrderExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExportJobService.class);
+
+    private static final String PART_SUFFIX = ".part";
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    private final Path directory;
+    private final int maxConcurrent;
+    private final int queueCapacity;
+    private final Duration retention;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    public OrderExportJobService(@Value("${order.export.jobs.dir:data/export-jobs}") String directory,
+                                 @Value("${order.export.jobs.max-concurrent:2}") int maxConcurrent,
+                                 @Value("${order.export.jobs.queue-capacity:20}") int queueCapacity,
+                                 @Value("${order.export.jobs.retention-minutes:1440}") long retentionMinutes) {
+        this.directory = Paths.get(directory);
+        this.maxConcurrent = maxConcurrent;
+        this.queueCapacity = queueCapacity;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        int removed = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                // Jobs live in memory, so nothing can reach a file from an earlier run.
+                // Only names this service creates: the directory may be shared.
+                if (Files.isRegularFile(file) && isSpoolFile(file.getFileName().toString())) {
+                    Files.deleteIfExists(file);
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) {
+            logger.info("Removed {} export spool files left from a previous run", removed);
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "order-export-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * @return whether {@code name} is a job file, {@code <uuid>.<extension>},
+     *         or its {@code .part} file
+     */
+    static boolean isSpoolFile(String name) {
+        if (name.endsWith(PART_SUFFIX)) {
+            name = name.substring(0, name.length() - PART_SUFFIX.length());
+        }
+        int dot = name.lastIndexOf('.');
+        if (dot < 0) {
+            return false;
+        }
+        String extension = name.substring(dot + 1);
+        if (Arrays.stream(OrderExportFormat.values()).noneMatch(f -> f.getExtension().equals(extension))) {
+            return false;
+        }
+        String id = name.substring(0, dot);
+        try {
+            return UUID.fromString(id).toString().equals(id);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue an export.
+     *
+     * @return the new job's status
+     * @throws ResponseStatusException 503 if the export queue is full
+     */
+    public ExportJobStatus submit(OrderExportFilter filter, OrderExportFormat format) {
+        Job job = new Job(UUID.randomUUID().toString(), filter, format);
+        jobs.put(job.id, job);
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Export queue is full");
+        }
+        logger.info("Queued export job {} ({}, {})", job.id, format, filter);
+        return job.status();
+    }
+
+    /**
+     * @return the job's status, or null if it is unknown or has expired
+     */
+    public ExportJobStatus getStatus(String jobId) {
+        Job job = jobs.get(jobId);
+        return job != null ? job.status() : null;
+    }
+
+    /**
+     * @return the finished export file, or null unless the job has completed
+     */
+    public Path getFile(String jobId) {
+        Job job = jobs.get(jobId);
+        return job != null && job.state == State.COMPLETED ? job.file : null;
+    }
+
+    /**
+     * Stop a job if it is still queued or running, and delete it with its file.
+     *
+     * @return false if the job is unknown
+     */
+    public boolean cancel(String jobId) {
+        Job job = jobs.remove(jobId);
+        if (job == null) {
+            return false;
+        }
+        job.cancelled = true;
+        if (job.future != null) {
+            job.future.cancel(false);
+        }
+        deleteFiles(job);
+        return true;
+    }
+
+    /**
+     * Remove finished jobs past their retention, and their files.
+     *
+     * @return the number of jobs removed
+     */
+    @Scheduled(initialDelayString = "${order.export.jobs.cleanup-interval-ms:300000}",
+               fixedDelayString = "${order.export.jobs.cleanup-interval-ms:300000}")
+    public int cleanUp() {
+        LocalDateTime now = LocalDateTime.now();
+        int removed = 0;
+        for (Job job : jobs.values()) {
+            LocalDateTime expiresAt = job.expiresAt;
+            if (expiresAt != null && expiresAt.isBefore(now) && jobs.remove(job.id, job)) {
+                deleteFiles(job);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            logger.info("Removed {} expired export jobs", removed);
+        }
+        return removed;
+    }
+
+    private void run(Job job) {
+        if (job.cancelled) {
+            return;
+        }
+        job.state = State.RUNNING;
+        long start = System.currentTimeMillis();
+        try {
+            job.totalRows = orderExportService.countOrders(job.filter);
+            try (CountingOutputStream out = new CountingOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(job.partFile), 1 << 16), job)) {
+                job.rowsWritten = orderExportService.exportOrders(job.filter, job.format, out, rows -> {
+                    if (job.cancelled || Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException("Export job " + job.id + " was cancelled");
+                    }
+                    job.rowsWritten = rows;
+                });
+            }
+            Files.move(job.partFile, job.file, StandardCopyOption.ATOMIC_MOVE);
+            job.finish(State.COMPLETED, null);
+            logger.info("Export job {} wrote {} orders, {} bytes in {} ms",
+                    job.id, job.rowsWritten, job.bytesWritten, System.currentTimeMillis() - start);
+        } catch (CancellationException e) {
+            deleteFiles(job);
+        } catch (Exception e) {
+            logger.error("Export job {} failed", job.id, e);
+            deleteFiles(job);
+            job.finish(State.FAILED, e.getMessage());
+        }
+        if (job.cancelled) {
+            // Cancelled while the rename was in flight
+            deleteFiles(job);
+        }
+    }
+
+    private void deleteFiles(Job job) {
+        try {
+            Files.deleteIfExists(job.partFile);
+            Files.deleteIfExists(job.file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete spool files of export job {}", job.id, e);
+        }
+    }
+
+    private final class Job {
+        final String id;
+        final OrderExportFilter filter;
+        final OrderExportFormat format;
+        final Path partFile;
+        final Path file;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        volatile State state = State.QUEUED;
+        volatile long rowsWritten;
+        volatile Long totalRows;
+        volatile long bytesWritten;
+        volatile String message;
+        volatile LocalDateTime completedAt;
+        volatile LocalDateTime expiresAt;
+        volatile boolean cancelled;
+        volatile Future<?> future;
+
+        Job(String id, OrderExportFilter filter, OrderExportFormat format) {
+            this.id = id;
+            this.filter = filter;
+            this.format = format;
+            this.file = directory.resolve(id + "." + format.getExtension());
+            this.partFile = directory.resolve(file.getFileName() + PART_SUFFIX);
+        }
+
+        void finish(State finalState, String finalMessage) {
+            message = finalMessage;
+            completedAt = LocalDateTime.now();
+            expiresAt = completedAt.plus(retention);
+            state = finalState;
+        }
+
+        ExportJobStatus status() {
+            ExportJobStatus status = new ExportJobStatus();
+            status.setJobId(id);
+            status.setState(state);
+            status.setFormat(format);
+            status.setFilter(filter);
+            status.setRowsWritten(rowsWritten);
+            status.setTotalRows(totalRows);
+            status.setBytesWritten(bytesWritten);
+            status.setMessage(message);
+            status.setCreatedAt(createdAt);
+            status.setCompletedAt(completedAt);
+            status.setExpiresAt(expiresAt);
+            return status;
+        }
+    }
+
+    /**
+     * Publishes the bytes written so far to the job's status.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private final Job job;
+        private long count;
+
+        CountingOutputStream(OutputStream out, Job job) {
+            super(out);
+            this.job = job;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            job.bytesWritten = ++count;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+            job.bytesWritten = count;
+        }
+    }
+}
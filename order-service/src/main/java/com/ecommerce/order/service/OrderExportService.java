@@ -1,22 +1,58 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.order.dto.OrderExportFilter;
+import com.ecommerce.order.dto.OrderExportFormat;
+import com.ecommerce.order.dto.OrderLine;
+import com.ecommerce.order.entity.Money;
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.export.OrderColumnarFormat;
+import com.ecommerce.order.export.OrderColumnarWriter;
+import com.ecommerce.order.export.OrderCsvWriter;
+import com.ecommerce.order.export.OrderLineCsvWriter;
 import com.ecommerce.order.repository.OrderRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.math.BigDecimal;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * Service for exporting order data to CSV format.
@@ -26,48 +62,195 @@ import java.util.stream.Collectors;
 public class OrderExportService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderExportService.class);
-    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final String CSV_HEADER =
-            "OrderID,UserID,Status,TotalAmount,PaymentMethod,ShippingAddress,OrderDate,ItemCount";
 
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderRevenueAggregator orderRevenueAggregator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${order.export.clear-interval:500}")
+    private int clearInterval;
+
+    @Value("${order.export.lines.batch-size:1000}")
+    private int lineBatchSize;
+
+    @Value("${order.export.columnar.block-rows:4096}")
+    private int columnarBlockRows;
+
+    @Value("${order.export.parallel.threads:4}")
+    private int parallelThreads;
+
+    @Value("${order.export.parallel.chunk-size:20000}")
+    private long parallelChunkSize;
+
+    @Value("${order.export.parallel.compression-level:" + Deflater.DEFAULT_COMPRESSION + "}")
+    private int compressionLevel;
+
+    private ExecutorService exportPool;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        // Shared by all exports; the thread count also caps the database connections they hold
+        AtomicInteger counter = new AtomicInteger();
+        exportPool = Executors.newFixedThreadPool(parallelThreads, runnable -> {
+            Thread thread = new Thread(runnable, "order-export-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        exportPool.shutdownNow();
+    }
+
     /**
      * Export all orders to CSV format.
      *
-     * @return byte array containing the CSV data
+     * @param out the stream to write the CSV to; not closed
+     */
+    @Transactional(readOnly = true)
+    public void exportAllOrders(OutputStream out) throws IOException {
+        try (Stream<Order> orders = orderRepository.streamAll()) {
+            long rows = writeCSV(orders, out);
+            logger.info("Exported {} orders to CSV", rows);
+        }
+    }
+
+    /**
+     * Export all orders as gzip-compressed CSV, encoding and compressing
+     * ranges of order ids in parallel.
+     * <p>
+     * The id range is cut into chunks of {@code order.export.parallel.chunk-size}
+     * ids. Each chunk is read in its own read-only transaction on the export
+     * pool and compressed into a complete gzip member; members are written in
+     * id order, which concatenates them into one valid multi-member gzip
+     * stream with the same content as {@link #exportAllOrders}. At most two
+     * chunks per pool thread are in flight, so memory is bounded by the chunk
+     * size rather than the table size.
+     *
+     * @param out the stream to write the gzip data to; not closed
+     */
+    public void exportAllOrdersGzip(OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        OrderRepository.IdRange range = orderRepository.findIdRange();
+        if (range.getMinId() == null) {
+            out.write(exportChunk(0, 0, true).compressed);
+            return;
+        }
+
+        long maxId = range.getMaxId();
+        long next = range.getMinId();
+        long rows = 0;
+        Deque<Future<ExportChunk>> inFlight = new ArrayDeque<>();
+        try {
+            while (next <= maxId || !inFlight.isEmpty()) {
+                while (next <= maxId && inFlight.size() < parallelThreads * 2) {
+                    long fromId = next;
+                    long toId = maxId - next >= parallelChunkSize ? next + parallelChunkSize : maxId + 1;
+                    boolean header = fromId == range.getMinId();
+                    inFlight.add(exportPool.submit(() -> exportChunk(fromId, toId, header)));
+                    next = toId;
+                }
+                ExportChunk chunk = await(inFlight.poll());
+                out.write(chunk.compressed);
+                rows += chunk.rows;
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+        logger.info("Exported {} orders to gzip CSV on {} threads in {} ms",
+                rows, parallelThreads, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Export the orders matching every set filter, newest first.
+     *
+     * @param filter the filters; unset fields match everything
+     * @param out    the stream to write the CSV to; not closed
+     */
+    @Transactional(readOnly = true)
+    public void exportOrders(OrderExportFilter filter, OutputStream out) throws IOException {
+        exportOrders(filter, OrderExportFormat.CSV, out, rows -> { });
+    }
+
+    /**
+     * Export the orders matching every set filter, newest first, in the
+     * {@link OrderColumnarFormat} instead of CSV.
+     *
+     * @param filter the filters; unset fields match everything
+     * @param out    the stream to write the export to; not closed
+     */
+    @Transactional(readOnly = true)
+    public void exportOrdersColumnar(OrderExportFilter filter, OutputStream out) throws IOException {
+        exportOrders(filter, OrderExportFormat.COLUMNAR, out, rows -> { });
+    }
+
+    /**
+     * Export the orders matching every set filter in either format.
+     *
+     * @param filter   the filters; unset fields match everything
+     * @param format   the file format
+     * @param out      the stream to write the export to; not closed
+     * @param progress called with the rows written so far every
+     *                 {@code order.export.clear-interval} rows; an exception
+     *                 it throws aborts the export
+     * @return the number of orders written
+     */
+    @Transactional(readOnly = true)
+    public long exportOrders(OrderExportFilter filter, OrderExportFormat format, OutputStream out,
+                             LongConsumer progress) throws IOException {
+        try (Stream<Order> orders = streamFiltered(filter)) {
+            long rows = format == OrderExportFormat.COLUMNAR
+                    ? writeColumnar(orders, out, progress)
+                    : writeCSV(orders, out, true, progress);
+            logger.info("Exported {} orders ({}) as {}", rows, filter, format);
+            return rows;
+        }
+    }
+
+    /**
+     * Count the orders matching every set filter.
      */
-    public byte[] exportAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-        logger.info("Exporting {} orders to CSV", orders.size());
-        return generateCSV(orders);
+    @Transactional(readOnly = true)
+    public long countOrders(OrderExportFilter filter) {
+        Map<String, Object> parameters = new HashMap<>();
+        TypedQuery<Long> query = entityManager.createQuery(
+                "SELECT COUNT(o) FROM Order o" + whereClause(filter, parameters), Long.class);
+        parameters.forEach(query::setParameter);
+        return query.getSingleResult();
     }
 
     /**
      * Export orders for a specific user to CSV format.
      *
      * @param userId the user ID
-     * @return byte array containing the CSV data
+     * @param out    the stream to write the CSV to; not closed
      */
-    public byte[] exportOrdersByUser(Long userId) {
-        List<Order> orders = orderRepository.findByUserIdOrderByOrderDateDesc(userId);
-        logger.info("Exporting {} orders for user {} to CSV", orders.size(), userId);
-        return generateCSV(orders);
+    @Transactional(readOnly = true)
+    public void exportOrdersByUser(Long userId, OutputStream out) throws IOException {
+        exportOrders(new OrderExportFilter(userId, null, null, null), out);
     }
 
     /**
      * Export orders filtered by status.
      *
      * @param status the order status to filter by
-     * @return byte array containing the CSV data
+     * @param out    the stream to write the CSV to; not closed
      */
-    public byte[] exportOrdersByStatus(Order.OrderStatus status) {
-        List<Order> orders = orderRepository.findAll().stream()
-                .filter(o -> o.getStatus() == status)
-                .collect(Collectors.toList());
-        logger.info("Exporting {} orders with status {} to CSV", orders.size(), status);
-        return generateCSV(orders);
+    @Transactional(readOnly = true)
+    public void exportOrdersByStatus(Order.OrderStatus status, OutputStream out) throws IOException {
+        exportOrders(new OrderExportFilter(null, status, null, null), out);
     }
 
     /**
@@ -75,89 +258,233 @@ public class OrderExportService {
      *
      * @param startDate start of the range
      * @param endDate   end of the range
-     * @return byte array containing the CSV data
+     * @param out       the stream to write the CSV to; not closed
      */
-    public byte[] exportOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        List<Order> orders = orderRepository.findAll().stream()
-                .filter(o -> o.getOrderDate() != null
-                        && !o.getOrderDate().isBefore(startDate)
-                        && !o.getOrderDate().isAfter(endDate))
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void exportOrdersByDateRange(LocalDateTime startDate, LocalDateTime endDate, OutputStream out)
+            throws IOException {
+        exportOrders(new OrderExportFilter(null, null, startDate, endDate), out);
+    }
+
+    /**
+     * Export one row per order item, with its order's id, user, status and
+     * date, for the orders matching every set filter, in order id then item
+     * id order.
+     * <p>
+     * Lines are read as {@link OrderLine} projections of an item joined to
+     * its order, {@code order.export.lines.batch-size} at a time. Each batch
+     * continues after the last (order id, item id) written, so it starts with
+     * an index seek on the orders primary key and the items' order_id
+     * foreign key instead of an offset, and no entity is loaded, so there is
+     * nothing to lazy-load per order.
+     *
+     * @param filter the filters; unset fields match everything
+     * @param out    the stream to write the CSV to; not closed
+     * @return the number of lines written
+     */
+    @Transactional(readOnly = true)
+    public long exportOrderLines(OrderExportFilter filter, OutputStream out) throws IOException {
+        Map<String, Object> parameters = new HashMap<>();
+        String where = whereClause(filter, parameters);
+        String jpql = "SELECT new com.ecommerce.order.dto.OrderLine(o.id, o.userId, o.status, o.orderDate, "
+                + "i.id, i.productId, i.productName, i.quantity, i.unitPrice, i.subtotal) "
+                + "FROM OrderItem i JOIN i.order o"
+                + (where.isEmpty() ? " WHERE " : where + " AND ")
+                + "o.id >= :afterOrderId AND (o.id > :afterOrderId OR i.id > :afterItemId) "
+                + "ORDER BY o.id, i.id";
+        TypedQuery<OrderLine> query = entityManager.createQuery(jpql, OrderLine.class)
+                .setMaxResults(lineBatchSize);
+        parameters.forEach(query::setParameter);
 
-        logger.info("Exporting {} orders between {} and {} to CSV",
-                orders.size(), startDate.format(DATE_FMT), endDate.format(DATE_FMT));
-        return generateCSV(orders);
+        OrderLineCsvWriter writer = new OrderLineCsvWriter(out, 1 << 16);
+        writer.writeHeader();
+        long afterOrderId = Long.MIN_VALUE;
+        long afterItemId = Long.MIN_VALUE;
+        long rows = 0;
+        List<OrderLine> batch;
+        do {
+            batch = query.setParameter("afterOrderId", afterOrderId)
+                    .setParameter("afterItemId", afterItemId)
+                    .getResultList();
+            for (OrderLine line : batch) {
+                writer.write(line);
+            }
+            writer.flush();
+            rows += batch.size();
+            if (!batch.isEmpty()) {
+                OrderLine last = batch.get(batch.size() - 1);
+                afterOrderId = last.getOrderId();
+                afterItemId = last.getItemId();
+            }
+        } while (batch.size() == lineBatchSize);
+        logger.info("Exported {} order lines ({})", rows, filter);
+        return rows;
     }
 
     /**
-     * Get a revenue summary as CSV.
+     * Get a revenue summary as CSV, from the incrementally maintained
+     * aggregates rather than the orders table.
      *
      * @return byte array with revenue summary CSV
      */
     public byte[] exportRevenueSummary() {
-        List<Order> orders = orderRepository.findAll();
-
-        BigDecimal totalRevenue = orders.stream()
-                .filter(o -> o.getStatus() != Order.OrderStatus.CANCELLED
-                        && o.getStatus() != Order.OrderStatus.REFUNDED)
-                .map(Order::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        long completedCount = orders.stream()
-                .filter(o -> o.getStatus() == Order.OrderStatus.DELIVERED)
-                .count();
+        long totalOrders = orderRevenueAggregator.getOrderCount();
+        long completedCount = orderRevenueAggregator.getOrderCount(Order.OrderStatus.DELIVERED);
+        Money totalRevenue = Money.ofMinorUnits(orderRevenueAggregator.getBookedRevenueMinor());
 
         ByteArrayOutputStream out = new ByteArrayOutputStream();
         try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
             writer.println("Metric,Value");
-            writer.println("TotalOrders," + orders.size());
+            writer.println("TotalOrders," + totalOrders);
             writer.println("CompletedOrders," + completedCount);
-            writer.println("TotalRevenue," + totalRevenue.toPlainString());
+            writer.println("TotalRevenue," + totalRevenue);
             writer.flush();
         }
 
-        logger.info("Revenue summary exported: {} orders, revenue={}", orders.size(), totalRevenue);
+        logger.info("Revenue summary exported: {} orders, revenue={}", totalOrders, totalRevenue);
         return out.toByteArray();
     }
 
-    private byte[] generateCSV(List<Order> orders) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
+    /**
+     * Stream the orders matching a filter. Only the set filters become
+     * predicates, so the database can range-scan idx_orders_status_date or
+     * idx_orders_user_date rather than the whole table; both indexes end in
+     * (order_date, id) and return rows in the requested order without a sort.
+     */
+    private Stream<Order> streamFiltered(OrderExportFilter filter) {
+        Map<String, Object> parameters = new HashMap<>();
+        String where = whereClause(filter, parameters);
+        if (where.isEmpty()) {
+            return orderRepository.streamAll();
+        }
 
-        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
-            // UTF-8 BOM for Excel
-            out.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
-            writer.println(CSV_HEADER);
-
-            for (Order order : orders) {
-                int itemCount = order.getItems() != null ? order.getItems().size() : 0;
-                String line = String.join(",",
-                        String.valueOf(order.getId()),
-                        String.valueOf(order.getUserId()),
-                        order.getStatus() != null ? order.getStatus().name() : "",
-                        order.getTotalAmount() != null ? order.getTotalAmount().toPlainString() : "0",
-                        escapeCSV(order.getPaymentMethod()),
-                        escapeCSV(order.getShippingAddress()),
-                        order.getOrderDate() != null ? order.getOrderDate().format(DATE_FMT) : "",
-                        String.valueOf(itemCount)
-                );
-                writer.println(line);
+        String jpql = "SELECT o FROM Order o" + where + " ORDER BY o.orderDate DESC, o.id DESC";
+        TypedQuery<Order> query = entityManager.createQuery(jpql, Order.class)
+                .setHint(HINT_FETCH_SIZE, Integer.valueOf(OrderRepository.STREAM_FETCH_SIZE))
+                .setHint(HINT_READONLY, true);
+        parameters.forEach(query::setParameter);
+        return query.getResultStream();
+    }
+
+    /**
+     * @return a WHERE clause with a predicate per set filter, or an empty
+     *         string if none is set; the values are added to {@code parameters}
+     */
+    private static String whereClause(OrderExportFilter filter, Map<String, Object> parameters) {
+        List<String> predicates = new ArrayList<>();
+        if (filter.getUserId() != null) {
+            predicates.add("o.userId = :userId");
+            parameters.put("userId", filter.getUserId());
+        }
+        if (filter.getStatus() != null) {
+            predicates.add("o.status = :status");
+            parameters.put("status", filter.getStatus());
+        }
+        if (filter.getStartDate() != null) {
+            predicates.add("o.orderDate >= :startDate");
+            parameters.put("startDate", filter.getStartDate());
+        }
+        if (filter.getEndDate() != null) {
+            predicates.add("o.orderDate <= :endDate");
+            parameters.put("endDate", filter.getEndDate());
+        }
+        return predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+    }
+
+    /**
+     * Write orders as CSV rows as they arrive from a database cursor. Every
+     * {@code order.export.clear-interval} rows the output is flushed to the
+     * client and the persistence context is cleared, so neither the rows
+     * already written nor the text built for them stay on the heap.
+     *
+     * @return the number of rows written
+     */
+    private long writeCSV(Stream<Order> orders, OutputStream out) throws IOException {
+        return writeCSV(orders, out, true, rows -> { });
+    }
+
+    private long writeCSV(Stream<Order> orders, OutputStream out, boolean header, LongConsumer progress)
+            throws IOException {
+        OrderCsvWriter writer = new OrderCsvWriter(out, 1 << 16);
+        if (header) {
+            writer.writeHeader();
+        }
+
+        long rows = 0;
+        Iterator<Order> iterator = orders.iterator();
+        while (iterator.hasNext()) {
+            writer.write(iterator.next());
+            if (++rows % clearInterval == 0) {
+                writer.flush();
+                entityManager.clear();
+                progress.accept(rows);
             }
+        }
+        writer.flush();
+        return rows;
+    }
 
-            writer.flush();
-        } catch (Exception e) {
-            logger.error("Error generating order CSV export", e);
-            return new byte[0];
+    private long writeColumnar(Stream<Order> orders, OutputStream out, LongConsumer progress) throws IOException {
+        OrderColumnarWriter writer = new OrderColumnarWriter(out, columnarBlockRows);
+        long rows = 0;
+        Iterator<Order> iterator = orders.iterator();
+        while (iterator.hasNext()) {
+            writer.write(iterator.next());
+            if (++rows % clearInterval == 0) {
+                entityManager.clear();
+                progress.accept(rows);
+            }
         }
+        return writer.finish();
+    }
 
-        return out.toByteArray();
+    /**
+     * Read orders with {@code fromId <= id < toId} and compress their CSV
+     * rows into one gzip member.
+     */
+    private ExportChunk exportChunk(long fromId, long toId, boolean header) {
+        return readOnlyTransaction.execute(status -> {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+            try (Stream<Order> orders = orderRepository.streamIdRange(fromId, toId);
+                 GZIPOutputStream gzip = new GZIPOutputStream(buffer, 1 << 16) {
+                     {
+                         def.setLevel(compressionLevel);
+                     }
+                 }) {
+                long rows = writeCSV(orders, gzip, header, written -> { });
+                gzip.finish();
+                return new ExportChunk(buffer.toByteArray(), rows);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 
-    private String escapeCSV(String value) {
-        if (value == null) return "";
-        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
+    private static ExportChunk await(Future<ExportChunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an export chunk");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Export chunk failed", e.getCause());
+        }
+    }
+
+    private static final class ExportChunk {
+        final byte[] compressed;
+        final long rows;
+
+        ExportChunk(byte[] compressed, long rows) {
+            this.compressed = compressed;
+            this.rows = rows;
         }
-        return value;
     }
 
     /**
@@ -0,0 +1,137 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, TTL'd cache of fully loaded, detached orders for the order detail
+ * endpoint.
+ * <p>
+ * Every order id maps to one of a fixed set of generation stripes. A reader
+ * takes the stripe's generation before loading from the database and only
+ * caches the result if the generation is unchanged; writers bump it once
+ * their transaction commits. An entry loaded before a committed write can
+ * therefore never be served after it, on this node.
+ */
+@Component
+public class OrderReadCache {
+
+    private static final int STRIPES = 1024;
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final Map<Long, CacheEntry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public OrderReadCache(MeterRegistry meterRegistry,
+                          @Value("${order.cache.max-entries:10000}") int maxEntries,
+                          @Value("${order.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<Long, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CacheEntry> eldest) {
+                return size() > OrderReadCache.this.maxEntries;
+            }
+        });
+
+        this.hits = Counter.builder("order.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("order.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("order.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Get a cached order if no write has committed since it was loaded.
+     *
+     * @param orderId the order ID
+     * @return the cached order, or null on a miss
+     */
+    public Order get(Long orderId) {
+        CacheEntry entry = entries.get(orderId);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.generation != generations.get(stripe(orderId))
+                || System.nanoTime() - entry.createdAtNanos > ttlNanos) {
+            entries.remove(orderId, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.order;
+    }
+
+    /**
+     * Capture the generation an order is about to be loaded at. Must be
+     * called before reading it from the database.
+     */
+    public long stamp(Long orderId) {
+        return generations.get(stripe(orderId));
+    }
+
+    /**
+     * Cache a loaded order unless a write committed since {@code stamp}.
+     */
+    public void put(Order order, long stamp) {
+        if (maxEntries <= 0 || stamp != generations.get(stripe(order.getId()))) {
+            return;
+        }
+        entries.put(order.getId(), new CacheEntry(order, stamp, System.nanoTime()));
+    }
+
+    /**
+     * Invalidate an order once the current transaction commits.
+     *
+     * @param orderId the order being written
+     */
+    public void invalidate(Long orderId) {
+        Runnable bump = () -> {
+            generations.incrementAndGet(stripe(orderId));
+            entries.remove(orderId);
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump.run();
+                }
+            });
+        } else {
+            bump.run();
+        }
+    }
+
+    private static int stripe(Long orderId) {
+        long h = orderId * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 54);
+    }
+
+    private static final class CacheEntry {
+        final Order order;
+        final long generation;
+        final long createdAtNanos;
+
+        CacheEntry(Order order, long generation, long createdAtNanos) {
+            this.order = order;
+            this.generation = generation;
+            this.createdAtNanos = createdAtNanos;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.Money;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderRevenueAggregate;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderRevenueAggregateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Order count and revenue per status, kept current as orders are created,
+ * repriced, change status and are archived, so the revenue summary never
+ * reads the orders table.
+ * <p>
+ * Each change adds its delta to a random stripe of
+ * {@code order_revenue_aggregates} in the caller's transaction, and to an
+ * in-memory mirror once that transaction commits. The mirror is reloaded
+ * from the table periodically to pick up other nodes' writes. A slower
+ * periodic recompute compares the table with a GROUP BY over the orders
+ * table in one snapshot, logs any drift and adds the difference.
+ */
+@Component
+public class OrderRevenueAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderRevenueAggregator.class);
+
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+    /** Statuses whose orders do not count towards revenue. */
+    private static final Set<Order.OrderStatus> UNBOOKED =
+            Set.of(Order.OrderStatus.CANCELLED, Order.OrderStatus.REFUNDED);
+
+    @Autowired
+    private OrderRevenueAggregateRepository aggregateRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${order.revenue.stripes:8}")
+    private int stripes;
+
+    private final AtomicLongArray counts = new AtomicLongArray(STATUSES.length);
+    private final AtomicLongArray revenueMinor = new AtomicLongArray(STATUSES.length);
+
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate snapshotTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate = new TransactionTemplate(transactionManager);
+        // The GROUP BY and the aggregate rows must come from the same snapshot
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        if (seed()) {
+            recompute();
+        } else {
+            refresh();
+        }
+    }
+
+    /**
+     * Record newly inserted orders. Must be called in the inserting transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Collection<Order> orders) {
+        Deltas deltas = new Deltas();
+        for (Order order : orders) {
+            deltas.add(order.getStatus(), 1, Money.toMinorUnits(order.getTotalAmount()));
+        }
+        apply(deltas);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Order order) {
+        recordCreated(List.of(order));
+    }
+
+    /**
+     * Record an order's status or total changing. Must be called in the
+     * transaction making the change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Order.OrderStatus fromStatus, BigDecimal fromTotal,
+                             Order.OrderStatus toStatus, BigDecimal toTotal) {
+        Deltas deltas = new Deltas();
+        deltas.add(fromStatus, -1, -Money.toMinorUnits(fromTotal));
+        deltas.add(toStatus, 1, Money.toMinorUnits(toTotal));
+        apply(deltas);
+    }
+
+    /**
+     * Record orders moving to a new status with their totals unchanged, as
+     * one delta however many orders moved. Must be called in the transaction
+     * making the change.
+     *
+     * @param orders the orders as they were before the change
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransitions(Collection<? extends OrderRepository.StatusView> orders,
+                                  Order.OrderStatus toStatus) {
+        Deltas deltas = new Deltas();
+        for (OrderRepository.StatusView order : orders) {
+            long totalMinor = Money.toMinorUnits(order.getTotalAmount());
+            deltas.add(order.getStatus(), -1, -totalMinor);
+            deltas.add(toStatus, 1, totalMinor);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Record orders leaving the orders table, e.g. to the archive. Must be
+     * called in the deleting transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoved(Collection<Order> orders) {
+        Deltas deltas = new Deltas();
+        for (Order order : orders) {
+            deltas.add(order.getStatus(), -1, -Money.toMinorUnits(order.getTotalAmount()));
+        }
+        apply(deltas);
+    }
+
+    public long getOrderCount() {
+        long total = 0;
+        for (int i = 0; i < STATUSES.length; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long getOrderCount(Order.OrderStatus status) {
+        return counts.get(status.ordinal());
+    }
+
+    /**
+     * @return the total of every order that is neither cancelled nor refunded, in minor units
+     */
+    public long getBookedRevenueMinor() {
+        long total = 0;
+        for (Order.OrderStatus status : STATUSES) {
+            if (!UNBOOKED.contains(status)) {
+                total = Money.sum(total, revenueMinor.get(status.ordinal()));
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Reload the mirror from the aggregate table. A transaction that commits
+     * just before the read but applies its delta just after is counted twice
+     * until the next reload.
+     */
+    @Scheduled(initialDelayString = "${order.revenue.refresh-interval-ms:60000}",
+               fixedDelayString = "${order.revenue.refresh-interval-ms:60000}")
+    public void refresh() {
+        List<OrderRevenueAggregate> rows = transactionTemplate.execute(status -> aggregateRepository.findAll());
+        long[] loadedCounts = new long[STATUSES.length];
+        long[] loadedRevenue = new long[STATUSES.length];
+        for (OrderRevenueAggregate row : rows) {
+            loadedCounts[row.getStatus().ordinal()] += row.getOrderCount();
+            loadedRevenue[row.getStatus().ordinal()] += row.getRevenueMinor();
+        }
+        for (int i = 0; i < STATUSES.length; i++) {
+            counts.set(i, loadedCounts[i]);
+            revenueMinor.set(i, loadedRevenue[i]);
+        }
+    }
+
+    /**
+     * Recompute every status's totals from the orders table and correct the
+     * aggregate table by the difference, then reload the mirror.
+     *
+     * @return true if the aggregates had drifted
+     */
+    @Scheduled(initialDelayString = "${order.revenue.recompute-interval-ms:3600000}",
+               fixedDelayString = "${order.revenue.recompute-interval-ms:3600000}")
+    public boolean recompute() {
+        long start = System.currentTimeMillis();
+        Deltas drift = snapshotTemplate.execute(status -> {
+            Deltas difference = new Deltas();
+            for (OrderRepository.StatusTotals totals : orderRepository.sumByStatus()) {
+                difference.add(totals.getStatus(), totals.getOrderCount(),
+                        totals.getRevenue() != null ? Money.toMinorUnits(totals.getRevenue()) : 0);
+            }
+            for (OrderRevenueAggregate row : aggregateRepository.findAll()) {
+                difference.add(row.getStatus(), -row.getOrderCount(), -row.getRevenueMinor());
+            }
+            // Adding the difference, rather than overwriting, keeps concurrent increments
+            for (Order.OrderStatus orderStatus : STATUSES) {
+                int i = orderStatus.ordinal();
+                if (difference.counts[i] != 0 || difference.revenue[i] != 0) {
+                    aggregateRepository.add(orderStatus, 0, difference.counts[i], difference.revenue[i]);
+                }
+            }
+            return difference;
+        });
+        refresh();
+
+        boolean drifted = !drift.isEmpty();
+        if (drifted) {
+            logger.warn("Revenue aggregates had drifted and were corrected: {}", drift);
+        } else {
+            logger.debug("Revenue aggregates verified in {} ms", System.currentTimeMillis() - start);
+        }
+        return drifted;
+    }
+
+    /**
+     * Insert any missing zero rows.
+     *
+     * @return true if the table was empty, so the totals must be computed
+     */
+    private boolean seed() {
+        List<OrderRevenueAggregate> existing = transactionTemplate.execute(status -> aggregateRepository.findAll());
+        Set<OrderRevenueAggregate.Key> present = new HashSet<>();
+        existing.forEach(row -> present.add(new OrderRevenueAggregate.Key(row.getStatus(), row.getStripe())));
+
+        List<OrderRevenueAggregate> missing = new ArrayList<>();
+        for (Order.OrderStatus status : STATUSES) {
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                if (!present.contains(new OrderRevenueAggregate.Key(status, stripe))) {
+                    missing.add(new OrderRevenueAggregate(status, stripe, 0, 0));
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> aggregateRepository.saveAll(missing));
+                logger.info("Seeded {} revenue aggregate rows", missing.size());
+            } catch (DataIntegrityViolationException e) {
+                logger.info("Revenue aggregate rows were seeded concurrently");
+            }
+        }
+        return existing.isEmpty();
+    }
+
+    private void apply(Deltas deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+        for (Order.OrderStatus status : STATUSES) {
+            int i = status.ordinal();
+            if (deltas.counts[i] == 0 && deltas.revenue[i] == 0) {
+                continue;
+            }
+            if (aggregateRepository.add(status, stripe, deltas.counts[i], deltas.revenue[i]) == 0
+                    && aggregateRepository.add(status, 0, deltas.counts[i], deltas.revenue[i]) == 0) {
+                logger.warn("No revenue aggregate row for {}; the next recompute will correct it", status);
+            }
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (int i = 0; i < STATUSES.length; i++) {
+                    counts.addAndGet(i, deltas.counts[i]);
+                    revenueMinor.addAndGet(i, deltas.revenue[i]);
+                }
+            }
+        });
+    }
+
+    private static final class Deltas {
+        final long[] counts = new long[STATUSES.length];
+        final long[] revenue = new long[STATUSES.length];
+
+        void add(Order.OrderStatus status, long orders, long revenueMinor) {
+            counts[status.ordinal()] += orders;
+            revenue[status.ordinal()] = Money.sum(revenue[status.ordinal()], revenueMinor);
+        }
+
+        boolean isEmpty() {
+            for (int i = 0; i < STATUSES.length; i++) {
+                if (counts[i] != 0 || revenue[i] != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            Map<Order.OrderStatus, String> changed = new EnumMap<>(Order.OrderStatus.class);
+            for (Order.OrderStatus status : STATUSES) {
+                int i = status.ordinal();
+                if (counts[i] != 0 || revenue[i] != 0) {
+                    changed.put(status, "orders " + counts[i] + ", revenue " + Money.toBigDecimal(revenue[i]));
+                }
+            }
+            return changed.toString();
+        }
+    }
+}
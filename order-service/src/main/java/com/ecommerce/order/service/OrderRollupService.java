@@ -0,0 +1,431 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderRollupEntry;
+import com.ecommerce.order.dto.OrderRollupReport;
+import com.ecommerce.order.entity.Money;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderRollup;
+import com.ecommerce.order.entity.OrderRollup.Granularity;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hourly, daily and monthly order count and revenue per status and payment
+ * method, kept in {@code order_rollups} as orders are created, repriced and
+ * change status, so dashboards never scan the orders table.
+ * <p>
+ * An order always counts towards the buckets of its order date. A change that
+ * arrives long after the order was placed, such as a refund, moves the order
+ * between statuses inside those old buckets, so past totals stay correct.
+ * All three granularities are updated in the caller's transaction with one
+ * batch of upserts on a random stripe. Rows are written in key order so
+ * concurrent batches lock them in the same order.
+ * <p>
+ * Rollups describe orders placed, not rows in the orders table, so archiving
+ * an order leaves them unchanged. An empty rollup table is backfilled from
+ * the orders table at startup; orders archived before that are not included.
+ * The backfill is a {@link MaintenanceTaskRunner} task, so it resumes where
+ * it stopped and runs on one node at a time. Once it has completed, a
+ * periodic recompute checks the recent months against a GROUP BY over the
+ * orders table in one snapshot, logs any drift and adds the difference.
+ * Archiving never reaches that window, as it only takes orders older than
+ * {@code order.archive.min-age-days}.
+ */
+@Service
+public class OrderRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderRollupService.class);
+
+    static final String BACKFILL_TASK = "order-rollup-backfill";
+    private static final Granularity[] GRANULARITIES = Granularity.values();
+    private static final String UPSERT = "INSERT INTO order_rollups "
+            + "(granularity, bucket_start, status, payment_method, stripe, order_count, revenue_minor) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), "
+            + "revenue_minor = revenue_minor + VALUES(revenue_minor)";
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator
+            .comparing((RollupKey key) -> key.granularity)
+            .thenComparing(key -> key.bucketStart)
+            .thenComparing(key -> key.status)
+            .thenComparing(key -> key.paymentMethod);
+
+    @Autowired
+    private OrderRollupRepository orderRollupRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MaintenanceTaskRunner maintenanceTaskRunner;
+
+    @Value("${order.rollup.stripes:8}")
+    private int stripes;
+
+    @Value("${order.rollup.backfill-batch-size:10000}")
+    private int backfillBatchSize;
+
+    @Value("${order.rollup.recompute-days:31}")
+    private int recomputeDays;
+
+    @Value("${order.archive.min-age-days:180}")
+    private int archiveMinAgeDays;
+
+    private TransactionTemplate snapshotTemplate;
+
+    @PostConstruct
+    public void init() {
+        // The window starts at a month boundary up to a month before recompute-days
+        if (recomputeDays + 31 >= archiveMinAgeDays) {
+            throw new IllegalStateException("order.rollup.recompute-days (" + recomputeDays
+                    + ") must be at least 31 below order.archive.min-age-days (" + archiveMinAgeDays + ")");
+        }
+        snapshotTemplate = new TransactionTemplate(transactionManager);
+        // The GROUP BY and the rollup rows must come from the same snapshot
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        backfill();
+    }
+
+    /**
+     * Record newly inserted orders. Must be called in the inserting transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Collection<Order> orders) {
+        Deltas deltas = new Deltas();
+        for (Order order : orders) {
+            deltas.add(order.getOrderDate(), order.getStatus(), order.getPaymentMethod(),
+                    1, Money.toMinorUnits(order.getTotalAmount()));
+        }
+        apply(deltas);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(Order order) {
+        recordCreated(List.of(order));
+    }
+
+    /**
+     * Record an order's status or total changing. Must be called in the
+     * transaction making the change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(LocalDateTime orderDate, String paymentMethod,
+                             Order.OrderStatus fromStatus, BigDecimal fromTotal,
+                             Order.OrderStatus toStatus, BigDecimal toTotal) {
+        Deltas deltas = new Deltas();
+        deltas.add(orderDate, fromStatus, paymentMethod, -1, -Money.toMinorUnits(fromTotal));
+        deltas.add(orderDate, toStatus, paymentMethod, 1, Money.toMinorUnits(toTotal));
+        apply(deltas);
+    }
+
+    /**
+     * Record orders moving to a new status with their totals unchanged. Must
+     * be called in the transaction making the change.
+     *
+     * @param orders the orders as they were before the change
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransitions(Collection<? extends OrderRepository.StatusView> orders,
+                                  Order.OrderStatus toStatus) {
+        Deltas deltas = new Deltas();
+        for (OrderRepository.StatusView order : orders) {
+            long totalMinor = Money.toMinorUnits(order.getTotalAmount());
+            deltas.add(order.getOrderDate(), order.getStatus(), order.getPaymentMethod(), -1, -totalMinor);
+            deltas.add(order.getOrderDate(), toStatus, order.getPaymentMethod(), 1, totalMinor);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Every bucket of one granularity in a range.
+     *
+     * @param start widened to the start of its bucket
+     * @param end   exclusive, widened to the next bucket boundary
+     */
+    @Transactional(readOnly = true)
+    public OrderRollupReport getSeries(Granularity granularity, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime from = granularity.truncate(start);
+        LocalDateTime to = granularity.ceil(end);
+        List<OrderRollupEntry> entries = new ArrayList<>();
+        for (OrderRollupRepository.BucketTotals bucket : orderRollupRepository.sumBuckets(granularity, from, to)) {
+            if (bucket.getOrderCount() != 0 || bucket.getRevenueMinor() != 0) {
+                entries.add(entry(bucket.getBucketStart(), bucket));
+            }
+        }
+        return new OrderRollupReport(granularity, from, to, entries);
+    }
+
+    /**
+     * Totals per status and payment method over a range, read from the
+     * coarsest buckets that fit: whole months in the middle, whole days next
+     * to them and hours at the edges, so any range reads at most a few
+     * hundred rows per status and payment method.
+     *
+     * @param start widened to the start of its hour
+     * @param end   exclusive, widened to the next hour
+     */
+    @Transactional(readOnly = true)
+    public OrderRollupReport getTotals(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime from = Granularity.HOUR.truncate(start);
+        LocalDateTime to = Granularity.HOUR.ceil(end);
+
+        Map<List<Object>, long[]> totals = new HashMap<>();
+        for (Segment segment : segments(from, to)) {
+            for (OrderRollupRepository.RangeTotals row
+                    : orderRollupRepository.sumRange(segment.granularity, segment.from, segment.to)) {
+                long[] sums = totals.computeIfAbsent(Arrays.asList(row.getStatus(), row.getPaymentMethod()),
+                        key -> new long[2]);
+                sums[0] += row.getOrderCount();
+                sums[1] = Money.sum(sums[1], row.getRevenueMinor());
+            }
+        }
+
+        List<OrderRollupEntry> entries = new ArrayList<>();
+        totals.forEach((key, sums) -> {
+            if (sums[0] != 0 || sums[1] != 0) {
+                entries.add(new OrderRollupEntry(null, (Order.OrderStatus) key.get(0),
+                        paymentMethod((String) key.get(1)), sums[0], Money.toBigDecimal(sums[1])));
+            }
+        });
+        entries.sort(Comparator.comparing(OrderRollupEntry::getStatus)
+                .thenComparing(OrderRollupEntry::getPaymentMethod, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return new OrderRollupReport(null, from, to, entries);
+    }
+
+    /**
+     * Split an hour-aligned range into hours up to the first day boundary,
+     * days up to the first month boundary, whole months, then the remaining
+     * days and hours.
+     */
+    static List<Segment> segments(LocalDateTime from, LocalDateTime to) {
+        List<Segment> segments = new ArrayList<>();
+        LocalDateTime cursor = from;
+        cursor = addSegment(segments, Granularity.HOUR, cursor, min(Granularity.DAY.ceil(cursor), to));
+        cursor = addSegment(segments, Granularity.DAY, cursor,
+                min(Granularity.MONTH.ceil(cursor), Granularity.DAY.truncate(to)));
+        cursor = addSegment(segments, Granularity.MONTH, cursor, Granularity.MONTH.truncate(to));
+        cursor = addSegment(segments, Granularity.DAY, cursor, Granularity.DAY.truncate(to));
+        addSegment(segments, Granularity.HOUR, cursor, to);
+        return segments;
+    }
+
+    private static LocalDateTime addSegment(List<Segment> segments, Granularity granularity,
+                                            LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            return from;
+        }
+        segments.add(new Segment(granularity, from, to));
+        return to;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    /**
+     * Recompute the rollups of the orders placed since the start of the
+     * month {@code order.rollup.recompute-days} ago from the orders table and
+     * correct every granularity by the difference. Skipped until the
+     * backfill has completed, as the backfill would add its orders again.
+     *
+     * @return true if the rollups had drifted
+     */
+    @Scheduled(initialDelayString = "${order.rollup.recompute-interval-ms:3600000}",
+               fixedDelayString = "${order.rollup.recompute-interval-ms:3600000}")
+    public boolean recompute() {
+        if (!maintenanceTaskRunner.isCompleted(BACKFILL_TASK)) {
+            logger.debug("Order rollup backfill has not completed; skipping the recompute");
+            return false;
+        }
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = Granularity.MONTH.truncate(now.minusDays(recomputeDays));
+        LocalDateTime to = Granularity.MONTH.ceil(now.plusDays(1));
+        Deltas drift = snapshotTemplate.execute(status -> {
+            Deltas difference = new Deltas();
+            for (OrderRepository.HourTotals totals : orderRepository.sumByHour(from, to)) {
+                LocalDateTime hour = LocalDateTime.of(totals.getYear(), totals.getMonth(), totals.getDay(),
+                        totals.getHour(), 0);
+                difference.add(hour, totals.getStatus(), totals.getPaymentMethod(), totals.getOrderCount(),
+                        totals.getRevenue() != null ? Money.toMinorUnits(totals.getRevenue()) : 0);
+            }
+            for (Granularity granularity : GRANULARITIES) {
+                for (OrderRollupRepository.BucketTotals bucket
+                        : orderRollupRepository.sumBuckets(granularity, from, to)) {
+                    difference.subtract(granularity, bucket);
+                }
+            }
+            // Adding the difference, rather than overwriting, keeps concurrent increments
+            apply(difference);
+            return difference;
+        });
+
+        boolean drifted = !drift.isEmpty();
+        if (drifted) {
+            logger.warn("Order rollups since {} had drifted in {} buckets and were corrected", from, drift.size());
+        } else {
+            logger.debug("Order rollups since {} verified in {} ms", from, System.currentTimeMillis() - start);
+        }
+        return drifted;
+    }
+
+    /**
+     * Build the rollups from the orders already in the table, one batch per
+     * transaction. Orders inserted while this runs are recorded as they are
+     * created, so only orders up to the highest id when the task was first
+     * created are read. A rollup table that already has rows was filled by a
+     * release that did not track the backfill, so the task starts completed.
+     */
+    private void backfill() {
+        maintenanceTaskRunner.run(BACKFILL_TASK,
+                () -> {
+                    Long maxId = orderRepository.findIdRange().getMaxId();
+                    return maxId != null ? maxId : 0;
+                },
+                () -> orderRollupRepository.count() > 0,
+                (afterId, targetId) -> {
+                    List<OrderRepository.StatusView> rows = orderRepository.findStatusViewsAfter(
+                            afterId, targetId, PageRequest.of(0, backfillBatchSize));
+                    Deltas deltas = new Deltas();
+                    for (OrderRepository.StatusView row : rows) {
+                        deltas.add(row.getOrderDate(), row.getStatus(), row.getPaymentMethod(),
+                                1, Money.toMinorUnits(row.getTotalAmount()));
+                    }
+                    apply(deltas);
+                    return rows.size() < backfillBatchSize ? targetId : rows.get(rows.size() - 1).getId();
+                });
+    }
+
+    private void apply(Deltas deltas) {
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+        List<Object[]> rows = new ArrayList<>(deltas.byKey.size());
+        deltas.byKey.forEach((key, sums) -> {
+            if (sums[0] != 0 || sums[1] != 0) {
+                rows.add(new Object[]{key.granularity.name(), key.bucketStart, key.status.name(),
+                        key.paymentMethod, stripe, sums[0], sums[1]});
+            }
+        });
+        if (!rows.isEmpty()) {
+            // One batch per change; with rewriteBatchedStatements the MySQL driver sends it as multi-row inserts
+            jdbcTemplate.batchUpdate(UPSERT, rows);
+        }
+    }
+
+    private static OrderRollupEntry entry(LocalDateTime bucketStart, OrderRollupRepository.RangeTotals totals) {
+        return new OrderRollupEntry(bucketStart, totals.getStatus(), paymentMethod(totals.getPaymentMethod()),
+                totals.getOrderCount(), Money.toBigDecimal(totals.getRevenueMinor()));
+    }
+
+    private static String paymentMethod(String stored) {
+        return OrderRollup.NO_PAYMENT_METHOD.equals(stored) ? null : stored;
+    }
+
+    /**
+     * A range read from buckets of one granularity.
+     */
+    static final class Segment {
+        final Granularity granularity;
+        final LocalDateTime from;
+        final LocalDateTime to;
+
+        Segment(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+            this.granularity = granularity;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public String toString() {
+            return granularity + " [" + from + ", " + to + ")";
+        }
+    }
+
+    private static final class RollupKey {
+        final Granularity granularity;
+        final LocalDateTime bucketStart;
+        final Order.OrderStatus status;
+        final String paymentMethod;
+
+        RollupKey(Granularity granularity, LocalDateTime bucketStart, Order.OrderStatus status, String paymentMethod) {
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+            this.status = status;
+            this.paymentMethod = paymentMethod;
+        }
+    }
+
+    /**
+     * Count and revenue changes per bucket, at every granularity, sorted by key.
+     */
+    private static final class Deltas {
+        final Map<RollupKey, long[]> byKey = new TreeMap<>(KEY_ORDER);
+
+        void subtract(Granularity granularity, OrderRollupRepository.BucketTotals bucket) {
+            long[] sums = byKey.computeIfAbsent(new RollupKey(granularity, bucket.getBucketStart(),
+                    bucket.getStatus(), bucket.getPaymentMethod()), key -> new long[2]);
+            sums[0] -= bucket.getOrderCount();
+            sums[1] = Money.sum(sums[1], -bucket.getRevenueMinor());
+        }
+
+        boolean isEmpty() {
+            return size() == 0;
+        }
+
+        /**
+         * @return the number of buckets with a non-zero change
+         */
+        int size() {
+            int changed = 0;
+            for (long[] sums : byKey.values()) {
+                if (sums[0] != 0 || sums[1] != 0) {
+                    changed++;
+                }
+            }
+            return changed;
+        }
+
+        void add(LocalDateTime orderDate, Order.OrderStatus status, String paymentMethod,
+                 long orders, long revenueMinor) {
+            // Orders always have a date once persisted; fall back to now rather than lose the change
+            LocalDateTime date = orderDate != null ? orderDate : LocalDateTime.now();
+            String method = paymentMethod != null ? paymentMethod : OrderRollup.NO_PAYMENT_METHOD;
+            for (Granularity granularity : GRANULARITIES) {
+                long[] sums = byKey.computeIfAbsent(
+                        new RollupKey(granularity, granularity.truncate(date), status, method), key -> new long[2]);
+                sums[0] += orders;
+                sums[1] = Money.sum(sums[1], revenueMinor);
+            }
+        }
+    }
+}
@@ -1,39 +1,207 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.order.dto.OrderHistoryPage;
+import com.ecommerce.order.dto.OrderSummary;
+import com.ecommerce.order.dto.OrderSummaryPage;
+import com.ecommerce.order.dto.StatusTransitionResult;
+import com.ecommerce.order.entity.Money;
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.entity.OrderItem;
 import com.ecommerce.order.repository.OrderRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import javax.persistence.EntityManager;
 import javax.persistence.EntityNotFoundException;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class OrderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
+    private static final String TRANSITION_SQL =
+            "UPDATE orders SET status = ?, updated_at = ? WHERE id = ? AND status = ? AND total_amount = ?";
+
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderReadCache orderReadCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderArchiveStore orderArchiveStore;
+
+    @Autowired
+    private OrderRevenueAggregator orderRevenueAggregator;
+
+    @Autowired
+    private OrderRollupService orderRollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${order.stream.chunk-size:500}")
+    private int streamChunkSize;
+
     /**
      * Helper method to format output for display.
      * @param data the raw data to format
      * @return formatted string representation
      */
     public Order createOrder(Order order) {
-        BigDecimal total = BigDecimal.ZERO;
+        prepareNewOrder(order);
+        Order saved = orderRepository.save(order);
+        orderRevenueAggregator.recordCreated(saved);
+        orderRollupService.recordCreated(saved);
+        return saved;
+    }
+
+    /**
+     * Link items to their order, price every line, record the item count and
+     * reset the status, ready for the order to be inserted.
+     *
+     * @param order the new order
+     */
+    void prepareNewOrder(Order order) {
+        order.setTotalAmount(Money.toBigDecimal(priceItems(order)));
+        order.setItemCount(order.getItems().size());
+        order.setStatus(Order.OrderStatus.PENDING);
+    }
+
+    /**
+     * Link items to their order and set every line's subtotal.
+     *
+     * @return the order total in minor units
+     */
+    private static long priceItems(Order order) {
+        // Fixed-point minor units; BigDecimal only for the values stored on the entities
+        long total = 0;
         for (OrderItem item : order.getItems()) {
             item.setOrder(order);
-            BigDecimal itemTotal = item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-            item.setSubtotal(itemTotal);
-            total = total.add(itemTotal);
+            long itemTotal = Money.lineTotal(Money.toMinorUnits(item.getUnitPrice()), item.getQuantity());
+            item.setSubtotal(Money.toBigDecimal(itemTotal));
+            total = Money.sum(total, itemTotal);
         }
-        order.setTotalAmount(total);
+        return total;
+    }
+
+    /**
+     * Check a new order before it is priced and inserted.
+     *
+     * @param order the new order
+     * @return a description of the first problem found, or null if the order is valid
+     */
+    String validateNewOrder(Order order) {
+        if (order == null) {
+            return "Order is empty";
+        }
+        if (order.getUserId() == null) {
+            return "userId is required";
+        }
+        if (order.getItems() == null || order.getItems().isEmpty()) {
+            return "Order must contain at least one item";
+        }
+        for (OrderItem item : order.getItems()) {
+            if (item.getProductId() == null || item.getProductName() == null) {
+                return "Every item needs a productId and productName";
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                return "Item quantity must be positive for product " + item.getProductId();
+            }
+            if (item.getUnitPrice() == null || item.getUnitPrice().compareTo(BigDecimal.ZERO) < 0) {
+                return "Item unitPrice must not be negative for product " + item.getProductId();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Insert a new order as PENDING without pricing it, so it has an id while
+     * the asynchronous pipeline validates and prices it.
+     *
+     * @param order the new order; items must carry every required column
+     * @return the inserted order
+     */
+    public Order acceptOrder(Order order) {
+        for (OrderItem item : order.getItems()) {
+            item.setOrder(order);
+        }
+        order.setTotalAmount(BigDecimal.ZERO);
+        order.setItemCount(order.getItems().size());
         order.setStatus(Order.OrderStatus.PENDING);
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        orderRevenueAggregator.recordCreated(saved);
+        orderRollupService.recordCreated(saved);
+        return saved;
+    }
+
+    /**
+     * Price an order inserted by {@link #acceptOrder}. The total is written
+     * with an UPDATE that applies only while the order is still PENDING, and
+     * the status is never written, so an order cancelled while it waited to
+     * be priced stays cancelled.
+     *
+     * @param id the order ID
+     * @return the priced order, detached
+     * @throws IllegalStateException if the order is no longer PENDING; nothing is written
+     */
+    public Order priceOrder(Long id) {
+        Order order = getOrderById(id);
+        BigDecimal previousTotal = order.getTotalAmount();
+        // Only the items are changed on managed entities; the order row is written conditionally below
+        BigDecimal total = Money.toBigDecimal(priceItems(order));
+        int itemCount = order.getItems().size();
+        if (orderRepository.priceIfPending(id, total, itemCount, LocalDateTime.now()) == 0) {
+            Order.OrderStatus current = orderRepository.findStatusViewById(id)
+                    .map(OrderRepository.StatusView::getStatus).orElse(null);
+            throw new IllegalStateException("Order " + id + " is no longer PENDING: " + current);
+        }
+        order.setTotalAmount(total);
+        order.setItemCount(itemCount);
+        orderReadCache.invalidate(id);
+        orderRevenueAggregator.recordChange(Order.OrderStatus.PENDING, previousTotal, Order.OrderStatus.PENDING, total);
+        orderRollupService.recordChange(order.getOrderDate(), order.getPaymentMethod(),
+                Order.OrderStatus.PENDING, previousTotal, Order.OrderStatus.PENDING, total);
+        return order;
     }
 
     /**
@@ -45,30 +213,383 @@ public class OrderService {
                 .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + id));
     }
 
+    /**
+     * Get an order with its items for display. Served from the read cache when
+     * no status change has committed since it was cached; the returned order
+     * is detached and shared, so callers must not modify it. An order no
+     * longer in the database is looked up in the archive, which is written
+     * before the rows are deleted.
+     *
+     * @param id the order ID
+     * @return the order with items loaded
+     */
+    @Transactional(readOnly = true)
+    public Order getOrderDetails(Long id) {
+        Order cached = orderReadCache.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = orderReadCache.stamp(id);
+        Order order = orderRepository.findWithItemsById(id).orElse(null);
+        if (order == null) {
+            // Archived orders never change, so there is nothing to cache them against
+            return orderArchiveStore.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Order not found with id: " + id));
+        }
+        entityManager.detach(order);
+        orderReadCache.put(order, stamp);
+        return order;
+    }
+
     public List<Order> getOrdersByUserId(Long userId) {
-        return orderRepository.findByUserIdOrderByOrderDateDesc(userId);
+        List<Order> hot = orderRepository.findByUserIdOrderByOrderDateDesc(userId);
+        if (!orderArchiveStore.hasOrders(userId)) {
+            return hot;
+        }
+        return mergeTiers(hot, orderArchiveStore.findByUserId(userId), Integer.MAX_VALUE,
+                Order::getOrderDate, Order::getId);
     }
 
+    /**
+     * Get one page of a user's order history, newest first, with items loaded.
+     * Pages are addressed by a keyset cursor on (orderDate, id), so deep pages
+     * cost the same as the first, and each page takes exactly two queries.
+     * Archived orders are merged in by the same key.
+     *
+     * @param userId the user ID
+     * @param cursor the cursor from the previous page, or null for the first page
+     * @param size   the page size
+     * @return the page and the cursor for the next one
+     */
+    @Transactional(readOnly = true)
+    public OrderHistoryPage getOrderHistory(Long userId, String cursor, int size) {
+        // Fetch one extra id to learn whether another page follows
+        PageRequest limit = PageRequest.of(0, size + 1);
+        LocalDateTime beforeDate = null;
+        Long beforeId = null;
+        List<Long> ids;
+        if (cursor == null || cursor.isEmpty()) {
+            ids = orderRepository.findHistoryIds(userId, limit);
+        } else {
+            CursorPosition position = decodeCursor(cursor);
+            beforeDate = position.orderDate;
+            beforeId = position.id;
+            ids = orderRepository.findHistoryIdsBefore(userId, beforeDate, beforeId, limit);
+        }
 
-    public Order updateOrderStatus(Long id, Order.OrderStatus status) {
-        Order order = getOrderById(id);
-        order.setStatus(status);
-    // Handle edge case for empty collections
-        return orderRepository.save(order);
+        List<Order> orders = List.of();
+        if (!ids.isEmpty()) {
+            Map<Long, Order> byId = orderRepository.findDistinctByIdIn(ids).stream()
+                    .collect(Collectors.toMap(Order::getId, Function.identity()));
+            orders = ids.stream().map(byId::get).collect(Collectors.toList());
+        }
+        orders = mergeTiers(orders, archivedBefore(userId, beforeDate, beforeId, size + 1), size + 1,
+                Order::getOrderDate, Order::getId);
+
+        boolean hasMore = orders.size() > size;
+        if (hasMore) {
+            orders = orders.subList(0, size);
+        }
+        if (orders.isEmpty()) {
+            return new OrderHistoryPage(List.of(), null);
+        }
+
+        Order last = orders.get(orders.size() - 1);
+        return new OrderHistoryPage(orders, hasMore ? encodeCursor(last.getOrderDate(), last.getId()) : null);
     }
 
-    public Order cancelOrder(Long id) {
-        Order order = getOrderById(id);
-        if (order.getStatus() == Order.OrderStatus.SHIPPED ||
-            order.getStatus() == Order.OrderStatus.DELIVERED) {
-            throw new RuntimeException("Cannot cancel order that has been shipped or delivered");
+    /**
+     * Get one page of a user's order summaries, newest first. Each page is a
+     * single query over the orders table; item rows are never read. Cursors
+     * are interchangeable with {@link #getOrderHistory}.
+     *
+     * @param userId the user ID
+     * @param cursor the cursor from the previous page, or null for the first page
+     * @param size   the page size
+     * @return the page and the cursor for the next one
+     */
+    @Transactional(readOnly = true)
+    public OrderSummaryPage getOrderSummaries(Long userId, String cursor, int size) {
+        PageRequest limit = PageRequest.of(0, size + 1);
+        LocalDateTime beforeDate = null;
+        Long beforeId = null;
+        List<OrderSummary> summaries;
+        if (cursor == null || cursor.isEmpty()) {
+            summaries = orderRepository.findSummaries(userId, limit);
+        } else {
+            CursorPosition position = decodeCursor(cursor);
+            beforeDate = position.orderDate;
+            beforeId = position.id;
+            summaries = orderRepository.findSummariesBefore(userId, beforeDate, beforeId, limit);
+        }
+        List<OrderSummary> archived = archivedBefore(userId, beforeDate, beforeId, size + 1).stream()
+                .map(o -> new OrderSummary(o.getId(), o.getStatus(), o.getTotalAmount(), o.getOrderDate(), o.getItemCount()))
+                .collect(Collectors.toList());
+        summaries = mergeTiers(summaries, archived, size + 1, OrderSummary::getOrderDate, OrderSummary::getId);
+
+        boolean hasMore = summaries.size() > size;
+        if (hasMore) {
+            summaries = summaries.subList(0, size);
+        }
+        if (summaries.isEmpty()) {
+            return new OrderSummaryPage(List.of(), null);
         }
-        order.setStatus(Order.OrderStatus.CANCELLED);
-        return orderRepository.save(order);
+
+        OrderSummary last = summaries.get(summaries.size() - 1);
+        return new OrderSummaryPage(summaries, hasMore ? encodeCursor(last.getOrderDate(), last.getId()) : null);
+    }
+
+    /**
+     * The first {@code limit} archived orders of a user that sort after the
+     * cursor position, newest first.
+     */
+    private List<Order> archivedBefore(Long userId, LocalDateTime beforeDate, Long beforeId, int limit) {
+        if (!orderArchiveStore.hasOrders(userId)) {
+            return List.of();
+        }
+        return orderArchiveStore.findByUserIdBefore(userId, beforeDate, beforeId, limit);
+    }
+
+    /**
+     * Merge a page of database rows with archived rows, newest first, and cut
+     * it to {@code limit}. An order present in both tiers keeps its database
+     * copy. Both copies share the same sort key, so a database copy that fell
+     * outside a full {@code hot} window would also have been cut.
+     */
+    private static <T> List<T> mergeTiers(List<T> hot, List<T> archived, int limit,
+                                          Function<T, LocalDateTime> orderDate, Function<T, Long> id) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Set<Long> hotIds = hot.stream().map(id).collect(Collectors.toSet());
+        List<T> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        for (T row : archived) {
+            if (!hotIds.contains(id.apply(row))) {
+                merged.add(row);
+            }
+        }
+        merged.sort(Comparator.comparing(orderDate, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+                .thenComparing(id, Comparator.reverseOrder()));
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    /**
+     * Move an order to a new status, if the transition table allows it from
+     * the order's current status.
+     *
+     * @param id     the order ID
+     * @param status the new status
+     * @return the outcome; a conflict carries the status that blocked it
+     */
+    public StatusTransitionResult updateOrderStatus(Long id, Order.OrderStatus status) {
+        return transition(id, status);
+    }
+
+    public StatusTransitionResult cancelOrder(Long id) {
+        return transition(id, Order.OrderStatus.CANCELLED);
     }
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    /**
+     * Move many orders to the same status. Reads the current statuses once,
+     * then sends one conditional UPDATE per eligible order, as a single JDBC
+     * batch, each applying only if the order still has the status and total
+     * that were read. Orders that changed in between are read again with a
+     * locking read, which sees the latest commit and holds them for their
+     * second UPDATE.
+     *
+     * @param orderIds the order IDs; duplicates are ignored
+     * @param status   the new status
+     * @return one outcome per distinct order ID, in input order
+     */
+    public List<StatusTransitionResult> updateOrderStatuses(Collection<Long> orderIds, Order.OrderStatus status) {
+        List<Long> ids = orderIds.stream().distinct().collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Set<Order.OrderStatus> allowedFrom = status.getAllowedFrom();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, OrderRepository.StatusView> current = new HashMap<>();
+        // The moved orders as they were before their UPDATE
+        Map<Long, OrderRepository.StatusView> moved = new HashMap<>();
+
+        List<Long> pending = ids;
+        for (boolean locking = false; !pending.isEmpty(); locking = true) {
+            pending.forEach(current::remove);
+            List<OrderRepository.StatusView> views = locking
+                    ? orderRepository.lockStatusViewsByIdIn(pending)
+                    : orderRepository.findStatusViewsByIdIn(pending);
+            for (OrderRepository.StatusView view : views) {
+                current.put(view.getId(), view);
+            }
+            List<OrderRepository.StatusView> eligible = pending.stream()
+                    .map(current::get)
+                    .filter(view -> view != null && allowedFrom.contains(view.getStatus()))
+                    .collect(Collectors.toList());
+            if (eligible.isEmpty()) {
+                break;
+            }
+            int[] updated = compareAndSetStatuses(eligible, status, now);
+            List<Long> missed = new ArrayList<>();
+            for (int i = 0; i < updated.length; i++) {
+                OrderRepository.StatusView view = eligible.get(i);
+                if (updated[i] == 1) {
+                    moved.put(view.getId(), view);
+                } else {
+                    missed.add(view.getId());
+                }
+            }
+            if (locking) {
+                // Locked rows cannot have changed since they were read
+                break;
+            }
+            pending = missed;
+        }
+
+        if (!moved.isEmpty()) {
+            orderRevenueAggregator.recordTransitions(moved.values(), status);
+            orderRollupService.recordTransitions(moved.values(), status);
+        }
+
+        List<StatusTransitionResult> results = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (moved.containsKey(id)) {
+                orderReadCache.invalidate(id);
+                results.add(StatusTransitionResult.applied(id, status));
+            } else if (current.get(id) == null) {
+                results.add(StatusTransitionResult.notFound(id, status));
+            } else {
+                results.add(StatusTransitionResult.conflict(id, status, current.get(id).getStatus()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Move one order with a plain read and a single conditional UPDATE on the
+     * status and total just read, so the aggregates know exactly what the
+     * order left. If the UPDATE misses, the order is read again with a
+     * locking read, which sees the latest commit rather than this
+     * transaction's snapshot, and tried once more.
+     */
+    private StatusTransitionResult transition(Long id, Order.OrderStatus status) {
+        LocalDateTime now = LocalDateTime.now();
+        OrderRepository.StatusView view = orderRepository.findStatusViewById(id).orElse(null);
+        if (view != null && status.canTransitionFrom(view.getStatus()) && compareAndSetStatus(view, status, now)) {
+            return StatusTransitionResult.applied(id, status);
+        }
+        view = orderRepository.lockStatusViewById(id).orElse(null);
+        if (view == null) {
+            return StatusTransitionResult.notFound(id, status);
+        }
+        if (status.canTransitionFrom(view.getStatus()) && compareAndSetStatus(view, status, now)) {
+            return StatusTransitionResult.applied(id, status);
+        }
+        return StatusTransitionResult.conflict(id, status, view.getStatus());
+    }
+
+    private boolean compareAndSetStatus(OrderRepository.StatusView view, Order.OrderStatus status, LocalDateTime now) {
+        if (orderRepository.transitionStatus(view.getId(), view.getStatus(), view.getTotalAmount(), status, now) == 0) {
+            return false;
+        }
+        orderReadCache.invalidate(view.getId());
+        orderRevenueAggregator.recordTransitions(List.of(view), status);
+        orderRollupService.recordTransitions(List.of(view), status);
+        return true;
+    }
+
+    /**
+     * Set {@code status} on each order whose status and total are still the
+     * ones in its view, in one JDBC batch.
+     *
+     * @return the rows updated per order, 1 or 0, in the order of {@code views}
+     */
+    private int[] compareAndSetStatuses(List<OrderRepository.StatusView> views, Order.OrderStatus status,
+                                        LocalDateTime now) {
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        List<Object[]> rows = new ArrayList<>(views.size());
+        for (OrderRepository.StatusView view : views) {
+            rows.add(new Object[]{status.name(), updatedAt, view.getId(), view.getStatus().name(), view.getTotalAmount()});
+        }
+        // Same as the JPQL update it replaces: no pending writes go missing, no stale entities stay managed
+        entityManager.flush();
+        int[] updated = jdbcTemplate.batchUpdate(TRANSITION_SQL, rows);
+        entityManager.clear();
+        return updated;
+    }
+
+    /**
+     * Write every order, with its items, to {@code out} as a JSON array.
+     * Orders are read through a forward-only cursor in chunks; each chunk's
+     * items are fetched in one query, written, flushed and then evicted from
+     * the persistence context, so memory stays flat however large the table.
+     *
+     * @param out the response stream; not closed
+     */
+    @Transactional(readOnly = true)
+    public void writeAllOrders(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Order.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        List<Order> chunk = new ArrayList<>(streamChunkSize);
+        long written = 0;
+
+        try (Stream<Order> orders = orderRepository.streamAll();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.writeStartArray();
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == streamChunkSize || !iterator.hasNext()) {
+                    writeChunk(chunk, writer, generator);
+                    written += chunk.size();
+                    chunk.clear();
+                }
+            }
+            generator.writeEndArray();
+        }
+        logger.debug("Streamed {} orders", written);
+    }
+
+    private void writeChunk(List<Order> chunk, ObjectWriter writer, JsonGenerator generator) throws IOException {
+        // Initializes items on the managed orders in one query instead of one per order
+        orderRepository.findDistinctByIdIn(chunk.stream().map(Order::getId).collect(Collectors.toList()));
+        for (Order order : chunk) {
+            writer.writeValue(generator, order);
+        }
+        generator.flush();
+        entityManager.clear();
+    }
+
+    private static String encodeCursor(LocalDateTime orderDate, Long id) {
+        String position = orderDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws ResponseStatusException 400 if the cursor was not issued by {@link #encodeCursor}
+     */
+    private static CursorPosition decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Expected two fields, got " + position.length);
+            }
+            return new CursorPosition(LocalDateTime.parse(position[0]), Long.valueOf(position[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // NumberFormatException is an IllegalArgumentException
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed order history cursor", e);
+        }
+    }
+
+    private static final class CursorPosition {
+        final LocalDateTime orderDate;
+        final Long id;
+
+        CursorPosition(LocalDateTime orderDate, Long id) {
+            this.orderDate = orderDate;
+            this.id = id;
+        }
     }
 
     /**
@@ -91,13 +612,4 @@ public class OrderService {
     }
 
 
-    /**
-     * Validates if the given string is not null or empty.
-     * @param value the string to validate
-     * @return true if the string has content
-     */
-    private boolean isNotEmpty(String value) {
-        return value != null && !value.trim().isEmpty();
-    }
-
 }
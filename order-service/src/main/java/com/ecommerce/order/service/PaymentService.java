@@ -6,7 +6,9 @@ import java.util.List;
 public interface PaymentService {
 
     /**
-     * Process a payment for an order.
+     * Process a payment for an order. A successful charge confirms the order;
+     * if the order can no longer be confirmed, e.g. it was cancelled, the
+     * charge is refunded and the result's status is REFUNDED.
      *
      * @param orderId       the ID of the order
      * @param amount        the payment amount
@@ -1,5 +1,6 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.order.dto.StatusTransitionResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -59,12 +60,24 @@ public class PaymentServiceImpl implements PaymentService {
         orderTransactions.computeIfAbsent(orderId, k -> new ArrayList<>()).add(transactionId);
 
         if (success) {
+            StatusTransitionResult confirmation;
             try {
-                orderService.updateOrderStatus(orderId,
+                confirmation = orderService.updateOrderStatus(orderId,
                         com.ecommerce.order.entity.Order.OrderStatus.CONFIRMED);
-                logger.info("Order {} status updated to CONFIRMED after payment", orderId);
             } catch (Exception e) {
                 logger.error("Failed to update order status for order {}", orderId, e);
+                return result;
+            }
+            if (confirmation.isApplied()) {
+                logger.info("Order {} status updated to CONFIRMED after payment", orderId);
+            } else {
+                // Cancelled or gone while the payment went through: nothing was bought, so give the money back
+                String reason = confirmation.getCurrentStatus() != null
+                        ? "Order is " + confirmation.getCurrentStatus()
+                        : "Order not found";
+                logger.warn("Order {} not confirmed after payment: {}; refunding {}", orderId, reason, transactionId);
+                refundPayment(transactionId, reason);
+                result.setMessage(reason + "; payment refunded");
             }
         }
 
@@ -0,0 +1,92 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.OrderItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reserves and releases stock through product-service's
+ * {@code PATCH /api/products/{id}/stock} endpoint.
+ */
+@Component
+public class ProductStockClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductStockClient.class);
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final Duration timeout;
+
+    public ProductStockClient(@Value("${order.pipeline.product-service-url:http://localhost:8081}") String baseUrl,
+                              @Value("${order.pipeline.stock-timeout-ms:2000}") long timeoutMs) {
+        this.baseUrl = baseUrl;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    /**
+     * Take stock for every item, or none: if one item cannot be reserved the
+     * ones already taken are released before the failure is thrown.
+     *
+     * @param items the order items
+     */
+    public void reserve(List<OrderItem> items) {
+        List<OrderItem> reserved = new ArrayList<>(items.size());
+        try {
+            for (OrderItem item : items) {
+                adjustStock(item.getProductId(), -item.getQuantity());
+                reserved.add(item);
+            }
+        } catch (RuntimeException e) {
+            release(reserved);
+            throw e;
+        }
+    }
+
+    /**
+     * Give back stock taken by {@link #reserve}. Failures are logged, not thrown.
+     *
+     * @param items the order items
+     */
+    public void release(List<OrderItem> items) {
+        for (OrderItem item : items) {
+            try {
+                adjustStock(item.getProductId(), item.getQuantity());
+            } catch (RuntimeException e) {
+                logger.error("Failed to release {} units of product {}", item.getQuantity(), item.getProductId(), e);
+            }
+        }
+    }
+
+    private void adjustStock(Long productId, int quantity) {
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create(baseUrl + "/api/products/" + productId + "/stock?quantity=" + quantity))
+                .timeout(timeout)
+                .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<Void> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            throw new IllegalStateException("Stock service unavailable for product " + productId, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted adjusting stock for product " + productId, e);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Could not adjust stock for product " + productId
+                    + " (HTTP " + response.statusCode() + ")");
+        }
+    }
+}
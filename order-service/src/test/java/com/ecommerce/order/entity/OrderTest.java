@@ -0,0 +1,71 @@
+package com.ecommerce.order.entity;
+
+import com.ecommerce.order.entity.Order.OrderStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static com.ecommerce.order.entity.Order.OrderStatus.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderTest {
+
+    @Nested
+    @DisplayName("Status Transitions")
+    class StatusTransitions {
+
+        @Test
+        @DisplayName("should allow exactly the transitions in the table")
+        void shouldMatchTransitionTable() {
+            assertThat(PENDING.getAllowedFrom()).isEmpty();
+            assertThat(CONFIRMED.getAllowedFrom()).containsExactlyInAnyOrder(PENDING);
+            assertThat(PROCESSING.getAllowedFrom()).containsExactlyInAnyOrder(CONFIRMED);
+            assertThat(SHIPPED.getAllowedFrom()).containsExactlyInAnyOrder(CONFIRMED, PROCESSING);
+            assertThat(DELIVERED.getAllowedFrom()).containsExactlyInAnyOrder(SHIPPED);
+            assertThat(CANCELLED.getAllowedFrom()).containsExactlyInAnyOrder(PENDING, CONFIRMED, PROCESSING);
+            assertThat(REFUNDED.getAllowedFrom()).containsExactlyInAnyOrder(CONFIRMED, PROCESSING, DELIVERED, CANCELLED);
+        }
+
+        @Test
+        @DisplayName("should agree between canTransitionFrom and getAllowedFrom")
+        void shouldAgreeWithAllowedFrom() {
+            for (OrderStatus target : OrderStatus.values()) {
+                for (OrderStatus current : OrderStatus.values()) {
+                    assertThat(target.canTransitionFrom(current))
+                            .as("%s -> %s", current, target)
+                            .isEqualTo(target.getAllowedFrom().contains(current));
+                }
+                assertThat(target.canTransitionFrom(null)).isFalse();
+            }
+        }
+
+        @Test
+        @DisplayName("should never move an order into its own status or back to PENDING")
+        void shouldRejectSelfTransitions() {
+            for (OrderStatus status : OrderStatus.values()) {
+                assertThat(status.canTransitionFrom(status)).as("%s -> %s", status, status).isFalse();
+                assertThat(PENDING.canTransitionFrom(status)).isFalse();
+            }
+        }
+
+        @Test
+        @DisplayName("should not cancel shipped or delivered orders, and treat REFUNDED as final")
+        void shouldProtectLateStatuses() {
+            assertThat(CANCELLED.canTransitionFrom(SHIPPED)).isFalse();
+            assertThat(CANCELLED.canTransitionFrom(DELIVERED)).isFalse();
+            for (OrderStatus target : EnumSet.allOf(OrderStatus.class)) {
+                assertThat(target.canTransitionFrom(REFUNDED)).as("REFUNDED -> %s", target).isFalse();
+            }
+        }
+
+        @Test
+        @DisplayName("should not let callers change the table")
+        void shouldExposeUnmodifiableTable() {
+            assertThatThrownBy(() -> CONFIRMED.getAllowedFrom().add(DELIVERED))
+                    .isInstanceOf(UnsupportedOperationException.class);
+        }
+    }
+}
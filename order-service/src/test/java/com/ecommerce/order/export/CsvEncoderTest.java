@@ -0,0 +1,186 @@
+package com.ecommerce.order.export;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The encoder must write exactly the bytes the exports wrote through a
+ * UTF-8 {@link BufferedWriter} with {@code escapeCSV}, {@code toPlainString}
+ * and {@code DATE_FMT}, so existing consumers see no change.
+ */
+class CsvEncoderTest {
+
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] TEXTS = {
+            null, "", "plain", "a,b", "quo\"te", "line\nbreak", "cr\rreturn", "\"", ",",
+            "ümlaut café", "日本語", "emoji 😀 x", "lone \uD800 high", "lone \uDC00 low", "tail\uD83D"
+    };
+
+    @Nested
+    @DisplayName("Text Fields")
+    class TextFields {
+
+        @Test
+        @DisplayName("should quote and encode fields as escapeCSV did")
+        void shouldMatchEscapeCsv() throws IOException {
+            for (String text : TEXTS) {
+                assertThat(encode(csv -> {
+                    csv.writeField(text);
+                    csv.writeSeparator();
+                })).as("field %s", text).isEqualTo(legacy(writer -> writer.write(escapeCSV(text) + ",")));
+            }
+        }
+
+        @Test
+        @DisplayName("should write raw text unquoted")
+        void shouldWriteRawTextUnquoted() throws IOException {
+            assertThat(encode(csv -> csv.writeRaw("a,b \"c\"")))
+                    .isEqualTo("a,b \"c\"".getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        @DisplayName("should match long text through a buffer smaller than the field")
+        void shouldMatchThroughSmallBuffer() throws IOException {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 200; i++) {
+                text.append(TEXTS[1 + i % (TEXTS.length - 1)]);
+            }
+            String value = text.toString();
+
+            assertThat(encode(64, csv -> {
+                csv.writeField(value);
+                csv.endRow();
+            })).isEqualTo(legacy(writer -> {
+                writer.write(escapeCSV(value));
+                writer.newLine();
+            }));
+        }
+    }
+
+    @Nested
+    @DisplayName("Numbers And Dates")
+    class NumbersAndDates {
+
+        @Test
+        @DisplayName("should write amounts as toPlainString did")
+        void shouldMatchToPlainString() throws IOException {
+            BigDecimal[] amounts = {
+                    new BigDecimal("0.00"), new BigDecimal("-0.05"), new BigDecimal("12.5"), new BigDecimal("100"),
+                    new BigDecimal("1E+3"), new BigDecimal("-99999999.99"), new BigDecimal("999999999999999999"),
+                    new BigDecimal("123456789012345678.99"), new BigDecimal("0.000000000000000000001"),
+                    new BigDecimal("0.123456789012345678"), BigDecimal.valueOf(Long.MIN_VALUE, 2)
+            };
+            for (BigDecimal amount : amounts) {
+                assertThat(new String(encode(csv -> csv.writeDecimal(amount)), StandardCharsets.UTF_8))
+                        .isEqualTo(amount.toPlainString());
+            }
+
+            Random random = new Random(42);
+            for (int i = 0; i < 10_000; i++) {
+                BigDecimal amount = BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(8));
+                assertThat(new String(encode(csv -> csv.writeDecimal(amount)), StandardCharsets.UTF_8))
+                        .isEqualTo(amount.toPlainString());
+            }
+        }
+
+        @Test
+        @DisplayName("should write numbers as String.valueOf did")
+        void shouldMatchStringValueOf() throws IOException {
+            Long[] values = {null, 0L, 7L, -7L, 999_999_999_999_999_999L, 1_000_000_000_000_000_000L,
+                    Long.MAX_VALUE, Long.MIN_VALUE};
+            for (Long value : values) {
+                assertThat(new String(encode(csv -> csv.writeLong(value)), StandardCharsets.UTF_8))
+                        .isEqualTo(String.valueOf(value));
+            }
+        }
+
+        @Test
+        @DisplayName("should write dates as DATE_FMT did, and null as an empty field")
+        void shouldMatchDateFormat() throws IOException {
+            LocalDateTime[] dates = {
+                    LocalDateTime.of(2024, 3, 5, 7, 8, 9, 123_456_789), LocalDateTime.of(1, 1, 1, 0, 0),
+                    LocalDateTime.of(9999, 12, 31, 23, 59, 59), LocalDateTime.of(10000, 1, 1, 0, 0),
+                    LocalDateTime.of(0, 6, 1, 0, 0), LocalDateTime.of(-5, 6, 1, 0, 0), LocalDateTime.of(987, 6, 1, 12, 0)
+            };
+            for (LocalDateTime date : dates) {
+                assertThat(new String(encode(csv -> csv.writeDateTime(date)), StandardCharsets.UTF_8))
+                        .isEqualTo(date.format(DATE_FMT));
+            }
+            assertThat(encode(csv -> csv.writeDateTime(null))).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Framing")
+    class Framing {
+
+        @Test
+        @DisplayName("should write the BOM and line separator the BufferedWriter did")
+        void shouldMatchBomAndNewLine() throws IOException {
+            assertThat(encode(csv -> {
+                csv.writeBom();
+                csv.writeRaw(OrderCsvWriter.HEADER);
+                csv.endRow();
+            })).isEqualTo(legacy(writer -> {
+                writer.write('\uFEFF');
+                writer.write(OrderCsvWriter.HEADER);
+                writer.newLine();
+            }));
+        }
+    }
+
+    private static String escapeCSV(String value) {
+        if (value == null) return "";
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static byte[] encode(Encoding encoding) throws IOException {
+        return encode(1 << 16, encoding);
+    }
+
+    private static byte[] encode(int bufferSize, Encoding encoding) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvEncoder csv = new CsvEncoder(out, bufferSize);
+        encoding.write(csv);
+        csv.flush();
+        return out.toByteArray();
+    }
+
+    private static byte[] legacy(LegacyWriting writing) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writing.write(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Encoding {
+        void write(CsvEncoder csv) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface LegacyWriting {
+        void write(BufferedWriter writer) throws IOException;
+    }
+}
@@ -0,0 +1,174 @@
+package com.ecommerce.order.export;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderColumnarFormatTest {
+
+    private List<Order> orders;
+
+    @BeforeEach
+    void setUp() {
+        orders = new ArrayList<>();
+        Order.OrderStatus[] statuses = Order.OrderStatus.values();
+        for (int i = 0; i < 10; i++) {
+            Order order = new Order();
+            order.setId(1_000L + i * 7L);
+            order.setUserId(10L + i % 3);
+            order.setStatus(statuses[i % statuses.length]);
+            order.setTotalAmount(new BigDecimal("19.99").multiply(BigDecimal.valueOf(i)));
+            order.setPaymentMethod(i % 2 == 0 ? "CREDIT_CARD" : "PAYPAL");
+            order.setShippingAddress("12" + i + " Main St, Springfield");
+            order.setOrderDate(LocalDateTime.of(2022, 6, 15, 14, 30).plusMinutes(i * 97L).plusNanos(i * 1_000L));
+            order.setItemCount(i + 1);
+            orders.add(order);
+        }
+
+        // Nulls and text that needs more than one byte per character
+        Order sparse = orders.get(4);
+        sparse.setStatus(null);
+        sparse.setTotalAmount(null);
+        sparse.setPaymentMethod(null);
+        sparse.setShippingAddress(null);
+        sparse.setOrderDate(null);
+        orders.get(5).setShippingAddress("Königstraße 5, Zürich 🏠");
+        orders.get(6).setTotalAmount(new BigDecimal("-5.25"));
+    }
+
+    @Nested
+    @DisplayName("Round Trip")
+    class RoundTrip {
+
+        @Test
+        @DisplayName("should read back every column across several blocks")
+        void shouldReadBackEveryColumn() throws IOException {
+            byte[] export = write(orders, 3);
+
+            List<OrderColumnarBatch> batches = new ArrayList<>();
+            try (OrderColumnarReader reader = new OrderColumnarReader(new ByteArrayInputStream(export))) {
+                assertThat(reader.getScale()).isEqualTo(2);
+                for (OrderColumnarBatch batch; (batch = reader.readBatch()) != null; ) {
+                    batches.add(batch);
+                }
+                assertThat(reader.readBatch()).isNull();
+            }
+
+            assertThat(batches).extracting(OrderColumnarBatch::size).containsExactly(3, 3, 3, 1);
+            int index = 0;
+            for (OrderColumnarBatch batch : batches) {
+                for (int row = 0; row < batch.size(); row++) {
+                    Order order = orders.get(index++);
+                    assertThat(batch.getId(row)).isEqualTo(order.getId());
+                    assertThat(batch.getUserId(row)).isEqualTo(order.getUserId());
+                    assertThat(batch.getStatus(row))
+                            .isEqualTo(order.getStatus() != null ? order.getStatus().name() : null);
+                    assertThat(batch.getTotalAmount(row))
+                            .isEqualByComparingTo(order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO);
+                    assertThat(batch.getPaymentMethod(row)).isEqualTo(order.getPaymentMethod());
+                    assertThat(batch.getShippingAddress(row)).isEqualTo(order.getShippingAddress());
+                    assertThat(batch.hasOrderDate(row)).isEqualTo(order.getOrderDate() != null);
+                    assertThat(batch.getOrderDate(row)).isEqualTo(order.getOrderDate());
+                    assertThat(batch.getItemCount(row)).isEqualTo(order.getItemCount());
+                }
+            }
+            assertThat(index).isEqualTo(orders.size());
+        }
+
+        @Test
+        @DisplayName("should fall back to the item list when item_count is missing")
+        void shouldFallBackToItemList() throws IOException {
+            Order order = orders.get(0);
+            order.setItemCount(null);
+            order.getItems().add(new OrderItem());
+            order.getItems().add(new OrderItem());
+
+            try (OrderColumnarReader reader = new OrderColumnarReader(new ByteArrayInputStream(write(List.of(order), 4)))) {
+                assertThat(reader.readBatch().getItemCount(0)).isEqualTo(2);
+            }
+        }
+
+        @Test
+        @DisplayName("should read an export with no orders")
+        void shouldReadEmptyExport() throws IOException {
+            try (OrderColumnarReader reader = new OrderColumnarReader(new ByteArrayInputStream(write(List.of(), 4)))) {
+                assertThat(reader.readBatch()).isNull();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Corrupt Input")
+    class CorruptInput {
+
+        @Test
+        @DisplayName("should fail on an export cut short at any byte")
+        void shouldDetectTruncation() throws IOException {
+            byte[] export = write(orders, 3);
+
+            for (int length = 0; length < export.length; length++) {
+                byte[] truncated = Arrays.copyOf(export, length);
+                assertThatThrownBy(() -> readAll(truncated))
+                        .as("export cut to %d of %d bytes", length, export.length)
+                        .isInstanceOf(IOException.class);
+            }
+        }
+
+        @Test
+        @DisplayName("should fail when the end marker counts a different number of orders")
+        void shouldDetectMissingBlock() throws IOException {
+            byte[] export = write(orders, 3);
+            // The end marker is a zero block length followed by the order count, 10, as one byte
+            export[export.length - 1] = 9;
+
+            assertThatThrownBy(() -> readAll(export))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("declares 9 orders but holds 10");
+        }
+
+        @Test
+        @DisplayName("should reject input that is not a columnar export")
+        void shouldRejectOtherInput() {
+            byte[] csv = "OrderID,UserID\n1,2\n".getBytes();
+
+            assertThatThrownBy(() -> readAll(csv))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("Not a columnar order export");
+        }
+    }
+
+    private static byte[] write(List<Order> orders, int blockRows) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OrderColumnarWriter writer = new OrderColumnarWriter(out, blockRows);
+        for (Order order : orders) {
+            writer.write(order);
+        }
+        assertThat(writer.finish()).isEqualTo(orders.size());
+        return out.toByteArray();
+    }
+
+    private static long readAll(byte[] export) throws IOException {
+        long rows = 0;
+        try (OrderColumnarReader reader = new OrderColumnarReader(new ByteArrayInputStream(export))) {
+            for (OrderColumnarBatch batch; (batch = reader.readBatch()) != null; ) {
+                rows += batch.size();
+            }
+        }
+        return rows;
+    }
+}
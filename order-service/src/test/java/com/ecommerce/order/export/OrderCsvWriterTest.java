@@ -0,0 +1,56 @@
+package com.ecommerce.order.export;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderCsvWriterTest {
+
+    private static final String NL = System.lineSeparator();
+
+    @Test
+    @DisplayName("should write the header and rows the BufferedWriter export wrote")
+    void shouldWriteRowsAsBefore() throws IOException {
+        Order order = new Order();
+        order.setId(42L);
+        order.setUserId(10L);
+        order.setStatus(Order.OrderStatus.SHIPPED);
+        order.setTotalAmount(new BigDecimal("159.90"));
+        order.setPaymentMethod("CREDIT_CARD");
+        order.setShippingAddress("123 Main St, Springfield \"Unit 4\"");
+        order.setOrderDate(LocalDateTime.of(2022, 6, 15, 14, 30, 5, 999_000_000));
+        order.setItemCount(3);
+
+        // No item_count yet, no status, total or date: the fallbacks the export has always used
+        Order sparse = new Order();
+        sparse.setId(43L);
+        sparse.setUserId(11L);
+        sparse.setStatus(null);
+        sparse.getItems().add(new OrderItem());
+        sparse.getItems().add(new OrderItem());
+
+        assertThat(write(order, sparse)).isEqualTo("\uFEFF" + OrderCsvWriter.HEADER + NL
+                + "42,10,SHIPPED,159.90,CREDIT_CARD,\"123 Main St, Springfield \"\"Unit 4\"\"\",2022-06-15 14:30:05,3" + NL
+                + "43,11,,0,,,,2" + NL);
+    }
+
+    private static String write(Order... orders) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OrderCsvWriter writer = new OrderCsvWriter(out, 64);
+        writer.writeHeader();
+        for (Order order : orders) {
+            writer.write(order);
+        }
+        writer.flush();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,210 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderProcessingStatus;
+import com.ecommerce.order.dto.StatusTransitionResult;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncOrderPipelineTest {
+
+    private static final Long ORDER_ID = 41L;
+    private static final BigDecimal TOTAL = new BigDecimal("59.98");
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private ProductStockClient productStockClient;
+
+    private AsyncOrderPipeline pipeline;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment();
+        for (OrderProcessingStatus.Stage stage : OrderProcessingStatus.Stage.values()) {
+            environment.setProperty("order.pipeline." + stage.name().toLowerCase().replace('_', '-') + ".threads", "1");
+        }
+        pipeline = new AsyncOrderPipeline(new SimpleMeterRegistry(), environment, 100, 1_000);
+        ReflectionTestUtils.setField(pipeline, "orderService", orderService);
+        ReflectionTestUtils.setField(pipeline, "paymentService", paymentService);
+        ReflectionTestUtils.setField(pipeline, "productStockClient", productStockClient);
+
+        order = new Order();
+        order.setUserId(7L);
+        order.setPaymentMethod("CREDIT_CARD");
+        OrderItem item = new OrderItem();
+        item.setProductId(3L);
+        item.setProductName("Widget");
+        item.setQuantity(2);
+        item.setUnitPrice(new BigDecimal("29.99"));
+        order.getItems().add(item);
+
+        lenient().when(orderService.acceptOrder(order)).thenAnswer(invocation -> {
+            order.setId(ORDER_ID);
+            order.setStatus(Order.OrderStatus.PENDING);
+            return order;
+        });
+        lenient().when(paymentService.isValidPaymentMethod("CREDIT_CARD")).thenReturn(true);
+        lenient().when(orderService.priceOrder(ORDER_ID)).thenReturn(copy(order, Order.OrderStatus.PENDING));
+        lenient().when(orderService.cancelOrder(ORDER_ID))
+                .thenReturn(StatusTransitionResult.applied(ORDER_ID, Order.OrderStatus.CANCELLED));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.shutdown();
+    }
+
+    @Nested
+    @DisplayName("Payment Stage")
+    class PaymentStage {
+
+        @Test
+        @DisplayName("should charge a pending order and complete")
+        void shouldCompletePendingOrder() throws InterruptedException {
+            when(orderService.getOrderById(ORDER_ID)).thenReturn(copy(order, Order.OrderStatus.PENDING));
+            when(paymentService.processPayment(ORDER_ID, TOTAL, "CREDIT_CARD"))
+                    .thenReturn(payment("COMPLETED", "Payment processed successfully"));
+
+            OrderProcessingStatus status = runToEnd();
+
+            assertThat(status.getState()).isEqualTo(OrderProcessingStatus.State.COMPLETED);
+            verify(productStockClient).reserve(order.getItems());
+            verify(productStockClient, never()).release(any());
+            verify(orderService, never()).cancelOrder(any());
+        }
+
+        @Test
+        @DisplayName("should not charge an order cancelled before payment and should release its stock")
+        void shouldFailCancelledOrder() throws InterruptedException {
+            when(orderService.getOrderById(ORDER_ID)).thenReturn(copy(order, Order.OrderStatus.CANCELLED));
+            when(orderService.cancelOrder(ORDER_ID)).thenReturn(StatusTransitionResult.conflict(
+                    ORDER_ID, Order.OrderStatus.CANCELLED, Order.OrderStatus.CANCELLED));
+
+            OrderProcessingStatus status = runToEnd();
+
+            assertThat(status.getState()).isEqualTo(OrderProcessingStatus.State.FAILED);
+            assertThat(status.getStage()).isEqualTo(OrderProcessingStatus.Stage.PAY);
+            assertThat(status.getMessage()).contains("no longer PENDING").contains("CANCELLED");
+            verify(paymentService, never()).processPayment(any(), any(), anyString());
+            verify(productStockClient).release(order.getItems());
+        }
+
+        @Test
+        @DisplayName("should fail and release stock when the charge is refunded because the order moved on")
+        void shouldFailRefundedPayment() throws InterruptedException {
+            when(orderService.getOrderById(ORDER_ID)).thenReturn(copy(order, Order.OrderStatus.PENDING));
+            when(paymentService.processPayment(ORDER_ID, TOTAL, "CREDIT_CARD"))
+                    .thenReturn(payment("REFUNDED", "Order is CANCELLED; payment refunded"));
+
+            OrderProcessingStatus status = runToEnd();
+
+            assertThat(status.getState()).isEqualTo(OrderProcessingStatus.State.FAILED);
+            assertThat(status.getStage()).isEqualTo(OrderProcessingStatus.Stage.PAY);
+            assertThat(status.getMessage()).isEqualTo("Order is CANCELLED; payment refunded");
+            verify(productStockClient).release(order.getItems());
+            verify(orderService).cancelOrder(ORDER_ID);
+        }
+    }
+
+    @Nested
+    @DisplayName("Compensation")
+    class Compensation {
+
+        @Test
+        @DisplayName("should cancel without releasing stock when validation fails")
+        void shouldCancelInvalidOrder() throws InterruptedException {
+            when(orderService.validateNewOrder(order)).thenReturn("Product 3 is not available");
+
+            OrderProcessingStatus status = runToEnd();
+
+            assertThat(status.getState()).isEqualTo(OrderProcessingStatus.State.FAILED);
+            assertThat(status.getStage()).isEqualTo(OrderProcessingStatus.Stage.VALIDATE);
+            assertThat(status.getMessage()).isEqualTo("Product 3 is not available");
+            verify(orderService).cancelOrder(ORDER_ID);
+            verifyNoInteractions(productStockClient);
+        }
+
+        @Test
+        @DisplayName("should not release stock that could not be reserved")
+        void shouldNotReleaseUnreservedStock() throws InterruptedException {
+            doThrow(new IllegalStateException("Insufficient stock for product 3"))
+                    .when(productStockClient).reserve(order.getItems());
+
+            OrderProcessingStatus status = runToEnd();
+
+            assertThat(status.getState()).isEqualTo(OrderProcessingStatus.State.FAILED);
+            assertThat(status.getStage()).isEqualTo(OrderProcessingStatus.Stage.RESERVE_STOCK);
+            verify(productStockClient, never()).release(any());
+            verify(orderService).cancelOrder(ORDER_ID);
+            verify(paymentService, never()).processPayment(any(), any(), anyString());
+        }
+
+        @Test
+        @DisplayName("should still report the failure when the order cannot be cancelled")
+        void shouldFailWhenCancelThrows() throws InterruptedException {
+            when(orderService.getOrderById(ORDER_ID)).thenReturn(copy(order, Order.OrderStatus.PENDING));
+            when(paymentService.processPayment(ORDER_ID, TOTAL, "CREDIT_CARD"))
+                    .thenReturn(payment("FAILED", "Card declined"));
+            when(orderService.cancelOrder(ORDER_ID)).thenThrow(new IllegalStateException("Database unavailable"));
+
+            OrderProcessingStatus status = runToEnd();
+
+            assertThat(status.getState()).isEqualTo(OrderProcessingStatus.State.FAILED);
+            assertThat(status.getMessage()).isEqualTo("Card declined");
+            verify(productStockClient).release(order.getItems());
+        }
+    }
+
+    private OrderProcessingStatus runToEnd() throws InterruptedException {
+        OrderProcessingStatus accepted = pipeline.submit(order);
+        assertThat(accepted.getOrderId()).isEqualTo(ORDER_ID);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        OrderProcessingStatus status = pipeline.getStatus(ORDER_ID);
+        while (!status.isTerminal()) {
+            assertThat(System.nanoTime()).as("order still %s", status.getState()).isLessThan(deadline);
+            Thread.sleep(10);
+            status = pipeline.getStatus(ORDER_ID);
+        }
+        return status;
+    }
+
+    private static Order copy(Order order, Order.OrderStatus status) {
+        Order copy = new Order();
+        copy.setId(ORDER_ID);
+        copy.setUserId(order.getUserId());
+        copy.setPaymentMethod(order.getPaymentMethod());
+        copy.setStatus(status);
+        copy.setTotalAmount(TOTAL);
+        return copy;
+    }
+
+    private static PaymentService.PaymentResult payment(String status, String message) {
+        return new PaymentService.PaymentResult("TXN-1", status, TOTAL, "CREDIT_CARD", message, ORDER_ID);
+    }
+}
@@ -0,0 +1,239 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.IdempotencyRecord;
+import com.ecommerce.order.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String KEY = "3f0c2a9e-retry";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private IdempotencyService idempotencyService;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(100, 24, 1_000);
+        ReflectionTestUtils.setField(idempotencyService, "idempotencyRecordRepository", idempotencyRecordRepository);
+        ReflectionTestUtils.setField(idempotencyService, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(idempotencyService, "objectMapper", objectMapper);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0)
+                        .doInTransaction(transactionStatus));
+        lenient().when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        executions = new AtomicInteger();
+    }
+
+    @Nested
+    @DisplayName("Replay")
+    class Replay {
+
+        @Test
+        @DisplayName("should run the action once and replay its body for a retry")
+        void shouldReplayStoredBody() {
+            IdempotencyService.Result<Receipt> first = execute(new PayRequest(7L, "CREDIT_CARD"));
+            IdempotencyService.Result<Receipt> retry = execute(new PayRequest(7L, "CREDIT_CARD"));
+
+            assertThat(first.isReplayed()).isFalse();
+            assertThat(first.getStatus()).isEqualTo(201);
+            assertThat(retry.isReplayed()).isTrue();
+            assertThat(retry.getStatus()).isEqualTo(201);
+            assertThat(retry.getBody().orderId).isEqualTo(first.getBody().orderId);
+            assertThat(retry.getBody().status).isEqualTo("PENDING");
+            assertThat(executions).hasValue(1);
+        }
+
+        @Test
+        @DisplayName("should record the response in the key's row")
+        void shouldStoreResponse() throws Exception {
+            execute(new PayRequest(7L, "CREDIT_CARD"));
+
+            ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+            verify(idempotencyRecordRepository).saveAndFlush(saved.capture());
+            assertThat(saved.getValue().getIdempotencyKey()).isEqualTo(KEY);
+            assertThat(saved.getValue().getResponseStatus()).isEqualTo(201);
+            assertThat(objectMapper.readValue(saved.getValue().getResponseBody(), Receipt.class).orderId)
+                    .isEqualTo(1L);
+        }
+
+        @Test
+        @DisplayName("should replay a response stored by another node without running the action")
+        void shouldReplayFromTable() throws Exception {
+            IdempotencyRecord stored = storedRecord(new PayRequest(7L, "CREDIT_CARD"), new Receipt(55L, "PENDING"));
+            when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.of(stored));
+
+            IdempotencyService.Result<Receipt> result = execute(new PayRequest(7L, "CREDIT_CARD"));
+
+            assertThat(result.isReplayed()).isTrue();
+            assertThat(result.getBody().orderId).isEqualTo(55L);
+            assertThat(executions).hasValue(0);
+            verify(idempotencyRecordRepository, never()).saveAndFlush(any());
+        }
+
+        @Test
+        @DisplayName("should run the action again once the stored response has expired")
+        void shouldReplaceExpiredRecord() throws Exception {
+            IdempotencyRecord stored = storedRecord(new PayRequest(7L, "CREDIT_CARD"), new Receipt(55L, "PENDING"));
+            stored.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+            when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.of(stored));
+
+            IdempotencyService.Result<Receipt> result = execute(new PayRequest(7L, "CREDIT_CARD"));
+
+            assertThat(result.isReplayed()).isFalse();
+            assertThat(result.getBody().orderId).isEqualTo(1L);
+            verify(idempotencyRecordRepository).delete(stored);
+        }
+    }
+
+    @Nested
+    @DisplayName("Conflicts")
+    class Conflicts {
+
+        @Test
+        @DisplayName("should reject a key reused for a different request")
+        void shouldRejectDifferentBody() {
+            execute(new PayRequest(7L, "CREDIT_CARD"));
+
+            assertThatThrownBy(() -> execute(new PayRequest(8L, "CREDIT_CARD")))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .extracting(e -> ((ResponseStatusException) e).getStatus())
+                    .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+            assertThat(executions).hasValue(1);
+        }
+
+        @Test
+        @DisplayName("should reject a different request whose key is stored in the table")
+        void shouldRejectDifferentBodyFromTable() throws Exception {
+            IdempotencyRecord stored = storedRecord(new PayRequest(7L, "CREDIT_CARD"), new Receipt(55L, "PENDING"));
+            when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.of(stored));
+
+            assertThatThrownBy(() -> execute(new PayRequest(7L, "COD")))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .extracting(e -> ((ResponseStatusException) e).getStatus())
+                    .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+            assertThat(executions).hasValue(0);
+        }
+
+        @Test
+        @DisplayName("should replay the response committed by a concurrent request for the same key")
+        void shouldReplayAfterInsertConflict() throws Exception {
+            IdempotencyRecord committed = storedRecord(new PayRequest(7L, "CREDIT_CARD"), new Receipt(55L, "PENDING"));
+            when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.empty(), Optional.of(committed));
+            when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                    .thenThrow(new DataIntegrityViolationException("Duplicate entry for key 'PRIMARY'"));
+
+            IdempotencyService.Result<Receipt> result = execute(new PayRequest(7L, "CREDIT_CARD"));
+
+            assertThat(result.isReplayed()).isTrue();
+            assertThat(result.getBody().orderId).isEqualTo(55L);
+            assertThat(executions).hasValue(0);
+        }
+
+        @Test
+        @DisplayName("should report a conflict when the concurrent request's key cannot be read")
+        void shouldConflictWhenKeyInProgress() {
+            when(idempotencyRecordRepository.findById(KEY)).thenReturn(Optional.empty());
+            when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                    .thenThrow(new DataIntegrityViolationException("Duplicate entry for key 'PRIMARY'"));
+
+            assertThatThrownBy(() -> execute(new PayRequest(7L, "CREDIT_CARD")))
+                    .isInstanceOf(ResponseStatusException.class)
+                    .extracting(e -> ((ResponseStatusException) e).getStatus())
+                    .isEqualTo(HttpStatus.CONFLICT);
+        }
+
+        @Test
+        @DisplayName("should not record a failed action, so a retry runs it again")
+        void shouldRetryAfterFailure() {
+            Supplier<Receipt> failing = () -> {
+                executions.incrementAndGet();
+                throw new IllegalStateException("Insufficient stock");
+            };
+            assertThatThrownBy(() -> idempotencyService.execute(KEY, new PayRequest(7L, "CREDIT_CARD"),
+                    HttpStatus.CREATED, Receipt.class, failing))
+                    .isInstanceOf(IllegalStateException.class);
+
+            IdempotencyService.Result<Receipt> retry = execute(new PayRequest(7L, "CREDIT_CARD"));
+
+            assertThat(retry.isReplayed()).isFalse();
+            assertThat(executions).hasValue(2);
+        }
+    }
+
+    private IdempotencyService.Result<Receipt> execute(PayRequest request) {
+        return idempotencyService.execute(KEY, request, HttpStatus.CREATED, Receipt.class,
+                () -> new Receipt((long) executions.incrementAndGet(), "PENDING"));
+    }
+
+    /**
+     * The row a previous execution of {@code request} committed, hashed the
+     * same way the service hashes it.
+     */
+    private IdempotencyRecord storedRecord(PayRequest request, Receipt response) throws Exception {
+        String requestHash = ReflectionTestUtils.invokeMethod(idempotencyService, "hash", request);
+        LocalDateTime createdAt = LocalDateTime.now().minusMinutes(5);
+        return new IdempotencyRecord(KEY, requestHash, HttpStatus.CREATED.value(),
+                objectMapper.writeValueAsString(response), createdAt, createdAt.plusHours(24));
+    }
+
+    static class PayRequest {
+        public Long orderId;
+        public String paymentMethod;
+
+        PayRequest(Long orderId, String paymentMethod) {
+            this.orderId = orderId;
+            this.paymentMethod = paymentMethod;
+        }
+    }
+
+    static class Receipt {
+        public Long orderId;
+        public String status;
+
+        Receipt() {
+        }
+
+        Receipt(Long orderId, String status) {
+            this.orderId = orderId;
+            this.status = status;
+        }
+    }
+}
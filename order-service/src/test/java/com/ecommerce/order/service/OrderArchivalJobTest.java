@@ -0,0 +1,140 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderArchivalJobTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderArchiveStore orderArchiveStore;
+
+    @Mock
+    private OrderReadCache orderReadCache;
+
+    @Mock
+    private OrderRevenueAggregator orderRevenueAggregator;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    @InjectMocks
+    private OrderArchivalJob orderArchivalJob;
+
+    private Order delivered;
+    private Order alsoDelivered;
+    private Order cancelled;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderArchivalJob, "batchSize", 100);
+        lenient().when(orderArchiveStore.getDirectory()).thenReturn(Path.of("/var/lib/orders/archive"));
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0)
+                        .doInTransaction(transactionStatus));
+
+        delivered = order(1L, Order.OrderStatus.DELIVERED, "30.00");
+        alsoDelivered = order(2L, Order.OrderStatus.DELIVERED, "12.50");
+        cancelled = order(3L, Order.OrderStatus.CANCELLED, "8.00");
+        lenient().when(orderRepository.findArchivableIds(eq(OrderArchivalJob.ARCHIVABLE), eq(CUTOFF), any()))
+                .thenReturn(List.of(1L, 2L, 3L), List.of());
+        lenient().when(orderRepository.findDistinctByIdIn(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(delivered, alsoDelivered, cancelled));
+    }
+
+    @Nested
+    @DisplayName("Revenue Aggregates")
+    class RevenueAggregates {
+
+        @Test
+        @DisplayName("should record every deleted order as removed, after writing it to the archive")
+        void shouldRecordRemovedOrders() {
+            when(orderRepository.deleteArchived(List.of(1L, 2L), Order.OrderStatus.DELIVERED)).thenReturn(2);
+            when(orderRepository.deleteArchived(List.of(3L), Order.OrderStatus.CANCELLED)).thenReturn(1);
+
+            int archived = orderArchivalJob.archive(CUTOFF);
+
+            assertThat(archived).isEqualTo(3);
+            verify(orderArchiveStore).append(List.of(delivered, alsoDelivered, cancelled));
+            verify(orderRevenueAggregator).recordRemoved(List.of(delivered, alsoDelivered));
+            verify(orderRevenueAggregator).recordRemoved(List.of(cancelled));
+            verify(orderRevenueAggregator, never()).recompute();
+            verify(orderReadCache).invalidate(1L);
+            verify(orderReadCache).invalidate(3L);
+        }
+
+        @Test
+        @DisplayName("should recompute instead of guessing when an order moved on before its delete")
+        void shouldRecomputeAfterPartialDelete() {
+            // Order 2 was refunded after it was read, so only order 1 of the group is deleted
+            when(orderRepository.deleteArchived(List.of(1L, 2L), Order.OrderStatus.DELIVERED)).thenReturn(1);
+            when(orderRepository.deleteArchived(List.of(3L), Order.OrderStatus.CANCELLED)).thenReturn(1);
+
+            int archived = orderArchivalJob.archive(CUTOFF);
+
+            assertThat(archived).isEqualTo(2);
+            verify(orderRevenueAggregator, never()).recordRemoved(List.of(delivered, alsoDelivered));
+            verify(orderRevenueAggregator).recordRemoved(List.of(cancelled));
+            verify(orderRevenueAggregator).recompute();
+        }
+    }
+
+    @Nested
+    @DisplayName("Safety")
+    class Safety {
+
+        @Test
+        @DisplayName("should refuse to delete anything without an absolute archive directory")
+        void shouldRequireDurableDirectory() {
+            when(orderArchiveStore.getDirectory()).thenReturn(Path.of("data/order-archive"));
+
+            assertThatThrownBy(() -> orderArchivalJob.archive(CUTOFF))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("order.archive.dir");
+            verifyNoInteractions(orderRepository, orderRevenueAggregator);
+            verify(orderArchiveStore, never()).append(anyList());
+        }
+    }
+
+    private static Order order(long id, Order.OrderStatus status, String totalAmount) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId(7L);
+        order.setStatus(status);
+        order.setTotalAmount(new BigDecimal(totalAmount));
+        order.setOrderDate(CUTOFF.minusDays(200 + id));
+        return order;
+    }
+}
@@ -0,0 +1,181 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderArchiveSegmentTest {
+
+    private static final int ROW_GROUP_SIZE = 5;
+
+    @TempDir
+    Path directory;
+
+    private List<Order> orders;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        orders = new ArrayList<>();
+        Order.OrderStatus[] statuses = Order.OrderStatus.values();
+        long itemId = 50_000;
+        for (int i = 0; i < 23; i++) {
+            Order order = new Order();
+            order.setId(9_000L - i * 13L);
+            order.setUserId(100L + i % 4);
+            order.setStatus(statuses[i % statuses.length]);
+            order.setTotalAmount(new BigDecimal("12.34").multiply(BigDecimal.valueOf(i)).setScale(2));
+            order.setPaymentMethod(i % 3 == 0 ? "CREDIT_CARD" : "E_WALLET");
+            order.setShippingAddress(i + " Market St, Springfield");
+            order.setOrderDate(LocalDateTime.of(2023, 1, 1, 8, 0).plusHours(i * 31L).plusNanos(i * 1_000L));
+            order.setUpdatedAt(order.getOrderDate().plusDays(2));
+            // Zero to three items per order, so item runs start and end anywhere in a row group
+            for (int j = 0; j < i % 4; j++) {
+                OrderItem item = new OrderItem();
+                item.setId(itemId++);
+                item.setOrder(order);
+                item.setProductId(700L + j);
+                item.setProductName("Product " + j);
+                item.setQuantity(j + 1);
+                item.setUnitPrice(new BigDecimal("4.50").add(BigDecimal.valueOf(i)));
+                item.setSubtotal(item.getUnitPrice().multiply(BigDecimal.valueOf(j + 1)));
+                order.getItems().add(item);
+            }
+            order.setItemCount(order.getItems().size());
+            orders.add(order);
+        }
+
+        // Nulls, text that needs more than one byte per character, and negative amounts
+        orders.get(6).setPaymentMethod(null);
+        orders.get(6).setShippingAddress(null);
+        orders.get(6).setUpdatedAt(null);
+        orders.get(7).setShippingAddress("Königstraße 5, Zürich 🏠");
+        orders.get(9).setTotalAmount(new BigDecimal("-3.10"));
+        orders.get(11).getItems().get(1).setProductName("");
+
+        orders.sort(Comparator.comparing(Order::getUserId).thenComparing(OrderArchiveStore.NEWEST_FIRST));
+        file = directory.resolve("segment.oarc");
+        OrderArchiveSegment.write(file, orders, ROW_GROUP_SIZE);
+    }
+
+    @Nested
+    @DisplayName("Round Trip")
+    class RoundTrip {
+
+        @Test
+        @DisplayName("should read back every user range with its keys")
+        void shouldReadUserRanges() throws IOException {
+            List<Order> read = new ArrayList<>();
+            try (OrderArchiveSegment segment = OrderArchiveSegment.open(file)) {
+                for (OrderArchiveSegment.UserRange range : segment.getUserRanges()) {
+                    List<Order> rows = segment.read(range);
+                    assertThat(rows).extracting(Order::getUserId).containsOnly(range.userId);
+                    assertThat(range.newestId).isEqualTo(rows.get(0).getId());
+                    assertThat(range.newestDate).isEqualTo(rows.get(0).getOrderDate());
+                    assertThat(range.oldestId).isEqualTo(rows.get(rows.size() - 1).getId());
+                    assertThat(range.oldestDate).isEqualTo(rows.get(rows.size() - 1).getOrderDate());
+                    read.addAll(rows);
+                }
+            }
+
+            assertThat(read).isEqualTo(orders);
+        }
+
+        @Test
+        @DisplayName("should decode any run of rows at the start, middle or end of a row group")
+        void shouldReadEverySubRange() throws IOException {
+            try (OrderArchiveSegment segment = OrderArchiveSegment.open(file)) {
+                for (int group = 0; group * ROW_GROUP_SIZE < orders.size(); group++) {
+                    int rows = Math.min(ROW_GROUP_SIZE, orders.size() - group * ROW_GROUP_SIZE);
+                    for (int start = 0; start < rows; start++) {
+                        for (int count = 1; start + count <= rows; count++) {
+                            int first = group * ROW_GROUP_SIZE + start;
+                            OrderArchiveSegment.UserRange range = new OrderArchiveSegment.UserRange(
+                                    0, group, start, count, null, 0, null, 0);
+
+                            assertThat(segment.read(range))
+                                    .as("group %d rows %d..%d", group, start, start + count)
+                                    .isEqualTo(orders.subList(first, first + count));
+                        }
+                    }
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("should find every order by id, and nothing for an unknown id")
+        void shouldReadById() throws IOException {
+            try (OrderArchiveSegment segment = OrderArchiveSegment.open(file)) {
+                for (Order order : orders) {
+                    assertThat(segment.readById(order.getId())).isEqualTo(order);
+                }
+                assertThat(segment.readById(1L)).isNull();
+                assertThat(segment.readById(8_999L)).isNull();
+                assertThat(segment.readById(Long.MAX_VALUE)).isNull();
+            }
+        }
+
+        @Test
+        @DisplayName("should link decoded items to their order")
+        void shouldLinkItems() throws IOException {
+            try (OrderArchiveSegment segment = OrderArchiveSegment.open(file)) {
+                Order withItems = orders.stream().filter(o -> o.getItems().size() > 1).findFirst().orElseThrow();
+                Order order = segment.readById(withItems.getId());
+
+                assertThat(order.getItems()).hasSize(withItems.getItems().size())
+                        .allSatisfy(item -> assertThat(item.getOrder()).isSameAs(order));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Corrupt Input")
+    class CorruptInput {
+
+        @Test
+        @DisplayName("should refuse to write over an existing file")
+        void shouldNotOverwrite() {
+            assertThatThrownBy(() -> OrderArchiveSegment.write(file, orders, ROW_GROUP_SIZE))
+                    .isInstanceOf(IOException.class);
+        }
+
+        @Test
+        @DisplayName("should reject a file that is not a segment")
+        void shouldRejectOtherFile() throws IOException {
+            Path other = Files.write(directory.resolve("other.oarc"), "not an archive segment".getBytes());
+
+            assertThatThrownBy(() -> OrderArchiveSegment.open(other))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("Not an order archive segment");
+        }
+
+        @Test
+        @DisplayName("should reject a segment of another version")
+        void shouldRejectOtherVersion() throws IOException {
+            byte[] bytes = Files.readAllBytes(file);
+            // The version byte follows the four-byte magic
+            bytes[4] = 2;
+            Path other = Files.write(directory.resolve("other.oarc"), bytes);
+
+            assertThatThrownBy(() -> OrderArchiveSegment.open(other))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("Unsupported order archive segment version 2");
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderArchiveStoreTest {
+
+    private static final long USER = 42L;
+
+    @TempDir
+    Path directory;
+
+    private OrderArchiveStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Nested
+    @DisplayName("History Pages")
+    class HistoryPages {
+
+        @Test
+        @DisplayName("should page through orders spread over segments and row groups without gaps or repeats")
+        void shouldPageAcrossSegments() {
+            List<Order> all = new ArrayList<>();
+            // Three runs whose dates interleave, so every segment has ranges on both sides of most cursors
+            for (int run = 0; run < 3; run++) {
+                List<Order> batch = new ArrayList<>();
+                for (int i = 0; i < 11; i++) {
+                    long id = 1_000L + i * 3L + run;
+                    batch.add(order(id, USER, LocalDateTime.of(2023, 5, 1, 0, 0).plusHours(i * 5L + run * 2L)));
+                    batch.add(order(id + 500, USER + 1, LocalDateTime.of(2023, 5, 1, 0, 0).plusHours(i)));
+                }
+                // Two orders share a date, so the id has to break the tie
+                batch.add(order(2_000L + run, USER, LocalDateTime.of(2023, 5, 1, 10, 0)));
+                store.append(batch);
+                all.addAll(batch);
+            }
+            List<Order> expected = all.stream()
+                    .filter(order -> order.getUserId() == USER)
+                    .sorted(OrderArchiveStore.NEWEST_FIRST)
+                    .collect(Collectors.toList());
+
+            for (int pageSize : new int[]{1, 4, 7, 100}) {
+                assertThat(ids(pageThrough(pageSize))).as("page size %d", pageSize).isEqualTo(ids(expected));
+            }
+            assertThat(ids(store.findByUserId(USER))).isEqualTo(ids(expected));
+        }
+
+        @Test
+        @DisplayName("should return an order archived twice once, as its newest copy")
+        void shouldPreferNewestCopy() {
+            Order first = order(7L, USER, LocalDateTime.of(2023, 2, 1, 12, 0));
+            first.setStatus(Order.OrderStatus.SHIPPED);
+            Order other = order(8L, USER, LocalDateTime.of(2023, 1, 1, 12, 0));
+            store.append(List.of(first, other));
+
+            // A rerun after a failure archives the order again, in its later state
+            Order again = order(7L, USER, first.getOrderDate());
+            again.setStatus(Order.OrderStatus.DELIVERED);
+            store.append(List.of(again));
+
+            List<Order> page = store.findByUserIdBefore(USER, null, null, 10);
+            assertThat(page).extracting(Order::getId).containsExactly(7L, 8L);
+            assertThat(page.get(0).getStatus()).isEqualTo(Order.OrderStatus.DELIVERED);
+            assertThat(store.findByUserIdBefore(USER, null, null, 1))
+                    .extracting(Order::getStatus).containsExactly(Order.OrderStatus.DELIVERED);
+            assertThat(store.findByUserId(USER)).extracting(Order::getStatus)
+                    .containsExactly(Order.OrderStatus.DELIVERED, Order.OrderStatus.PENDING);
+            assertThat(store.findById(7L)).get().extracting(Order::getStatus).isEqualTo(Order.OrderStatus.DELIVERED);
+        }
+
+        @Test
+        @DisplayName("should return nothing for a user with no archived orders")
+        void shouldHandleUnknownUser() {
+            store.append(List.of(order(1L, USER, LocalDateTime.of(2023, 1, 1, 0, 0))));
+
+            assertThat(store.hasOrders(USER + 9)).isFalse();
+            assertThat(store.findByUserIdBefore(USER + 9, null, null, 10)).isEmpty();
+            assertThat(store.findByUserId(USER + 9)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Reopening")
+    class Reopening {
+
+        @Test
+        @DisplayName("should serve the same orders after a restart and drop unfinished segments")
+        void shouldReopen() throws IOException {
+            Order order = order(5L, USER, LocalDateTime.of(2023, 3, 1, 9, 30));
+            store.append(List.of(order));
+            Files.write(directory.resolve("segment-00000001.oarc.tmp"), new byte[]{1, 2, 3});
+            store.close();
+
+            store = open();
+            assertThat(Files.exists(directory.resolve("segment-00000001.oarc.tmp"))).isFalse();
+            assertThat(store.findById(5L)).contains(order);
+            assertThat(store.findById(6L)).isEmpty();
+
+            // New segments continue the numbering instead of overwriting
+            store.append(List.of(order(6L, USER, LocalDateTime.of(2023, 3, 2, 9, 30))));
+            assertThat(store.findByUserId(USER)).extracting(Order::getId).containsExactly(6L, 5L);
+        }
+    }
+
+    private OrderArchiveStore open() throws IOException {
+        OrderArchiveStore opened = new OrderArchiveStore(directory.toString(), 4);
+        opened.open();
+        return opened;
+    }
+
+    /**
+     * Read every page of the user's history, each starting after the last
+     * order of the one before, the way the history cursor does.
+     */
+    private List<Order> pageThrough(int pageSize) {
+        List<Order> read = new ArrayList<>();
+        LocalDateTime beforeDate = null;
+        Long beforeId = null;
+        while (true) {
+            List<Order> page = store.findByUserIdBefore(USER, beforeDate, beforeId, pageSize);
+            assertThat(page.size()).isLessThanOrEqualTo(pageSize);
+            if (page.isEmpty()) {
+                return read;
+            }
+            read.addAll(page);
+            Order last = page.get(page.size() - 1);
+            beforeDate = last.getOrderDate();
+            beforeId = last.getId();
+        }
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).collect(Collectors.toList());
+    }
+
+    private static Order order(long id, long userId, LocalDateTime orderDate) {
+        Order order = new Order();
+        order.setId(id);
+        order.setUserId(userId);
+        order.setTotalAmount(new BigDecimal("25.00"));
+        order.setPaymentMethod("COD");
+        order.setShippingAddress("1 Archive Way");
+        order.setOrderDate(orderDate);
+        OrderItem item = new OrderItem();
+        item.setId(id * 10);
+        item.setOrder(order);
+        item.setProductId(3L);
+        item.setProductName("Widget");
+        item.setQuantity(1);
+        item.setUnitPrice(new BigDecimal("25.00"));
+        item.setSubtotal(new BigDecimal("25.00"));
+        order.getItems().add(item);
+        order.setItemCount(1);
+        return order;
+    }
+}
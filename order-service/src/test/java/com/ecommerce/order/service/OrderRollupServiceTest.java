@@ -0,0 +1,104 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.entity.OrderRollup.Granularity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderRollupServiceTest {
+
+    @Nested
+    @DisplayName("Split Range Into Segments")
+    class Segments {
+
+        @Test
+        @DisplayName("should read hours, days, months, days and hours across several months")
+        void shouldUseCoarsestBucketsThatFit() {
+            List<OrderRollupService.Segment> segments = OrderRollupService.segments(
+                    LocalDateTime.of(2024, 1, 30, 22, 0), LocalDateTime.of(2024, 4, 2, 3, 0));
+
+            assertThat(segments).extracting(Object::toString).containsExactly(
+                    "HOUR [2024-01-30T22:00, 2024-01-31T00:00)",
+                    "DAY [2024-01-31T00:00, 2024-02-01T00:00)",
+                    "MONTH [2024-02-01T00:00, 2024-04-01T00:00)",
+                    "DAY [2024-04-01T00:00, 2024-04-02T00:00)",
+                    "HOUR [2024-04-02T00:00, 2024-04-02T03:00)");
+        }
+
+        @Test
+        @DisplayName("should read only hours within one day")
+        void shouldReadHoursWithinDay() {
+            List<OrderRollupService.Segment> segments = OrderRollupService.segments(
+                    LocalDateTime.of(2024, 3, 10, 5, 0), LocalDateTime.of(2024, 3, 10, 9, 0));
+
+            assertThat(segments).extracting(Object::toString)
+                    .containsExactly("HOUR [2024-03-10T05:00, 2024-03-10T09:00)");
+        }
+
+        @Test
+        @DisplayName("should read whole days within one month")
+        void shouldReadDaysWithinMonth() {
+            List<OrderRollupService.Segment> segments = OrderRollupService.segments(
+                    LocalDateTime.of(2024, 2, 3, 0, 0), LocalDateTime.of(2024, 2, 27, 0, 0));
+
+            assertThat(segments).extracting(Object::toString)
+                    .containsExactly("DAY [2024-02-03T00:00, 2024-02-27T00:00)");
+        }
+
+        @Test
+        @DisplayName("should read one month segment for a range on month boundaries")
+        void shouldReadWholeMonths() {
+            List<OrderRollupService.Segment> segments = OrderRollupService.segments(
+                    LocalDateTime.of(2023, 11, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0));
+
+            assertThat(segments).extracting(Object::toString)
+                    .containsExactly("MONTH [2023-11-01T00:00, 2024-02-01T00:00)");
+        }
+
+        @Test
+        @DisplayName("should return no segments for an empty range")
+        void shouldReturnNothingForEmptyRange() {
+            LocalDateTime time = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+            assertThat(OrderRollupService.segments(time, time)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should cover every range exactly once with aligned buckets")
+        void shouldCoverRangeContiguously() {
+            LocalDateTime base = LocalDateTime.of(2023, 12, 28, 0, 0);
+            for (int startHour = 0; startHour < 24 * 40; startHour += 7) {
+                for (int lengthHours = 0; lengthHours < 24 * 100; lengthHours += 13) {
+                    LocalDateTime from = base.plusHours(startHour);
+                    LocalDateTime to = from.plusHours(lengthHours);
+
+                    LocalDateTime cursor = from;
+                    for (OrderRollupService.Segment segment : OrderRollupService.segments(from, to)) {
+                        assertThat(segment.from).as("%s in [%s, %s)", segment, from, to).isEqualTo(cursor);
+                        assertThat(segment.to).isAfter(segment.from);
+                        assertThat(segment.granularity.truncate(segment.from)).isEqualTo(segment.from);
+                        assertThat(segment.granularity.truncate(segment.to)).isEqualTo(segment.to);
+                        cursor = segment.to;
+                    }
+                    assertThat(cursor).as("end of [%s, %s)", from, to).isEqualTo(to);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("should never read more than two hour and two day segments")
+        void shouldBoundSegmentCount() {
+            List<OrderRollupService.Segment> segments = OrderRollupService.segments(
+                    LocalDateTime.of(2020, 1, 15, 13, 0), LocalDateTime.of(2024, 8, 20, 7, 0));
+
+            assertThat(segments).hasSize(5);
+            assertThat(segments).extracting(segment -> segment.granularity).containsExactly(
+                    Granularity.HOUR, Granularity.DAY, Granularity.MONTH, Granularity.DAY, Granularity.HOUR);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.StatusTransitionResult;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.repository.OrderRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * The revenue aggregates and rollups are told exactly what each order left
+ * and entered: its status and total as they were when the UPDATE applied.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderServiceAggregateTest {
+
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderReadCache orderReadCache;
+
+    @Mock
+    private OrderRevenueAggregator orderRevenueAggregator;
+
+    @Mock
+    private OrderRollupService orderRollupService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    @Captor
+    private ArgumentCaptor<Collection<OrderRepository.StatusView>> recorded;
+
+    @Nested
+    @DisplayName("Create")
+    class Create {
+
+        @Test
+        @DisplayName("should record the new order with its priced total")
+        void shouldRecordCreatedOrder() {
+            Order order = new Order();
+            order.setUserId(7L);
+            order.getItems().add(item(new BigDecimal("19.99"), 3));
+            order.getItems().add(item(new BigDecimal("0.05"), 1));
+            when(orderRepository.save(order)).thenReturn(order);
+
+            Order saved = orderService.createOrder(order);
+
+            assertThat(saved.getStatus()).isEqualTo(Order.OrderStatus.PENDING);
+            assertThat(saved.getTotalAmount()).isEqualByComparingTo("60.02");
+            verify(orderRevenueAggregator).recordCreated(saved);
+            verify(orderRollupService).recordCreated(saved);
+        }
+
+        @Test
+        @DisplayName("should record an accepted order at zero until it is priced")
+        void shouldRecordAcceptedOrder() {
+            Order order = new Order();
+            order.setUserId(7L);
+            order.getItems().add(item(new BigDecimal("19.99"), 3));
+            when(orderRepository.save(order)).thenReturn(order);
+
+            Order saved = orderService.acceptOrder(order);
+
+            assertThat(saved.getTotalAmount()).isEqualByComparingTo("0");
+            verify(orderRevenueAggregator).recordCreated(saved);
+            verify(orderRollupService).recordCreated(saved);
+        }
+    }
+
+    @Nested
+    @DisplayName("Single Transition")
+    class SingleTransition {
+
+        @Test
+        @DisplayName("should record the status and total the order had when it moved")
+        void shouldRecordPreviousState() {
+            OrderRepository.StatusView view = view(1L, Order.OrderStatus.PENDING, "42.50");
+            when(orderRepository.findStatusViewById(1L)).thenReturn(Optional.of(view));
+            when(orderRepository.transitionStatus(eq(1L), eq(Order.OrderStatus.PENDING), eq(new BigDecimal("42.50")),
+                    eq(Order.OrderStatus.CANCELLED), any(LocalDateTime.class))).thenReturn(1);
+
+            StatusTransitionResult result = orderService.cancelOrder(1L);
+
+            assertThat(result.isApplied()).isTrue();
+            verify(orderRevenueAggregator).recordTransitions(List.of(view), Order.OrderStatus.CANCELLED);
+            verify(orderRollupService).recordTransitions(List.of(view), Order.OrderStatus.CANCELLED);
+            verify(orderReadCache).invalidate(1L);
+            verify(orderRepository, never()).lockStatusViewById(any());
+        }
+
+        @Test
+        @DisplayName("should retry with the locked state when the order was repriced after the first read")
+        void shouldRetryWithLockedState() {
+            OrderRepository.StatusView stale = view(1L, Order.OrderStatus.PENDING, "0.00");
+            OrderRepository.StatusView locked = view(1L, Order.OrderStatus.PENDING, "42.50");
+            when(orderRepository.findStatusViewById(1L)).thenReturn(Optional.of(stale));
+            when(orderRepository.lockStatusViewById(1L)).thenReturn(Optional.of(locked));
+            when(orderRepository.transitionStatus(eq(1L), eq(Order.OrderStatus.PENDING), eq(new BigDecimal("0.00")),
+                    eq(Order.OrderStatus.CANCELLED), any(LocalDateTime.class))).thenReturn(0);
+            when(orderRepository.transitionStatus(eq(1L), eq(Order.OrderStatus.PENDING), eq(new BigDecimal("42.50")),
+                    eq(Order.OrderStatus.CANCELLED), any(LocalDateTime.class))).thenReturn(1);
+
+            StatusTransitionResult result = orderService.cancelOrder(1L);
+
+            assertThat(result.isApplied()).isTrue();
+            verify(orderRevenueAggregator).recordTransitions(List.of(locked), Order.OrderStatus.CANCELLED);
+            verify(orderRevenueAggregator, never()).recordTransitions(List.of(stale), Order.OrderStatus.CANCELLED);
+        }
+
+        @Test
+        @DisplayName("should report a conflict and record nothing when the order moved on concurrently")
+        void shouldConflictWhenMovedOn() {
+            when(orderRepository.findStatusViewById(1L))
+                    .thenReturn(Optional.of(view(1L, Order.OrderStatus.PROCESSING, "42.50")));
+            when(orderRepository.transitionStatus(eq(1L), eq(Order.OrderStatus.PROCESSING), any(),
+                    eq(Order.OrderStatus.CANCELLED), any(LocalDateTime.class))).thenReturn(0);
+            when(orderRepository.lockStatusViewById(1L))
+                    .thenReturn(Optional.of(view(1L, Order.OrderStatus.SHIPPED, "42.50")));
+
+            StatusTransitionResult result = orderService.cancelOrder(1L);
+
+            assertThat(result.getOutcome()).isEqualTo(StatusTransitionResult.Outcome.CONFLICT);
+            assertThat(result.getCurrentStatus()).isEqualTo(Order.OrderStatus.SHIPPED);
+            verifyNoInteractions(orderRevenueAggregator, orderRollupService);
+        }
+
+        @Test
+        @DisplayName("should report a missing order without recording anything")
+        void shouldReportNotFound() {
+            when(orderRepository.findStatusViewById(1L)).thenReturn(Optional.empty());
+            when(orderRepository.lockStatusViewById(1L)).thenReturn(Optional.empty());
+
+            StatusTransitionResult result = orderService.cancelOrder(1L);
+
+            assertThat(result.getOutcome()).isEqualTo(StatusTransitionResult.Outcome.NOT_FOUND);
+            verify(orderRepository, never()).transitionStatus(any(), any(), any(), any(), any());
+            verifyNoInteractions(orderRevenueAggregator, orderRollupService);
+        }
+    }
+
+    @Nested
+    @DisplayName("Bulk Transition")
+    class BulkTransition {
+
+        @Test
+        @DisplayName("should record each moved order once, as it was before its own UPDATE")
+        void shouldRecordMovedOrders() {
+            OrderRepository.StatusView first = view(1L, Order.OrderStatus.PENDING, "10.00");
+            OrderRepository.StatusView staleSecond = view(2L, Order.OrderStatus.PENDING, "0.00");
+            OrderRepository.StatusView lockedSecond = view(2L, Order.OrderStatus.CONFIRMED, "25.00");
+            OrderRepository.StatusView delivered = view(3L, Order.OrderStatus.DELIVERED, "5.00");
+            when(orderRepository.findStatusViewsByIdIn(List.of(1L, 2L, 3L, 4L)))
+                    .thenReturn(List.of(first, staleSecond, delivered));
+            when(orderRepository.lockStatusViewsByIdIn(List.of(2L))).thenReturn(List.of(lockedSecond));
+            // Order 2 is priced and confirmed between the read and the first batch
+            when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0}, new int[]{1});
+
+            List<StatusTransitionResult> results = orderService.updateOrderStatuses(
+                    List.of(1L, 2L, 3L, 2L, 4L), Order.OrderStatus.CANCELLED);
+
+            assertThat(results).extracting(StatusTransitionResult::getOrderId).containsExactly(1L, 2L, 3L, 4L);
+            assertThat(results).extracting(StatusTransitionResult::getOutcome).containsExactly(
+                    StatusTransitionResult.Outcome.APPLIED, StatusTransitionResult.Outcome.APPLIED,
+                    StatusTransitionResult.Outcome.CONFLICT, StatusTransitionResult.Outcome.NOT_FOUND);
+            assertThat(results.get(2).getCurrentStatus()).isEqualTo(Order.OrderStatus.DELIVERED);
+
+            verify(orderRevenueAggregator).recordTransitions(recorded.capture(), eq(Order.OrderStatus.CANCELLED));
+            assertThat(recorded.getValue()).containsExactlyInAnyOrder(first, lockedSecond);
+            verify(orderRollupService).recordTransitions(recorded.getValue(), Order.OrderStatus.CANCELLED);
+            verify(orderReadCache).invalidate(1L);
+            verify(orderReadCache).invalidate(2L);
+            verify(orderReadCache, never()).invalidate(3L);
+        }
+
+        @Test
+        @DisplayName("should send the status and total that were read with each UPDATE")
+        @SuppressWarnings("unchecked")
+        void shouldCompareStatusAndTotal() {
+            when(orderRepository.findStatusViewsByIdIn(List.of(1L)))
+                    .thenReturn(List.of(view(1L, Order.OrderStatus.CONFIRMED, "10.00")));
+            when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+            orderService.updateOrderStatuses(List.of(1L), Order.OrderStatus.SHIPPED);
+
+            ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+            verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+            assertThat(rows.getValue()).hasSize(1);
+            Object[] row = rows.getValue().get(0);
+            assertThat(row[0]).isEqualTo("SHIPPED");
+            assertThat(row).endsWith(1L, "CONFIRMED", new BigDecimal("10.00"));
+            verify(entityManager).flush();
+        }
+
+        @Test
+        @DisplayName("should record nothing when no order can move")
+        void shouldRecordNothingWhenNoneMove() {
+            when(orderRepository.findStatusViewsByIdIn(List.of(3L)))
+                    .thenReturn(List.of(view(3L, Order.OrderStatus.DELIVERED, "5.00")));
+
+            List<StatusTransitionResult> results = orderService.updateOrderStatuses(
+                    List.of(3L), Order.OrderStatus.CANCELLED);
+
+            assertThat(results).extracting(StatusTransitionResult::getOutcome)
+                    .containsExactly(StatusTransitionResult.Outcome.CONFLICT);
+            verifyNoInteractions(jdbcTemplate, orderRevenueAggregator, orderRollupService);
+        }
+    }
+
+    private static OrderItem item(BigDecimal unitPrice, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProductId(3L);
+        item.setProductName("Widget");
+        item.setUnitPrice(unitPrice);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private static OrderRepository.StatusView view(Long id, Order.OrderStatus status, String totalAmount) {
+        BigDecimal total = new BigDecimal(totalAmount);
+        return new OrderRepository.StatusView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Order.OrderStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public BigDecimal getTotalAmount() {
+                return total;
+            }
+
+            @Override
+            public LocalDateTime getOrderDate() {
+                return ORDER_DATE;
+            }
+
+            @Override
+            public String getPaymentMethod() {
+                return "CREDIT_CARD";
+            }
+
+            @Override
+            public String toString() {
+                return "StatusView(" + id + ", " + status + ", " + total + ")";
+            }
+        };
+    }
+}
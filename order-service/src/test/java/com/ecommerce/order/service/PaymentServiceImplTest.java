@@ -0,0 +1,84 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.StatusTransitionResult;
+import com.ecommerce.order.entity.Order;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentServiceImplTest {
+
+    private static final Long ORDER_ID = 12L;
+    private static final BigDecimal AMOUNT = new BigDecimal("49.90");
+
+    @Mock
+    private OrderService orderService;
+
+    @InjectMocks
+    private PaymentServiceImpl paymentService;
+
+    @Nested
+    @DisplayName("Order Confirmation")
+    class OrderConfirmation {
+
+        @Test
+        @DisplayName("should confirm the order after a successful charge")
+        void shouldConfirmOrder() {
+            when(orderService.updateOrderStatus(ORDER_ID, Order.OrderStatus.CONFIRMED))
+                    .thenReturn(StatusTransitionResult.applied(ORDER_ID, Order.OrderStatus.CONFIRMED));
+
+            PaymentService.PaymentResult result = paymentService.processPayment(ORDER_ID, AMOUNT, "CREDIT_CARD");
+
+            assertThat(result.getStatus()).isEqualTo("COMPLETED");
+            assertThat(paymentService.getPaymentStatus(result.getTransactionId())).isEqualTo("COMPLETED");
+        }
+
+        @Test
+        @DisplayName("should refund the charge when the order was cancelled in the meantime")
+        void shouldRefundCancelledOrder() {
+            when(orderService.updateOrderStatus(ORDER_ID, Order.OrderStatus.CONFIRMED)).thenReturn(
+                    StatusTransitionResult.conflict(ORDER_ID, Order.OrderStatus.CONFIRMED, Order.OrderStatus.CANCELLED));
+
+            PaymentService.PaymentResult result = paymentService.processPayment(ORDER_ID, AMOUNT, "CREDIT_CARD");
+
+            assertThat(result.getStatus()).isEqualTo("REFUNDED");
+            assertThat(result.getMessage()).isEqualTo("Order is CANCELLED; payment refunded");
+            assertThat(paymentService.getPaymentStatus(result.getTransactionId())).isEqualTo("REFUNDED");
+            List<PaymentService.PaymentResult> payments = paymentService.getPaymentsByOrder(ORDER_ID);
+            assertThat(payments).extracting(PaymentService.PaymentResult::getStatus).containsExactly("REFUNDED");
+        }
+
+        @Test
+        @DisplayName("should refund the charge when the order no longer exists")
+        void shouldRefundMissingOrder() {
+            when(orderService.updateOrderStatus(ORDER_ID, Order.OrderStatus.CONFIRMED))
+                    .thenReturn(StatusTransitionResult.notFound(ORDER_ID, Order.OrderStatus.CONFIRMED));
+
+            PaymentService.PaymentResult result = paymentService.processPayment(ORDER_ID, AMOUNT, "E_WALLET");
+
+            assertThat(result.getStatus()).isEqualTo("REFUNDED");
+            assertThat(result.getMessage()).isEqualTo("Order not found; payment refunded");
+        }
+
+        @Test
+        @DisplayName("should not charge or touch the order for an unsupported method")
+        void shouldRejectUnsupportedMethod() {
+            PaymentService.PaymentResult result = paymentService.processPayment(ORDER_ID, AMOUNT, "CHEQUE");
+
+            assertThat(result.getStatus()).isEqualTo("FAILED");
+            verify(orderService, never()).updateOrderStatus(any(), any());
+        }
+    }
+}
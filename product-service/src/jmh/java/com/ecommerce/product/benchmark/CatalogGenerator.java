@@ -0,0 +1,107 @@
+package com.ecommerce.product.benchmark;
+
+import com.ecommerce.product.entity.Category;
+import com.ecommerce.product.entity.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator for synthetic catalogs and user histories.
+ * The same seed and sizes always produce the same data, so benchmark runs on
+ * different machines or commits are comparable.
+ */
+public class CatalogGenerator {
+
+    private static final String[] ADJECTIVES = {
+            "wireless", "portable", "organic", "premium", "compact", "classic", "smart", "ergonomic",
+            "waterproof", "vintage", "lightweight", "stainless", "handmade", "foldable", "rechargeable"
+    };
+    private static final String[] NOUNS = {
+            "headphones", "speaker", "backpack", "lamp", "kettle", "keyboard", "mouse", "jacket",
+            "sneakers", "watch", "blender", "camera", "tent", "bottle", "chair", "monitor", "charger"
+    };
+    private static final String[] FEATURES = {
+            "noise cancelling", "long battery life", "fast charging", "eco friendly materials",
+            "two year warranty", "bluetooth connectivity", "machine washable", "adjustable straps",
+            "led display", "usb-c port", "memory foam", "shock resistant", "quick release"
+    };
+
+    private final SplittableRandom random;
+    private final LocalDateTime epoch = LocalDateTime.of(2021, 1, 1, 0, 0);
+
+    public CatalogGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    public List<Category> categories(int count) {
+        List<Category> categories = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Category category = new Category();
+            category.setId((long) i);
+            category.setName("Category " + i);
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    /**
+     * Generate products with ids 1..count spread over the given categories.
+     * Roughly 5% are inactive and 10% are out of stock.
+     */
+    public List<Product> products(int count, List<Category> categories) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
+            String noun = NOUNS[random.nextInt(NOUNS.length)];
+
+            Product product = new Product();
+            product.setId((long) i);
+            product.setName(capitalize(adjective) + " " + noun + " " + i);
+            product.setDescription("A " + adjective + " " + noun + " with "
+                    + FEATURES[random.nextInt(FEATURES.length)] + " and "
+                    + FEATURES[random.nextInt(FEATURES.length)] + ".");
+            product.setPrice(BigDecimal.valueOf(100 + random.nextInt(99_900), 2));
+            product.setCategory(categories.get(random.nextInt(categories.size())));
+            product.setStock(random.nextInt(10) == 0 ? 0 : random.nextInt(500));
+            product.setActive(random.nextInt(20) != 0);
+            product.setCreatedAt(epoch.plusMinutes(random.nextInt(1_000_000)));
+            product.setUpdatedAt(product.getCreatedAt());
+            products.add(product);
+        }
+        return products;
+    }
+
+    /**
+     * Generate a browsing or purchase history for one user. Product ids are
+     * skewed towards the head of the catalog to mimic popularity.
+     *
+     * @param catalogSize number of products (ids 1..catalogSize)
+     * @param length      number of interactions
+     * @return product ids in interaction order
+     */
+    public long[] history(int catalogSize, int length) {
+        long[] ids = new long[length];
+        for (int i = 0; i < length; i++) {
+            ids[i] = skewedProductId(catalogSize);
+        }
+        return ids;
+    }
+
+    public long skewedProductId(int catalogSize) {
+        // Squaring a uniform variate concentrates picks near id 1
+        double u = random.nextDouble();
+        return 1 + (long) (u * u * catalogSize);
+    }
+
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
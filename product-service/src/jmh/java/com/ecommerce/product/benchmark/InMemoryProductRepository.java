@@ -0,0 +1,97 @@
+package com.ecommerce.product.benchmark;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * List-backed {@link ProductRepository} for benchmarks, so the services can be
+ * measured without a database. Only the query methods the recommendation code
+ * uses are implemented; anything else throws.
+ */
+public final class InMemoryProductRepository {
+
+    private InMemoryProductRepository() {
+    }
+
+    public static ProductRepository create(List<Product> products) {
+        Map<Long, Product> byId = new HashMap<>(products.size() * 4 / 3 + 1);
+        for (Product product : products) {
+            byId.put(product.getId(), product);
+        }
+        List<Product> active = products.stream()
+                .filter(Product::getActive)
+                .collect(Collectors.toList());
+        List<Product> activeById = new ArrayList<>(active);
+        activeById.sort(Comparator.comparing(Product::getId));
+
+        return (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findAll":
+                            if (args == null) {
+                                return products;
+                            }
+                            break;
+                        case "findById":
+                            return Optional.ofNullable(byId.get((Long) args[0]));
+                        case "findAllById": {
+                            List<Product> found = new ArrayList<>();
+                            for (Object id : (Iterable<?>) args[0]) {
+                                Product product = byId.get((Long) id);
+                                if (product != null) {
+                                    found.add(product);
+                                }
+                            }
+                            return found;
+                        }
+                        case "findByActiveTrue":
+                            if (args == null) {
+                                return active;
+                            }
+                            return page(active, (Pageable) args[0]);
+                        case "findActiveAfter":
+                            return after(activeById, (Long) args[0], (Pageable) args[1]);
+                        case "save":
+                            return args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "InMemoryProductRepository[" + products.size() + "]";
+                        default:
+                            break;
+                    }
+                    throw new UnsupportedOperationException("Not supported in benchmarks: " + method);
+                });
+    }
+
+    private static List<Product> after(List<Product> byId, Long afterId, Pageable limit) {
+        int low = 0;
+        int high = byId.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (byId.get(mid).getId() <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return byId.subList(low, Math.min(low + limit.getPageSize(), byId.size()));
+    }
+
+    private static Page<Product> page(List<Product> source, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), source.size());
+        int to = Math.min(from + pageable.getPageSize(), source.size());
+        return new PageImpl<>(source.subList(from, to), pageable, source.size());
+    }
+}
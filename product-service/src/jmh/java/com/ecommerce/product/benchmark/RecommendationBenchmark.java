@@ -0,0 +1,109 @@
+package com.ecommerce.product.benchmark;
+
+import com.ecommerce.product.entity.Category;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.service.ProductRecommendationService;
+import com.ecommerce.product.service.RecommendationBenchmarkFixture;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency of the public {@link ProductRecommendationService}
+ * API over a generated catalog. Run through {@link BenchmarkRunner} to also
+ * get allocation rates; SampleTime mode reports p99 latency.
+ * <p>
+ * The defaults are a smoke run that builds one small index; pass larger
+ * catalogs explicitly, e.g. {@code -p catalogSize=10000,100000,1000000}.
+ * Catalogs above ~1M products need a larger heap, e.g.
+ * {@code -jvmArgsAppend -Xmx8g -p catalogSize=5000000}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class RecommendationBenchmark {
+
+    private static final int LIMIT = 8;
+
+    @Param({"10000"})
+    public int catalogSize;
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"20"})
+    public int viewsPerUser;
+
+    @Param({"3"})
+    public int purchasesPerUser;
+
+    @Param({"false", "true"})
+    public boolean resultCache;
+
+    private RecommendationBenchmarkFixture fixture;
+    private ProductRecommendationService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InterruptedException {
+        CatalogGenerator generator = new CatalogGenerator(42L);
+        List<Category> categories = generator.categories(Math.max(10, catalogSize / 1000));
+        List<Product> products = generator.products(catalogSize, categories);
+
+        fixture = new RecommendationBenchmarkFixture(InMemoryProductRepository.create(products), resultCache);
+        for (long userId = 1; userId <= users; userId++) {
+            fixture.seedHistory(userId,
+                    generator.history(catalogSize, viewsPerUser),
+                    generator.history(catalogSize, purchasesPerUser));
+        }
+        fixture.buildSimilarityIndex(30, TimeUnit.MINUTES);
+        service = fixture.getService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        fixture.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private final SplittableRandom random = new SplittableRandom(7L);
+
+        long userId(RecommendationBenchmark benchmark) {
+            return 1 + random.nextInt(benchmark.users);
+        }
+
+        long productId(RecommendationBenchmark benchmark) {
+            return 1 + random.nextInt(benchmark.catalogSize);
+        }
+    }
+
+    @Benchmark
+    public List<Product> getRecommendations(Cursor cursor) {
+        return service.getRecommendations(cursor.userId(this), LIMIT);
+    }
+
+    @Benchmark
+    public List<Product> getSimilarProducts(Cursor cursor) {
+        return service.getSimilarProducts(cursor.productId(this), LIMIT);
+    }
+
+    @Benchmark
+    public List<Product> getPopularProducts() {
+        return service.getPopularProducts(LIMIT);
+    }
+
+    @Benchmark
+    public void recordProductView(Cursor cursor) {
+        service.recordProductView(cursor.userId(this), cursor.productId(this));
+    }
+
+    @Benchmark
+    public void recordPurchase(Cursor cursor) {
+        service.recordPurchase(cursor.userId(this), cursor.productId(this));
+    }
+}
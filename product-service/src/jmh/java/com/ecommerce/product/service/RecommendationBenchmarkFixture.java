@@ -0,0 +1,92 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wires {@link ProductRecommendationService} and its collaborators by hand,
+ * the way Spring would, so benchmarks can drive it without an application
+ * context or database.
+ */
+public final class RecommendationBenchmarkFixture {
+
+    private final ProductRecommendationService service;
+    private final InteractionIngestionPipeline pipeline;
+    private final ProductSimilarityIndex similarityIndex;
+
+    public RecommendationBenchmarkFixture(ProductRepository repository, boolean cacheEnabled) {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        pipeline = new InteractionIngestionPipeline(meterRegistry, 65536, 512,
+                InteractionIngestionPipeline.OverflowPolicy.DROP,
+                InteractionIngestionPipeline.OverflowPolicy.DROP, 0.75, 10, 1000);
+        RecommendationCache cache = new RecommendationCache(meterRegistry, cacheEnabled ? 100_000 : 0, 300, 5);
+
+        similarityIndex = new ProductSimilarityIndex();
+        inject(similarityIndex, "productRepository", repository);
+        inject(similarityIndex, "dimensions", 128);
+        inject(similarityIndex, "m", 16);
+        inject(similarityIndex, "efConstruction", 100);
+        inject(similarityIndex, "efSearch", 64);
+
+        service = new ProductRecommendationService();
+        inject(service, "productRepository", repository);
+        inject(service, "similarityIndex", similarityIndex);
+        inject(service, "ingestionPipeline", pipeline);
+        inject(service, "recommendationCache", cache);
+        service.startIngestion();
+    }
+
+    public ProductRecommendationService getService() {
+        return service;
+    }
+
+    /**
+     * Load a user's history synchronously, bypassing the ingestion queue.
+     */
+    public void seedHistory(long userId, long[] viewedIds, long[] purchasedIds) {
+        List<InteractionEvent> events = new ArrayList<>(viewedIds.length + purchasedIds.length);
+        for (long id : viewedIds) {
+            events.add(new InteractionEvent(InteractionEvent.Type.VIEW, userId, id));
+        }
+        for (long id : purchasedIds) {
+            events.add(new InteractionEvent(InteractionEvent.Type.PURCHASE, userId, id));
+        }
+        service.applyInteractions(events);
+    }
+
+    /**
+     * Build the content-similarity index and wait until it is serving.
+     */
+    public void buildSimilarityIndex(long timeout, TimeUnit unit) throws InterruptedException {
+        similarityIndex.onApplicationReady();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!similarityIndex.isReady()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Similarity index not ready after " + timeout + " " + unit);
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    public void close() throws InterruptedException {
+        pipeline.shutdown();
+        similarityIndex.shutdown();
+    }
+
+    private static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException("No field " + fieldName + " on " + target.getClass().getName());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
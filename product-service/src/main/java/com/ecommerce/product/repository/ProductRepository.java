@@ -24,6 +24,13 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Page<Product> findByActiveTrue(Pageable pageable);
 
+    /**
+     * Active products with an id above {@code afterId}, in id order: a keyset
+     * page of at most {@code limit.getPageSize()} rows, without a count query.
+     */
+    @Query("SELECT p FROM Product p WHERE p.active = true AND p.id > :afterId ORDER BY p.id")
+    List<Product> findActiveAfter(@Param("afterId") Long afterId, Pageable limit);
+
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
            "OR LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%'))")
     List<Product> searchProducts(@Param("keyword") String keyword);
@@ -0,0 +1,267 @@
+package com.ecommerce.product.service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process approximate nearest-neighbour index based on Hierarchical
+ * Navigable Small World graphs (Malkov &amp; Yashunin). Vectors are expected to
+ * be L2-normalised, so cosine distance reduces to {@code 1 - dot}.
+ * <p>
+ * Removal marks a node as deleted: it stays in the graph for navigation but
+ * is never returned. Callers should rebuild the index once
+ * {@link #needsCompaction()} reports that too many tombstones have built up.
+ * Writers are serialised; searches run concurrently under a read lock.
+ */
+final class HnswIndex {
+
+    private final int dimensions;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private Node entryPoint;
+    private int deletedCount;
+
+    HnswIndex(int dimensions, int m, int efConstruction) {
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    /**
+     * Insert a vector, replacing any existing vector with the same id.
+     */
+    void add(long id, float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected vector of " + dimensions + " dimensions, got " + vector.length);
+        }
+        lock.writeLock().lock();
+        try {
+            markDeleted(nodes.remove(id));
+
+            Node node = new Node(id, vector, randomLevel());
+            nodes.put(id, node);
+            if (entryPoint == null) {
+                entryPoint = node;
+                return;
+            }
+
+            Node current = entryPoint;
+            for (int level = entryPoint.level; level > node.level; level--) {
+                current = closest(searchLayer(vector, current, 1, level));
+            }
+            for (int level = Math.min(node.level, entryPoint.level); level >= 0; level--) {
+                PriorityQueue<Candidate> found = searchLayer(vector, current, efConstruction, level);
+                current = closest(found);
+                for (Node neighbor : nearest(found, m)) {
+                    node.neighbors[level].add(neighbor);
+                    neighbor.neighbors[level].add(node);
+                    shrinkNeighbors(neighbor, level);
+                }
+            }
+            if (node.level > entryPoint.level) {
+                entryPoint = node;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a vector from search results.
+     */
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            markDeleted(nodes.remove(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the ids of the nearest live neighbours of an indexed vector.
+     *
+     * @param id the id of the indexed reference vector
+     * @param k  number of neighbours to return
+     * @param ef size of the dynamic candidate list, trades recall for speed
+     * @return neighbour ids ordered by increasing distance, or null if the
+     *         reference id is not indexed
+     */
+    List<Long> searchNeighbors(long id, int k, int ef) {
+        lock.readLock().lock();
+        try {
+            Node reference = nodes.get(id);
+            if (reference == null) {
+                return null;
+            }
+            Node current = entryPoint;
+            for (int level = entryPoint.level; level > 0; level--) {
+                current = closest(searchLayer(reference.vector, current, 1, level));
+            }
+            PriorityQueue<Candidate> found = searchLayer(reference.vector, current, Math.max(ef, k + 1), 0);
+
+            List<Long> ids = new ArrayList<>(k);
+            for (Node node : nearest(found, found.size())) {
+                if (!node.deleted && node != reference) {
+                    ids.add(node.id);
+                    if (ids.size() == k) {
+                        break;
+                    }
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return nodes.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true once deleted nodes outnumber a third of the live graph
+     */
+    boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            return deletedCount > 1024 && deletedCount > nodes.size() / 3;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void markDeleted(Node node) {
+        if (node != null) {
+            node.deleted = true;
+            deletedCount++;
+        }
+    }
+
+    private PriorityQueue<Candidate> searchLayer(float[] query, Node entry, int ef, int level) {
+        Set<Node> visited = new HashSet<>();
+        visited.add(entry);
+
+        Candidate start = new Candidate(entry, distance(query, entry.vector));
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingDouble(c -> c.distance));
+        PriorityQueue<Candidate> results = new PriorityQueue<>(Comparator.comparingDouble(c -> -c.distance));
+        candidates.add(start);
+        results.add(start);
+
+        while (!candidates.isEmpty()) {
+            Candidate candidate = candidates.poll();
+            if (results.size() >= ef && candidate.distance > results.peek().distance) {
+                break;
+            }
+            for (Node neighbor : candidate.node.neighbors[level]) {
+                if (!visited.add(neighbor)) {
+                    continue;
+                }
+                double d = distance(query, neighbor.vector);
+                if (results.size() < ef || d < results.peek().distance) {
+                    Candidate next = new Candidate(neighbor, d);
+                    candidates.add(next);
+                    results.add(next);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private void shrinkNeighbors(Node node, int level) {
+        List<Node> neighbors = node.neighbors[level];
+        int max = level == 0 ? maxM0 : m;
+        if (neighbors.size() <= max) {
+            return;
+        }
+        neighbors.sort(Comparator.comparingDouble(n -> distance(node.vector, n.vector)));
+        neighbors.subList(max, neighbors.size()).clear();
+    }
+
+    private static Node closest(PriorityQueue<Candidate> results) {
+        Candidate best = null;
+        for (Candidate c : results) {
+            if (best == null || c.distance < best.distance) {
+                best = c;
+            }
+        }
+        return best.node;
+    }
+
+    private static List<Node> nearest(PriorityQueue<Candidate> results, int limit) {
+        List<Candidate> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingDouble(c -> c.distance));
+        List<Node> nodes = new ArrayList<>(Math.min(limit, sorted.size()));
+        for (int i = 0; i < sorted.size() && i < limit; i++) {
+            nodes.add(sorted.get(i).node);
+        }
+        return nodes;
+    }
+
+    private int randomLevel() {
+        return (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+    }
+
+    private static double distance(float[] a, float[] b) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return 1.0 - dot;
+    }
+
+    private static final class Node {
+        final long id;
+        final float[] vector;
+        final int level;
+        final List<Node>[] neighbors;
+        volatile boolean deleted;
+
+        @SuppressWarnings("unchecked")
+        Node(long id, float[] vector, int level) {
+            this.id = id;
+            this.vector = vector;
+            this.level = level;
+            this.neighbors = new List[level + 1];
+            for (int i = 0; i <= level; i++) {
+                neighbors[i] = new ArrayList<>();
+            }
+        }
+    }
+
+    private static final class Candidate {
+        final Node node;
+        final double distance;
+
+        Candidate(Node node, double distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+    }
+}
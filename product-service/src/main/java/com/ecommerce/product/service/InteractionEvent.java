@@ -0,0 +1,48 @@
+package com.ecommerce.product.service;
+
+/**
+ * A single user-product interaction queued for asynchronous ingestion.
+ */
+public final class InteractionEvent {
+
+    public enum Type {
+        VIEW, PURCHASE
+    }
+
+    private final Type type;
+    private final Long userId;
+    private final Long productId;
+    private final long enqueuedAtNanos;
+
+    /**
+     * @throws IllegalArgumentException if any argument is null; events are
+     *         rejected here, on the caller's thread, rather than failing on
+     *         the consumer thread
+     */
+    public InteractionEvent(Type type, Long userId, Long productId) {
+        if (type == null || userId == null || productId == null) {
+            throw new IllegalArgumentException("Interaction needs a type, userId and productId, got "
+                    + type + ", " + userId + ", " + productId);
+        }
+        this.type = type;
+        this.userId = userId;
+        this.productId = productId;
+        this.enqueuedAtNanos = System.nanoTime();
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public long getEnqueuedAtNanos() {
+        return enqueuedAtNanos;
+    }
+}
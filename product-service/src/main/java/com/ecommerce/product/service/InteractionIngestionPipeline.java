@@ -0,0 +1,210 @@
+package com.ecommerce.product.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Asynchronous ingestion of product view and purchase events.
+ * <p>
+ * Request threads only pay for an enqueue onto a bounded lock-free
+ * {@link MpscBoundedQueue}. A single consumer thread drains the queue in
+ * batches and hands each batch to the registered handler, so the
+ * recommendation history maps only ever see one writer. What happens when the
+ * queue is full is configured per event type via {@link OverflowPolicy}.
+ */
+@Component
+public class InteractionIngestionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(InteractionIngestionPipeline.class);
+
+    /**
+     * What to do with an event that arrives while the queue is (nearly) full.
+     */
+    public enum OverflowPolicy {
+        /** Discard the event if the queue is full. */
+        DROP,
+        /** Above the sampling threshold keep one event in N; discard if full. */
+        SAMPLE,
+        /** Wait for space, up to the configured block timeout. */
+        BLOCK
+    }
+
+    private final MpscBoundedQueue<InteractionEvent> queue;
+    private final OverflowPolicy viewOverflowPolicy;
+    private final OverflowPolicy purchaseOverflowPolicy;
+    private final int batchSize;
+    private final int sampleThreshold;
+    private final int sampleRate;
+    private final long blockTimeoutNanos;
+
+    private final Counter viewsDropped;
+    private final Counter purchasesDropped;
+    private final Counter eventsProcessed;
+    private final DistributionSummary batchSizes;
+    private final AtomicLong lastBatchLagMillis = new AtomicLong();
+
+    private volatile Thread consumerThread;
+    private volatile boolean running;
+
+    public InteractionIngestionPipeline(MeterRegistry meterRegistry,
+                                        @Value("${recommendation.ingest.queue-capacity:65536}") int queueCapacity,
+                                        @Value("${recommendation.ingest.batch-size:512}") int batchSize,
+                                        @Value("${recommendation.ingest.view-overflow:SAMPLE}") OverflowPolicy viewOverflowPolicy,
+                                        @Value("${recommendation.ingest.purchase-overflow:BLOCK}") OverflowPolicy purchaseOverflowPolicy,
+                                        @Value("${recommendation.ingest.sample-threshold:0.75}") double sampleThreshold,
+                                        @Value("${recommendation.ingest.sample-rate:10}") int sampleRate,
+                                        @Value("${recommendation.ingest.block-timeout-ms:1000}") long blockTimeoutMs) {
+        this.queue = new MpscBoundedQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.viewOverflowPolicy = viewOverflowPolicy;
+        this.purchaseOverflowPolicy = purchaseOverflowPolicy;
+        this.sampleThreshold = (int) (queue.capacity() * sampleThreshold);
+        this.sampleRate = Math.max(1, sampleRate);
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+
+        this.viewsDropped = Counter.builder("recommendation.ingest.dropped")
+                .tag("type", InteractionEvent.Type.VIEW.name())
+                .register(meterRegistry);
+        this.purchasesDropped = Counter.builder("recommendation.ingest.dropped")
+                .tag("type", InteractionEvent.Type.PURCHASE.name())
+                .register(meterRegistry);
+        this.eventsProcessed = Counter.builder("recommendation.ingest.processed")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("recommendation.ingest.batch.size")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.ingest.queue.depth", queue, MpscBoundedQueue::size)
+                .description("Events waiting to be applied")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.ingest.lag", lastBatchLagMillis, AtomicLong::get)
+                .description("Age in ms of the oldest event in the last applied batch")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start the consumer thread. Must be called once, by the component that
+     * owns the state the events are applied to.
+     *
+     * @param handler receives each drained batch on the consumer thread
+     */
+    public synchronized void start(Consumer<List<InteractionEvent>> handler) {
+        if (consumerThread != null) {
+            throw new IllegalStateException("Ingestion pipeline already started");
+        }
+        running = true;
+        consumerThread = new Thread(() -> consume(handler), "interaction-ingest");
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+        logger.info("Interaction ingestion started: capacity={}, batchSize={}, viewOverflow={}, purchaseOverflow={}",
+                queue.capacity(), batchSize, viewOverflowPolicy, purchaseOverflowPolicy);
+    }
+
+    /**
+     * Enqueue an event according to the overflow policy for its type.
+     *
+     * @param event the event to ingest
+     * @return true if the event was accepted
+     * @throws IllegalArgumentException if the event is null
+     */
+    public boolean submit(InteractionEvent event) {
+        if (event == null) {
+            throw new IllegalArgumentException("Interaction event must not be null");
+        }
+        OverflowPolicy policy = event.getType() == InteractionEvent.Type.PURCHASE
+                ? purchaseOverflowPolicy : viewOverflowPolicy;
+
+        boolean accepted;
+        switch (policy) {
+            case SAMPLE:
+                accepted = (queue.size() < sampleThreshold
+                        || ThreadLocalRandom.current().nextInt(sampleRate) == 0)
+                        && queue.offer(event);
+                break;
+            case BLOCK:
+                accepted = offerBlocking(event);
+                break;
+            case DROP:
+            default:
+                accepted = queue.offer(event);
+        }
+
+        if (!accepted) {
+            (event.getType() == InteractionEvent.Type.PURCHASE ? purchasesDropped : viewsDropped).increment();
+        }
+        return accepted;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public long getLastBatchLagMillis() {
+        return lastBatchLagMillis.get();
+    }
+
+    private boolean offerBlocking(InteractionEvent event) {
+        if (queue.offer(event)) {
+            return true;
+        }
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (System.nanoTime() < deadline) {
+            LockSupport.unpark(consumerThread);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+            if (queue.offer(event)) {
+                return true;
+            }
+        }
+        logger.warn("Interaction queue still full after {} ms; dropping {} event",
+                TimeUnit.NANOSECONDS.toMillis(blockTimeoutNanos), event.getType());
+        return false;
+    }
+
+    private void consume(Consumer<List<InteractionEvent>> handler) {
+        List<InteractionEvent> batch = new ArrayList<>(batchSize);
+        while (running || queue.size() > 0) {
+            if (queue.drainTo(batch, batchSize) == 0) {
+                if (!running) {
+                    break;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                continue;
+            }
+            lastBatchLagMillis.set(TimeUnit.NANOSECONDS.toMillis(
+                    System.nanoTime() - batch.get(0).getEnqueuedAtNanos()));
+            try {
+                handler.accept(batch);
+            } catch (RuntimeException e) {
+                logger.error("Failed to apply batch of {} interaction events", batch.size(), e);
+            }
+            eventsProcessed.increment(batch.size());
+            batchSizes.record(batch.size());
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        Thread thread = consumerThread;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
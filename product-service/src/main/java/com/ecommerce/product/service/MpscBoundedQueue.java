@@ -0,0 +1,104 @@
+package com.ecommerce.product.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lock-free multi-producer / single-consumer ring buffer.
+ * <p>
+ * Producers claim a slot with a CAS on the producer index and then publish the
+ * element into it; the single consumer treats an empty slot as "not yet
+ * published" and simply retries later. Only one thread may call
+ * {@link #poll()} or {@link #drainTo(List, int)}.
+ *
+ * @param <E> element type
+ */
+final class MpscBoundedQueue<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    MpscBoundedQueue(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Queue capacity must be at least 2: " + requestedCapacity);
+        }
+        this.capacity = roundToPowerOfTwo(requestedCapacity);
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Enqueue an element without blocking.
+     *
+     * @return false if the queue is full
+     */
+    boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("Queue does not accept null elements");
+        }
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex.get() >= capacity) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+
+        buffer.lazySet((int) (index & mask), element);
+        return true;
+    }
+
+    /**
+     * Dequeue the next published element. Consumer thread only.
+     *
+     * @return the element, or null if none is available yet
+     */
+    E poll() {
+        long index = consumerIndex.get();
+        int offset = (int) (index & mask);
+        E element = buffer.get(offset);
+        if (element == null) {
+            return null;
+        }
+        buffer.lazySet(offset, null);
+        consumerIndex.lazySet(index + 1);
+        return element;
+    }
+
+    /**
+     * Move up to {@code limit} published elements into {@code target}.
+     * Consumer thread only.
+     *
+     * @return number of elements drained
+     */
+    int drainTo(List<E> target, int limit) {
+        int drained = 0;
+        E element;
+        while (drained < limit && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * @return an estimate of the number of queued elements
+     */
+    int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    private static int roundToPowerOfTwo(int value) {
+        int highest = Integer.highestOneBit(value);
+        return highest == value ? value : highest << 1;
+    }
+}
@@ -7,10 +7,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -26,41 +29,92 @@ public class ProductRecommendationService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSimilarityIndex similarityIndex;
+
+    @Autowired
+    private InteractionIngestionPipeline ingestionPipeline;
+
+    @Autowired
+    private RecommendationCache recommendationCache;
+
     // Track user browsing history: userId -> list of productIds viewed
     private final Map<Long, List<Long>> browsingHistory = new ConcurrentHashMap<>();
 
     // Track user purchases: userId -> set of productIds purchased
     private final Map<Long, Set<Long>> purchaseHistory = new ConcurrentHashMap<>();
 
+    // Latest precomputed recommendations, replaced wholesale by RecommendationPrecomputeJob
+    private final AtomicReference<RecommendationSnapshot> snapshot =
+            new AtomicReference<>(RecommendationSnapshot.empty());
+
+    @PostConstruct
+    void startIngestion() {
+        ingestionPipeline.start(this::applyInteractions);
+    }
+
     /**
      * Record that a user viewed a product, for use in recommendations.
+     * The view is queued and applied asynchronously.
      *
      * @param userId    the user ID
      * @param productId the product ID that was viewed
+     * @throws IllegalArgumentException if either ID is null
      */
     public void recordProductView(Long userId, Long productId) {
-        browsingHistory.computeIfAbsent(userId, k -> Collections.synchronizedList(new ArrayList<>()));
-        List<Long> history = browsingHistory.get(userId);
-
-        // Keep only the most recent 50 views
-        if (history.size() >= 50) {
-            history.remove(0);
-        }
-        history.add(productId);
-
-        logger.debug("Recorded product view: user={}, product={}", userId, productId);
+        ingestionPipeline.submit(new InteractionEvent(InteractionEvent.Type.VIEW, userId, productId));
     }
 
     /**
      * Record that a user purchased a product.
+     * The purchase is queued and applied asynchronously.
      *
      * @param userId    the user ID
      * @param productId the product ID that was purchased
+     * @throws IllegalArgumentException if either ID is null
      */
     public void recordPurchase(Long userId, Long productId) {
-        purchaseHistory.computeIfAbsent(userId, k -> ConcurrentHashMap.newKeySet())
-                .add(productId);
-        logger.debug("Recorded purchase: user={}, product={}", userId, productId);
+        ingestionPipeline.submit(new InteractionEvent(InteractionEvent.Type.PURCHASE, userId, productId));
+    }
+
+    /**
+     * Apply a batch of queued interactions to the history maps.
+     * Called only from the ingestion consumer thread.
+     *
+     * @param events the drained batch
+     */
+    void applyInteractions(List<InteractionEvent> events) {
+        int failed = 0;
+        for (InteractionEvent event : events) {
+            // One bad event must not cost the rest of the batch
+            try {
+                applyInteraction(event);
+            } catch (RuntimeException e) {
+                failed++;
+                logger.warn("Failed to apply {} event for user {} and product {}",
+                        event.getType(), event.getUserId(), event.getProductId(), e);
+            }
+        }
+        logger.debug("Applied {} interaction events, {} failed", events.size() - failed, failed);
+    }
+
+    private void applyInteraction(InteractionEvent event) {
+        if (event.getType() == InteractionEvent.Type.PURCHASE) {
+            purchaseHistory.computeIfAbsent(event.getUserId(), k -> ConcurrentHashMap.newKeySet())
+                    .add(event.getProductId());
+            recommendationCache.onProductPurchased(event.getUserId());
+        } else {
+            List<Long> history = browsingHistory.computeIfAbsent(event.getUserId(),
+                    k -> Collections.synchronizedList(new ArrayList<>()));
+            synchronized (history) {
+                // Keep only the most recent 50 views
+                if (history.size() >= 50) {
+                    history.remove(0);
+                }
+                history.add(event.getProductId());
+            }
+            recommendationCache.onProductViewed(event.getUserId());
+        }
     }
 
     /**
@@ -73,23 +127,55 @@ public class ProductRecommendationService {
      */
     public List<Product> getRecommendations(Long userId, int limit) {
         int maxResults = limit > 0 ? limit : DEFAULT_RECOMMENDATION_COUNT;
-        List<Long> viewedProducts = browsingHistory.getOrDefault(userId, Collections.emptyList());
-        Set<Long> purchasedProducts = purchaseHistory.getOrDefault(userId, Collections.emptySet());
 
-        if (viewedProducts.isEmpty() && purchasedProducts.isEmpty()) {
-            logger.info("No history for user {}. Returning popular products.", userId);
-            return getPopularProducts(maxResults);
+        List<Product> precomputed = snapshot.get().lookup(userId, maxResults,
+                recommendationCache.getUserGeneration(userId));
+        if (precomputed != null) {
+            logger.debug("Serving {} precomputed recommendations for user {}", precomputed.size(), userId);
+            return recommendationCache.withoutDeactivated(precomputed);
         }
 
-        // Collect categories and price ranges from viewed/purchased products
-        Set<Long> allInteractedIds = new HashSet<>(viewedProducts);
-        allInteractedIds.addAll(purchasedProducts);
+        List<Product> cached = recommendationCache.get(userId, maxResults);
+        if (cached != null) {
+            logger.debug("Serving {} cached recommendations for user {}", cached.size(), userId);
+            return cached;
+        }
+
+        RecommendationCache.Stamp stamp = recommendationCache.stamp(userId);
+        Set<Long> allInteractedIds = getInteractedProductIds(userId);
+        if (allInteractedIds.isEmpty()) {
+            logger.info("No history for user {}. Returning popular products.", userId);
+            List<Product> popular = getPopularProducts(maxResults);
+            recommendationCache.put(userId, maxResults, stamp, popular);
+            return popular;
+        }
 
         List<Product> interactedProducts = allInteractedIds.stream()
                 .map(id -> productRepository.findById(id).orElse(null))
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
 
+        List<Product> recommendations = rankRecommendations(allInteractedIds, interactedProducts,
+                productRepository.findAll(), maxResults);
+        recommendationCache.put(userId, maxResults, stamp, recommendations);
+
+        logger.info("Generated {} recommendations for user {}", recommendations.size(), userId);
+        return recommendations;
+    }
+
+    /**
+     * Rank candidate products for a user by category and price-range similarity
+     * to the products the user has already interacted with.
+     *
+     * @param interactedIds      IDs of products the user viewed or purchased
+     * @param interactedProducts the resolved interacted products
+     * @param candidates         the products to choose from
+     * @param maxResults         maximum number of recommendations
+     * @return list of recommended products, newest first
+     */
+    List<Product> rankRecommendations(Set<Long> interactedIds, List<Product> interactedProducts,
+                                      Collection<Product> candidates, int maxResults) {
+        // Collect categories and price ranges from viewed/purchased products
         Set<Long> categoryIds = interactedProducts.stream()
                 .filter(p -> p.getCategory() != null)
                 .map(p -> p.getCategory().getId())
@@ -105,9 +191,9 @@ public class ProductRecommendationService {
         BigDecimal priceUpper = avgPrice.multiply(new BigDecimal("2.0"));
 
         // Find similar products excluding already interacted ones
-        List<Product> recommendations = productRepository.findAll().stream()
+        return candidates.stream()
                 .filter(Product::getActive)
-                .filter(p -> !allInteractedIds.contains(p.getId()))
+                .filter(p -> !interactedIds.contains(p.getId()))
                 .filter(p -> {
                     boolean categoryMatch = p.getCategory() != null
                             && categoryIds.contains(p.getCategory().getId());
@@ -120,10 +206,49 @@ public class ProductRecommendationService {
                         Comparator.nullsLast(Comparator.reverseOrder())))
                 .limit(maxResults)
                 .collect(Collectors.toList());
+    }
 
-        logger.info("Generated {} recommendations for user {} from {} categories",
-                recommendations.size(), userId, categoryIds.size());
-        return recommendations;
+    /**
+     * Get the IDs of all products a user has viewed or purchased.
+     *
+     * @param userId the user ID
+     * @return a copy of the user's interacted product IDs
+     */
+    Set<Long> getInteractedProductIds(Long userId) {
+        Set<Long> ids = new HashSet<>();
+        List<Long> viewed = browsingHistory.get(userId);
+        if (viewed != null) {
+            synchronized (viewed) {
+                ids.addAll(viewed);
+            }
+        }
+        ids.addAll(purchaseHistory.getOrDefault(userId, Collections.emptySet()));
+        return ids;
+    }
+
+    /**
+     * Get the IDs of all users with any recorded browsing or purchase history.
+     *
+     * @return a copy of the active user IDs
+     */
+    Set<Long> getActiveUserIds() {
+        Set<Long> userIds = new HashSet<>(browsingHistory.keySet());
+        userIds.addAll(purchaseHistory.keySet());
+        return userIds;
+    }
+
+    /**
+     * Atomically replace the precomputed recommendation snapshot.
+     *
+     * @param newSnapshot the snapshot to serve from now on
+     */
+    void publishSnapshot(RecommendationSnapshot newSnapshot) {
+        snapshot.set(newSnapshot);
+        recommendationCache.onSnapshotPublished(newSnapshot.getCatalogVersion());
+    }
+
+    RecommendationSnapshot getSnapshot() {
+        return snapshot.get();
     }
 
     /**
@@ -143,13 +268,27 @@ public class ProductRecommendationService {
     }
 
     /**
-     * Get products similar to a specific product based on category and price range.
+     * Get products similar to a specific product. Uses the content-similarity
+     * index when it is ready, otherwise falls back to category and price range.
      *
      * @param productId the reference product ID
      * @param limit     maximum number of similar products
      * @return list of similar products
      */
     public List<Product> getSimilarProducts(Long productId, int limit) {
+        List<Long> similarIds = similarityIndex.findSimilar(productId, limit);
+        if (similarIds != null) {
+            Map<Long, Product> byId = productRepository.findAllById(similarIds).stream()
+                    .collect(Collectors.toMap(Product::getId, p -> p));
+            return similarIds.stream()
+                    .map(byId::get)
+                    .filter(p -> p != null && p.getActive())
+                    .collect(Collectors.toList());
+        }
+        return getSimilarProductsByCategoryAndPrice(productId, limit);
+    }
+
+    private List<Product> getSimilarProductsByCategoryAndPrice(Long productId, int limit) {
         Product reference = productRepository.findById(productId).orElse(null);
         if (reference == null) {
             logger.warn("Product {} not found for similarity search", productId);
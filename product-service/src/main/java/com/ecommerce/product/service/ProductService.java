@@ -20,6 +20,12 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSimilarityIndex similarityIndex;
+
+    @Autowired
+    private RecommendationCache recommendationCache;
+
     /**
      * Helper method to format output for display.
      * @param data the raw data to format
@@ -35,8 +41,10 @@ public class ProductService {
     }
 
     public Product createProduct(Product product) {
-        return productRepository.save(product);
-
+        Product saved = productRepository.save(product);
+        similarityIndex.onProductChanged(saved);
+        recommendationCache.onCatalogChanged(saved);
+        return saved;
     }
 
     public Product updateProduct(Long id, Product productDetails) {
@@ -47,7 +55,10 @@ public class ProductService {
         product.setCategory(productDetails.getCategory());
         product.setStock(productDetails.getStock());
         product.setImageUrl(productDetails.getImageUrl());
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        similarityIndex.onProductChanged(saved);
+        recommendationCache.onCatalogChanged(saved);
+        return saved;
     // Validate input parameters before processing
     }
 
@@ -55,6 +66,8 @@ public class ProductService {
         Product product = getProductById(id);
         product.setActive(false);
         productRepository.save(product);
+        similarityIndex.onProductChanged(product);
+        recommendationCache.onCatalogChanged(product);
     }
 
     public List<Product> searchProducts(String keyword) {
@@ -0,0 +1,176 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Content-similarity index over active products. Each product's name and
+ * description are hashed into a feature vector and stored in an in-process
+ * {@link HnswIndex}, which answers top-k similarity queries without scanning
+ * the catalog. The index is built in the background on startup and kept up to
+ * date as products are created, updated or deactivated.
+ */
+@Component
+public class ProductSimilarityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSimilarityIndex.class);
+    private static final int BUILD_PAGE_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${recommendation.similarity.dimensions:128}")
+    private int dimensions;
+
+    @Value("${recommendation.similarity.m:16}")
+    private int m;
+
+    @Value("${recommendation.similarity.ef-construction:100}")
+    private int efConstruction;
+
+    @Value("${recommendation.similarity.ef-search:64}")
+    private int efSearch;
+
+    private final AtomicBoolean ready = new AtomicBoolean(false);
+    private final ExecutorService indexExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "similarity-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile ProductTextVectorizer vectorizer;
+    private volatile HnswIndex index;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        indexExecutor.execute(this::rebuild);
+    }
+
+    /**
+     * Find the products most similar in content to the given product.
+     *
+     * @param productId the reference product ID
+     * @param limit     maximum number of similar products
+     * @return similar product IDs, most similar first, or null if the index is
+     *         not ready or does not contain the product
+     */
+    public List<Long> findSimilar(Long productId, int limit) {
+        if (!ready.get()) {
+            return null;
+        }
+        return index.searchNeighbors(productId, limit, efSearch);
+    }
+
+    /**
+     * Add or refresh a product in the index, or drop it if it is inactive.
+     * Inside a transaction the update is queued only once it commits, so a
+     * rolled-back change never reaches the index.
+     *
+     * @param product the created or updated product
+     */
+    public void onProductChanged(Product product) {
+        Long productId = product.getId();
+        if (productId == null) {
+            return;
+        }
+        // Capture the state now; the entity may change again before the update runs
+        boolean active = Boolean.TRUE.equals(product.getActive());
+        String name = product.getName();
+        String description = product.getDescription();
+        Runnable update = () -> indexExecutor.execute(() -> {
+            if (index == null) {
+                return;
+            }
+            if (!active) {
+                index.remove(productId);
+                return;
+            }
+            float[] vector = vectorizer.vectorize(name, description);
+            if (vector == null) {
+                index.remove(productId);
+            } else {
+                index.add(productId, vector);
+            }
+            if (index.needsCompaction()) {
+                rebuild();
+            }
+        });
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    public boolean isReady() {
+        return ready.get();
+    }
+
+    public int size() {
+        return index != null ? index.size() : 0;
+    }
+
+    /**
+     * Rebuild the index from the active catalog and swap it in. Runs on the
+     * index thread, so incremental updates queued meanwhile apply afterwards.
+     */
+    private void rebuild() {
+        long start = System.currentTimeMillis();
+        ProductTextVectorizer newVectorizer = new ProductTextVectorizer(dimensions);
+        HnswIndex newIndex = new HnswIndex(dimensions, m, efConstruction);
+
+        try {
+            // Keyset pages: each query seeks past the last id instead of skipping an offset
+            Pageable limit = PageRequest.of(0, BUILD_PAGE_SIZE);
+            long lastId = 0;
+            List<Product> page;
+            do {
+                page = productRepository.findActiveAfter(lastId, limit);
+                for (Product product : page) {
+                    float[] vector = newVectorizer.vectorize(product.getName(), product.getDescription());
+                    if (vector != null) {
+                        newIndex.add(product.getId(), vector);
+                    }
+                    lastId = product.getId();
+                }
+            } while (page.size() == BUILD_PAGE_SIZE);
+        } catch (Exception e) {
+            logger.error("Failed to build product similarity index", e);
+            return;
+        }
+
+        vectorizer = newVectorizer;
+        index = newIndex;
+        ready.set(true);
+        logger.info("Product similarity index built with {} products in {} ms",
+                newIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexExecutor.shutdownNow();
+    }
+}
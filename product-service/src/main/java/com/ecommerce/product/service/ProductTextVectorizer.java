@@ -0,0 +1,100 @@
+package com.ecommerce.product.service;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns product name and description text into fixed-size, L2-normalised
+ * feature vectors using signed feature hashing over word unigrams and bigrams.
+ * Hashing keeps the vector size independent of the catalog vocabulary, so
+ * vectors can be computed one product at a time without a global dictionary.
+ */
+final class ProductTextVectorizer {
+
+    private static final float NAME_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final float BIGRAM_WEIGHT = 0.5f;
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is",
+            "it", "of", "on", "or", "the", "this", "to", "with", "your", "you"
+    ));
+
+    private final int dimensions;
+
+    ProductTextVectorizer(int dimensions) {
+        if (dimensions <= 0) {
+            throw new IllegalArgumentException("Vector dimensions must be positive: " + dimensions);
+        }
+        this.dimensions = dimensions;
+    }
+
+    int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Build the feature vector for a product.
+     *
+     * @param name        the product name
+     * @param description the product description, may be null
+     * @return a unit-length vector, or null if the text has no usable tokens
+     */
+    float[] vectorize(String name, String description) {
+        float[] vector = new float[dimensions];
+        addText(vector, name, NAME_WEIGHT);
+        addText(vector, description, DESCRIPTION_WEIGHT);
+        return normalize(vector) ? vector : null;
+    }
+
+    private void addText(float[] vector, String text, float weight) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        String previous = null;
+        for (String raw : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+            if (raw.length() < 2 || STOP_WORDS.contains(raw)) {
+                continue;
+            }
+            addFeature(vector, raw.hashCode(), weight);
+            if (previous != null) {
+                addFeature(vector, 31 * previous.hashCode() + raw.hashCode(), weight * BIGRAM_WEIGHT);
+            }
+            previous = raw;
+        }
+    }
+
+    private void addFeature(float[] vector, int hash, float weight) {
+        int mixed = mix(hash);
+        int bucket = Math.floorMod(mixed, dimensions);
+        // Use an independent bit for the sign so collisions tend to cancel out
+        vector[bucket] += (mixed & 0x4000_0000) == 0 ? weight : -weight;
+    }
+
+    private static boolean normalize(float[] vector) {
+        double sumOfSquares = 0;
+        for (float v : vector) {
+            sumOfSquares += v * v;
+        }
+        if (sumOfSquares == 0) {
+            return false;
+        }
+        float scale = (float) (1.0 / Math.sqrt(sumOfSquares));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return true;
+    }
+
+    // MurmurHash3 32-bit finaliser
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85eb_ca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2_ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,241 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.entity.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded, TTL'd cache of recommendation results keyed by user and limit.
+ * <p>
+ * Entries are stamped with the catalog version and the user's history
+ * generation they were computed from. A purchase, or every
+ * {@code recommendation.cache.views-per-invalidation} views, bumps the user's
+ * generation; any committed product change bumps the catalog version. An entry
+ * whose stamp no longer matches is never served, so invalidation is O(1) and
+ * never races with a concurrent recomputation.
+ */
+@Component
+public class RecommendationCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final int viewsPerInvalidation;
+
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final Map<Long, UserState> userStates = new ConcurrentHashMap<>();
+    // productId -> catalog version at which it was deactivated
+    private final Map<Long, Long> deactivatedProducts = new ConcurrentHashMap<>();
+    private final Map<CacheKey, CacheEntry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public RecommendationCache(MeterRegistry meterRegistry,
+                               @Value("${recommendation.cache.max-entries:100000}") int maxEntries,
+                               @Value("${recommendation.cache.ttl-seconds:300}") long ttlSeconds,
+                               @Value("${recommendation.cache.views-per-invalidation:5}") int viewsPerInvalidation) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.viewsPerInvalidation = Math.max(1, viewsPerInvalidation);
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<CacheKey, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, CacheEntry> eldest) {
+                return size() > RecommendationCache.this.maxEntries;
+            }
+        });
+
+        this.hits = Counter.builder("recommendation.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("recommendation.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("recommendation.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Get cached recommendations if they are still valid.
+     *
+     * @param userId the user ID
+     * @param limit  the requested limit
+     * @return the cached recommendations, or null on a miss
+     */
+    public List<Product> get(Long userId, int limit) {
+        CacheKey key = new CacheKey(userId, limit);
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.catalogVersion != catalogVersion.get()
+                || entry.userGeneration != getUserGeneration(userId)
+                || System.nanoTime() - entry.createdAtNanos > ttlNanos) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.products;
+    }
+
+    /**
+     * Capture the versions a result is about to be computed from. Must be
+     * called before reading any state the computation depends on.
+     */
+    public Stamp stamp(Long userId) {
+        return new Stamp(catalogVersion.get(), getUserGeneration(userId));
+    }
+
+    /**
+     * Cache a computed result under the stamp taken before computing it.
+     */
+    public void put(Long userId, int limit, Stamp stamp, List<Product> products) {
+        entries.put(new CacheKey(userId, limit), new CacheEntry(Collections.unmodifiableList(products),
+                stamp.catalogVersion, stamp.userGeneration, System.nanoTime()));
+    }
+
+    public long getUserGeneration(Long userId) {
+        UserState state = userStates.get(userId);
+        return state != null ? state.generation : 0;
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    /**
+     * Record a product view; every N views invalidate the user's results.
+     * Called from the single ingestion consumer thread.
+     */
+    void onProductViewed(Long userId) {
+        UserState state = userStates.computeIfAbsent(userId, k -> new UserState());
+        if (++state.pendingViews >= viewsPerInvalidation) {
+            state.pendingViews = 0;
+            state.generation++;
+        }
+    }
+
+    /**
+     * Record a purchase, which always invalidates the user's results.
+     * Called from the single ingestion consumer thread.
+     */
+    void onProductPurchased(Long userId) {
+        UserState state = userStates.computeIfAbsent(userId, k -> new UserState());
+        state.pendingViews = 0;
+        state.generation++;
+    }
+
+    /**
+     * Bump the catalog version once the current transaction commits, so no
+     * result computed from the old catalog is served afterwards.
+     *
+     * @param product the created, updated or deactivated product
+     */
+    public void onCatalogChanged(Product product) {
+        Long productId = product.getId();
+        boolean deactivated = !Boolean.TRUE.equals(product.getActive());
+        Runnable bump = () -> {
+            long version = catalogVersion.incrementAndGet();
+            if (deactivated && productId != null) {
+                deactivatedProducts.put(productId, version);
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump.run();
+                }
+            });
+        } else {
+            bump.run();
+        }
+    }
+
+    /**
+     * Drop products deactivated after a precomputed snapshot was built.
+     *
+     * @param products recommendations served from a snapshot
+     * @return the products still eligible to be served
+     */
+    List<Product> withoutDeactivated(List<Product> products) {
+        if (deactivatedProducts.isEmpty()) {
+            return products;
+        }
+        return products.stream()
+                .filter(p -> !deactivatedProducts.containsKey(p.getId()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Forget deactivations already reflected in a newly published snapshot.
+     *
+     * @param snapshotCatalogVersion catalog version read before the snapshot's catalog load
+     */
+    void onSnapshotPublished(long snapshotCatalogVersion) {
+        deactivatedProducts.values().removeIf(version -> version <= snapshotCatalogVersion);
+    }
+
+    /**
+     * Versions observed before computing a result.
+     */
+    public static final class Stamp {
+        private final long catalogVersion;
+        private final long userGeneration;
+
+        Stamp(long catalogVersion, long userGeneration) {
+            this.catalogVersion = catalogVersion;
+            this.userGeneration = userGeneration;
+        }
+    }
+
+    private static final class UserState {
+        volatile long generation;
+        int pendingViews;
+    }
+
+    private static final class CacheKey {
+        private final Long userId;
+        private final int limit;
+
+        CacheKey(Long userId, int limit) {
+            this.userId = userId;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CacheKey)) return false;
+            CacheKey that = (CacheKey) o;
+            return limit == that.limit && Objects.equals(userId, that.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(userId) + limit;
+        }
+    }
+
+    private static final class CacheEntry {
+        final List<Product> products;
+        final long catalogVersion;
+        final long userGeneration;
+        final long createdAtNanos;
+
+        CacheEntry(List<Product> products, long catalogVersion, long userGeneration, long createdAtNanos) {
+            this.products = products;
+            this.catalogVersion = catalogVersion;
+            this.userGeneration = userGeneration;
+            this.createdAtNanos = createdAtNanos;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Scheduled job that precomputes top-N recommendations for every user with
+ * browsing or purchase history. Users are split across a dedicated
+ * {@link ForkJoinPool}; the resulting {@link RecommendationSnapshot} is swapped
+ * into {@link ProductRecommendationService} in a single atomic step.
+ */
+@Component
+public class RecommendationPrecomputeJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationPrecomputeJob.class);
+
+    @Autowired
+    private ProductRecommendationService recommendationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RecommendationCache recommendationCache;
+
+    @Value("${recommendation.precompute.top-n:20}")
+    private int topN;
+
+    @Value("${recommendation.precompute.batch-size:256}")
+    private int batchSize;
+
+    private final ForkJoinPool pool;
+    private final Timer durationTimer;
+
+    public RecommendationPrecomputeJob(MeterRegistry meterRegistry,
+                                       @Value("${recommendation.precompute.parallelism:0}") int parallelism) {
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.durationTimer = Timer.builder("recommendation.precompute.duration")
+                .description("Time taken to precompute the recommendation snapshot")
+                .register(meterRegistry);
+        Gauge.builder("recommendation.snapshot.size", this, job -> job.recommendationService.getSnapshot().size())
+                .description("Number of users covered by the recommendation snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Rebuild the recommendation snapshot for all active users.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.precompute.interval-ms:600000}",
+               initialDelayString = "${recommendation.precompute.initial-delay-ms:60000}")
+    public void precompute() {
+        durationTimer.record(this::rebuildSnapshot);
+    }
+
+    private void rebuildSnapshot() {
+        long[] userIds = recommendationService.getActiveUserIds().stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        if (userIds.length == 0) {
+            logger.debug("No active users; keeping current recommendation snapshot");
+            return;
+        }
+
+        // Read the version first: catalog changes committed after this point invalidate the snapshot
+        long catalogVersion = recommendationCache.getCatalogVersion();
+
+        // Load the catalog once and share it read-only across all workers
+        List<Product> activeCatalog = productRepository.findByActiveTrue();
+        Map<Long, Product> catalogById = activeCatalog.stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        Map<Long, RecommendationSnapshot.Entry> recommendations =
+                pool.invoke(new PrecomputeTask(userIds, 0, userIds.length, activeCatalog, catalogById));
+
+        recommendationService.publishSnapshot(
+                new RecommendationSnapshot(recommendations, topN, catalogVersion, LocalDateTime.now()));
+        logger.info("Published recommendation snapshot for {} users over {} active products",
+                recommendations.size(), activeCatalog.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Splits a range of user IDs until it is small enough to compute directly.
+     */
+    private class PrecomputeTask extends RecursiveTask<Map<Long, RecommendationSnapshot.Entry>> {
+
+        private final long[] userIds;
+        private final int from;
+        private final int to;
+        private final List<Product> activeCatalog;
+        private final Map<Long, Product> catalogById;
+
+        PrecomputeTask(long[] userIds, int from, int to,
+                       List<Product> activeCatalog, Map<Long, Product> catalogById) {
+            this.userIds = userIds;
+            this.from = from;
+            this.to = to;
+            this.activeCatalog = activeCatalog;
+            this.catalogById = catalogById;
+        }
+
+        @Override
+        protected Map<Long, RecommendationSnapshot.Entry> compute() {
+            if (to - from <= batchSize) {
+                return computeDirectly();
+            }
+            int mid = (from + to) >>> 1;
+            PrecomputeTask left = new PrecomputeTask(userIds, from, mid, activeCatalog, catalogById);
+            PrecomputeTask right = new PrecomputeTask(userIds, mid, to, activeCatalog, catalogById);
+            left.fork();
+            Map<Long, RecommendationSnapshot.Entry> result = right.compute();
+            result.putAll(left.join());
+            return result;
+        }
+
+        private Map<Long, RecommendationSnapshot.Entry> computeDirectly() {
+            Map<Long, RecommendationSnapshot.Entry> result = new HashMap<>();
+            for (int i = from; i < to; i++) {
+                Long userId = userIds[i];
+                // Read the generation before the history so later events invalidate the entry
+                long userGeneration = recommendationCache.getUserGeneration(userId);
+                Set<Long> interactedIds = recommendationService.getInteractedProductIds(userId);
+                if (interactedIds.isEmpty()) {
+                    continue;
+                }
+                List<Product> interacted = interactedIds.stream()
+                        .map(catalogById::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList());
+                result.put(userId, new RecommendationSnapshot.Entry(recommendationService.rankRecommendations(
+                        interactedIds, interacted, activeCatalog, topN), userGeneration));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.entity.Product;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable set of precomputed top-N recommendations, keyed by user.
+ * A snapshot is built off-line by {@link RecommendationPrecomputeJob} and
+ * swapped into {@link ProductRecommendationService} as a whole.
+ */
+public final class RecommendationSnapshot {
+
+    private static final RecommendationSnapshot EMPTY =
+            new RecommendationSnapshot(Collections.emptyMap(), 0, -1, null);
+
+    private final Map<Long, Entry> entriesByUser;
+    private final int topN;
+    private final long catalogVersion;
+    private final LocalDateTime builtAt;
+
+    RecommendationSnapshot(Map<Long, Entry> entriesByUser, int topN, long catalogVersion, LocalDateTime builtAt) {
+        this.entriesByUser = Collections.unmodifiableMap(new HashMap<>(entriesByUser));
+        this.topN = topN;
+        this.catalogVersion = catalogVersion;
+        this.builtAt = builtAt;
+    }
+
+    public static RecommendationSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Look up the precomputed recommendations for a user.
+     *
+     * @param userId         the user ID
+     * @param limit          maximum number of recommendations
+     * @param userGeneration the user's current history generation
+     * @return the recommendations, or null if the user is not covered, their
+     *         history changed since the snapshot was built, or the limit
+     *         exceeds the precomputed depth
+     */
+    public List<Product> lookup(Long userId, int limit, long userGeneration) {
+        if (limit > topN) {
+            return null;
+        }
+        Entry entry = entriesByUser.get(userId);
+        if (entry == null || entry.userGeneration != userGeneration) {
+            return null;
+        }
+        return entry.products.size() > limit ? entry.products.subList(0, limit) : entry.products;
+    }
+
+    public int size() {
+        return entriesByUser.size();
+    }
+
+    public int getTopN() {
+        return topN;
+    }
+
+    /**
+     * @return the catalog version observed before the catalog was loaded
+     */
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    /**
+     * Recommendations for one user, tagged with the history generation they
+     * were computed from.
+     */
+    static final class Entry {
+        final List<Product> products;
+        final long userGeneration;
+
+        Entry(List<Product> products, long userGeneration) {
+            this.products = Collections.unmodifiableList(products);
+            this.userGeneration = userGeneration;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.ecommerce.product.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+    private static final int VECTORS = 3_000;
+    private static final int K = 10;
+    // The ProductSimilarityIndex defaults
+    private static final int M = 16;
+    private static final int EF_CONSTRUCTION = 100;
+    private static final int EF_SEARCH = 64;
+
+    private float[][] vectors;
+    private HnswIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // Products cluster by category, so the vectors are noisy copies of a few centres
+        Random random = new Random(7);
+        float[][] centres = new float[40][];
+        for (int c = 0; c < centres.length; c++) {
+            centres[c] = randomVector(random, null, 0);
+        }
+        vectors = new float[VECTORS][];
+        index = new HnswIndex(DIMENSIONS, M, EF_CONSTRUCTION);
+        for (int i = 0; i < VECTORS; i++) {
+            vectors[i] = randomVector(random, centres[random.nextInt(centres.length)], 0.6);
+            index.add(i, vectors[i]);
+        }
+    }
+
+    @Nested
+    @DisplayName("Search")
+    class Search {
+
+        @Test
+        @DisplayName("should find most of the exact nearest neighbours")
+        void shouldHaveHighRecall() {
+            int hits = 0;
+            int queries = 200;
+            for (int query = 0; query < queries; query++) {
+                long id = query * (VECTORS / queries);
+                Set<Long> exact = new HashSet<>(exactNeighbors(id, K, Set.of()));
+                List<Long> found = index.searchNeighbors(id, K, EF_SEARCH);
+
+                assertThat(found).hasSize(K).doesNotContain(id).doesNotHaveDuplicates();
+                hits += (int) found.stream().filter(exact::contains).count();
+            }
+            double recall = hits / (double) (queries * K);
+
+            assertThat(recall).as("recall@%d", K).isGreaterThanOrEqualTo(0.95);
+        }
+
+        @Test
+        @DisplayName("should return neighbours nearest first")
+        void shouldOrderByDistance() {
+            List<Long> found = index.searchNeighbors(0, K, EF_SEARCH);
+
+            List<Double> distances = found.stream()
+                    .map(id -> distance(vectors[0], vectors[id.intValue()]))
+                    .collect(Collectors.toList());
+            assertThat(distances).isSorted();
+        }
+
+        @Test
+        @DisplayName("should return null for an id that is not indexed")
+        void shouldReturnNullForUnknownId() {
+            assertThat(index.searchNeighbors(VECTORS + 1, K, EF_SEARCH)).isNull();
+        }
+
+        @Test
+        @DisplayName("should reject vectors of the wrong size")
+        void shouldRejectWrongDimensions() {
+            assertThatThrownBy(() -> index.add(VECTORS + 1, new float[DIMENSIONS + 1]))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Updates")
+    class Updates {
+
+        @Test
+        @DisplayName("should never return removed vectors and keep recall around them")
+        void shouldSkipRemovedVectors() {
+            Set<Long> removed = LongStream.range(0, VECTORS).filter(id -> id % 5 == 1).boxed()
+                    .collect(Collectors.toSet());
+            removed.forEach(index::remove);
+
+            assertThat(index.size()).isEqualTo(VECTORS - removed.size());
+            assertThat(index.contains(1)).isFalse();
+            int hits = 0;
+            int queries = 0;
+            for (long id = 0; id < VECTORS; id += 25) {
+                List<Long> found = index.searchNeighbors(id, K, EF_SEARCH);
+                assertThat(found).doesNotContainAnyElementsOf(removed);
+                Set<Long> exact = new HashSet<>(exactNeighbors(id, K, removed));
+                hits += (int) found.stream().filter(exact::contains).count();
+                queries++;
+            }
+
+            assertThat(hits / (double) (queries * K)).isGreaterThanOrEqualTo(0.9);
+        }
+
+        @Test
+        @DisplayName("should search with the new vector after an id is re-added")
+        void shouldReplaceVector() {
+            long moved = 0;
+            long target = VECTORS - 1;
+            vectors[(int) moved] = vectors[(int) target].clone();
+            index.add(moved, vectors[(int) moved]);
+
+            assertThat(index.size()).isEqualTo(VECTORS);
+            assertThat(index.searchNeighbors(moved, 1, EF_SEARCH)).containsExactly(target);
+        }
+    }
+
+    private List<Long> exactNeighbors(long id, int k, Set<Long> excluded) {
+        float[] reference = vectors[(int) id];
+        List<Long> ids = new ArrayList<>();
+        for (long other = 0; other < VECTORS; other++) {
+            if (other != id && !excluded.contains(other)) {
+                ids.add(other);
+            }
+        }
+        ids.sort(Comparator.comparingDouble(other -> distance(reference, vectors[(int) (long) other])));
+        return ids.subList(0, k);
+    }
+
+    private static double distance(float[] a, float[] b) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return 1 - dot;
+    }
+
+    /**
+     * A unit vector: uniformly random, or {@code centre} plus Gaussian noise.
+     */
+    private static float[] randomVector(Random random, float[] centre, double noise) {
+        float[] vector = new float[DIMENSIONS];
+        double norm = 0;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            double value = centre == null ? random.nextGaussian() : centre[i] + noise * random.nextGaussian() / Math.sqrt(DIMENSIONS);
+            vector[i] = (float) value;
+            norm += value * value;
+        }
+        norm = Math.sqrt(norm);
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] /= norm;
+        }
+        return vector;
+    }
+}
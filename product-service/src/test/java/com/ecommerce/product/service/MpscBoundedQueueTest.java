@@ -0,0 +1,153 @@
+package com.ecommerce.product.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MpscBoundedQueueTest {
+
+    @Nested
+    @DisplayName("Single Thread")
+    class SingleThread {
+
+        @Test
+        @DisplayName("should round the capacity up to a power of two")
+        void shouldRoundCapacity() {
+            assertThat(new MpscBoundedQueue<Integer>(2).capacity()).isEqualTo(2);
+            assertThat(new MpscBoundedQueue<Integer>(3).capacity()).isEqualTo(4);
+            assertThat(new MpscBoundedQueue<Integer>(1000).capacity()).isEqualTo(1024);
+            assertThatThrownBy(() -> new MpscBoundedQueue<Integer>(1))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        @DisplayName("should return elements in order and refuse offers when full")
+        void shouldBeFifoAndBounded() {
+            MpscBoundedQueue<Integer> queue = new MpscBoundedQueue<>(4);
+
+            for (int i = 0; i < 4; i++) {
+                assertThat(queue.offer(i)).isTrue();
+            }
+            assertThat(queue.offer(4)).isFalse();
+            assertThat(queue.size()).isEqualTo(4);
+
+            assertThat(queue.poll()).isEqualTo(0);
+            assertThat(queue.offer(4)).isTrue();
+            assertThat(List.of(queue.poll(), queue.poll(), queue.poll(), queue.poll())).containsExactly(1, 2, 3, 4);
+            assertThat(queue.poll()).isNull();
+            assertThat(queue.size()).isZero();
+        }
+
+        @Test
+        @DisplayName("should keep order across many wraps of the ring")
+        void shouldWrapAround() {
+            MpscBoundedQueue<Integer> queue = new MpscBoundedQueue<>(8);
+            int next = 0;
+            for (int round = 0; round < 1_000; round++) {
+                for (int i = 0; i < 5; i++) {
+                    assertThat(queue.offer(round * 5 + i)).isTrue();
+                }
+                for (int i = 0; i < 5; i++) {
+                    assertThat(queue.poll()).isEqualTo(next++);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("should drain at most the limit")
+        void shouldDrainUpToLimit() {
+            MpscBoundedQueue<Integer> queue = new MpscBoundedQueue<>(16);
+            for (int i = 0; i < 10; i++) {
+                queue.offer(i);
+            }
+
+            List<Integer> drained = new ArrayList<>();
+            assertThat(queue.drainTo(drained, 4)).isEqualTo(4);
+            assertThat(queue.drainTo(drained, 100)).isEqualTo(6);
+            assertThat(queue.drainTo(drained, 100)).isZero();
+            assertThat(drained).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        }
+
+        @Test
+        @DisplayName("should reject null elements")
+        void shouldRejectNull() {
+            assertThatThrownBy(() -> new MpscBoundedQueue<Integer>(4).offer(null))
+                    .isInstanceOf(NullPointerException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Concurrent Producers")
+    class ConcurrentProducers {
+
+        @Test
+        @Timeout(60)
+        @DisplayName("should deliver every element exactly once, in order per producer")
+        void shouldDeliverEveryElementOnce() throws Exception {
+            int producers = 4;
+            int perProducer = 20_000;
+            MpscBoundedQueue<long[]> queue = new MpscBoundedQueue<>(64);
+            ExecutorService pool = Executors.newFixedThreadPool(producers);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            try {
+                for (int p = 0; p < producers; p++) {
+                    long producer = p;
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        for (long seq = 0; seq < perProducer; seq++) {
+                            long[] element = {producer, seq};
+                            while (!queue.offer(element)) {
+                                if (Thread.interrupted()) {
+                                    return null;
+                                }
+                                // Let the consumer run even on a single core
+                                Thread.yield();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+
+                long[] nextSeq = new long[producers];
+                long received = 0;
+                List<long[]> batch = new ArrayList<>();
+                while (received < (long) producers * perProducer) {
+                    batch.clear();
+                    if (queue.drainTo(batch, 32) == 0) {
+                        Thread.yield();
+                        continue;
+                    }
+                    for (long[] element : batch) {
+                        int producer = (int) element[0];
+                        assertThat(element[1]).as("producer %d", producer).isEqualTo(nextSeq[producer]);
+                        nextSeq[producer]++;
+                    }
+                    received += batch.size();
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+
+                assertThat(nextSeq).containsOnly(perProducer);
+                assertThat(queue.poll()).isNull();
+            } finally {
+                pool.shutdownNow();
+                pool.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+}